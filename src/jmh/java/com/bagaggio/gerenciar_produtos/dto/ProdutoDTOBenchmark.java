@@ -0,0 +1,76 @@
+package com.bagaggio.gerenciar_produtos.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Benchmarks da serialização JSON de listas de {@link ProdutoDTO} e da validação das suas restrições.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProdutoDTOBenchmark {
+
+    /**
+     * Tamanho da lista serializada (página padrão e página máxima da listagem)
+     */
+    @Param({"50", "500"})
+    private int tamanho;
+
+    private ObjectWriter escritorLista;
+    private List<ProdutoDTO> produtos;
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private ProdutoDTO produtoValido;
+    private ProdutoDTO produtoInvalido;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        escritorLista = objectMapper.writerFor(
+                objectMapper.getTypeFactory().constructCollectionType(List.class, ProdutoDTO.class));
+        produtos = IntStream.range(0, tamanho)
+                .mapToObj(i -> new ProdutoDTO((long) i, "Produto " + i, "Descrição do produto " + i,
+                        BigDecimal.valueOf(1999 + i, 2), i % 50, "Categoria " + i % 20))
+                .toList();
+
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        produtoValido = produtos.getFirst();
+        produtoInvalido = new ProdutoDTO(null, "", "", BigDecimal.valueOf(-5), -1, "");
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public byte[] serializarLista() throws Exception {
+        return escritorLista.writeValueAsBytes(produtos);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<ProdutoDTO>> validarProdutoValido() {
+        return validator.validate(produtoValido);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<ProdutoDTO>> validarProdutoInvalido() {
+        return validator.validate(produtoInvalido);
+    }
+}
@@ -0,0 +1,68 @@
+package com.bagaggio.gerenciar_produtos.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Benchmark dos formatos de resposta de listas de {@link ProdutoDTO}: JSON e CBOR, com e sem gzip.
+ * Mede o custo de CPU da serialização (e da compressão) por lista; o tamanho em bytes de cada
+ * formato é registrado em log no início de cada trial, com descrições de tamanho realista.
+ */
+@Slf4j
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProdutoFormatoBenchmark {
+
+    @Param({"json", "cbor"})
+    private String formato;
+
+    @Param({"500"})
+    private int tamanho;
+
+    private ObjectWriter escritor;
+    private List<ProdutoDTO> produtos;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper mapper = formato.equals("cbor") ? new CBORMapper() : new ObjectMapper();
+        escritor = mapper.writerFor(mapper.getTypeFactory().constructCollectionType(List.class, ProdutoDTO.class));
+        produtos = IntStream.range(0, tamanho)
+                .mapToObj(i -> new ProdutoDTO((long) i, "Mala de Viagem " + i,
+                        "Mala de viagem com rodinhas 360 graus, cadeado TSA embutido, alça telescópica em alumínio "
+                                + "e revestimento interno impermeável. Modelo " + i + ".",
+                        BigDecimal.valueOf(19990 + i, 2), i % 50, "Categoria " + i % 20))
+                .toList();
+
+        log.info("{}, {} produtos: {} bytes, {} bytes com gzip",
+                formato, tamanho, serializar().length, serializarComGzip().length);
+    }
+
+    @Benchmark
+    public byte[] serializar() throws IOException {
+        return escritor.writeValueAsBytes(produtos);
+    }
+
+    @Benchmark
+    public byte[] serializarComGzip() throws IOException {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(saida)) {
+            escritor.writeValue(gzip, produtos);
+        }
+        return saida.toByteArray();
+    }
+}
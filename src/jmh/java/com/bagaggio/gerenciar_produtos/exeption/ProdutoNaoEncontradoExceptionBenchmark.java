@@ -0,0 +1,38 @@
+package com.bagaggio.gerenciar_produtos.exeption;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo de lançar e capturar a exceção de produto não encontrado, comparado ao da
+ * RuntimeException com stack trace usada antes
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProdutoNaoEncontradoExceptionBenchmark {
+
+    private long id = 42L;
+
+    @Benchmark
+    public Object runtimeExceptionComStackTrace() {
+        try {
+            throw new RuntimeException("Produto não encontrado!");
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object produtoNaoEncontradoSemStackTrace() {
+        try {
+            throw new ProdutoNaoEncontradoException(id);
+        } catch (ProdutoNaoEncontradoException e) {
+            return e;
+        }
+    }
+}
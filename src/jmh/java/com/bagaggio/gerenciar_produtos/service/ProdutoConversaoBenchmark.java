@@ -0,0 +1,66 @@
+package com.bagaggio.gerenciar_produtos.service;
+
+import com.bagaggio.gerenciar_produtos.dto.ProdutoDTO;
+import com.bagaggio.gerenciar_produtos.model.Produto;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks das conversões entre {@link ProdutoDTO} e {@link Produto} feitas pelo {@link ProdutoService}.
+ * Fica no pacote do serviço para acessar {@code toDTO} e {@code toEntity}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ProdutoConversaoBenchmark {
+
+    /**
+     * Preço já com duas casas (setScale sem arredondamento) e com mais casas (setScale arredondando)
+     */
+    @Param({"199.90", "199.987654"})
+    private String preco;
+
+    private ProdutoDTO produtoDTO;
+    private Produto produto;
+    private BigDecimal valor;
+
+    @Setup
+    public void setUp() {
+        valor = new BigDecimal(preco);
+        produtoDTO = new ProdutoDTO(null, "Mala de Viagem Grande", "Mala com rodinhas e cadeado TSA",
+                valor, 10, "Malas");
+        produto = Produto.builder()
+                .id(1L)
+                .nome("Mala de Viagem Grande")
+                .descricao("Mala com rodinhas e cadeado TSA")
+                .preco(valor.setScale(2, RoundingMode.HALF_EVEN))
+                .quantidade(10)
+                .categoria("Malas")
+                .versao(3L)
+                .build();
+    }
+
+    @Benchmark
+    public Produto toEntity() {
+        return ProdutoService.toEntity(produtoDTO);
+    }
+
+    @Benchmark
+    public ProdutoDTO toDTO() {
+        return ProdutoService.toDTO(produto);
+    }
+
+    /**
+     * Custo isolado do arredondamento feito em {@code toEntity}
+     */
+    @Benchmark
+    public BigDecimal setScale() {
+        return valor.setScale(2, RoundingMode.HALF_EVEN);
+    }
+}
@@ -0,0 +1,83 @@
+package com.bagaggio.gerenciar_produtos.service;
+
+import com.bagaggio.gerenciar_produtos.GerenciarProdutosApplication;
+import com.bagaggio.gerenciar_produtos.dto.ProdutoDTO;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Criações individuais simultâneas no {@link ProdutoCriacaoAgrupadaService} contra o H2 embarcado
+ * (perfil "test"), com e sem a gravação agrupada.
+ * Cada operação é uma rodada de "concorrencia" criações disparadas ao mesmo tempo: o tempo amostrado
+ * é a latência da rodada (a da criação mais lenta) e a vazão de criações é concorrencia / tempo médio.
+ * No H2 em memória o commit é barato; no MySQL, em que cada commit grava o redo log em disco,
+ * a diferença entre os modos tende a ser maior.
+ */
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProdutoCriacaoAgrupadaBenchmark {
+
+    @Param({"1", "8", "64"})
+    private int concorrencia;
+
+    /**
+     * "false" mede uma transação por criação; "true", a gravação agrupada com a janela padrão
+     */
+    @Param({"false", "true"})
+    private boolean agrupada;
+
+    private ConfigurableApplicationContext contexto;
+    private ProdutoCriacaoAgrupadaService produtoCriacaoAgrupadaService;
+    private ExecutorService executor;
+    private ProdutoDTO produto;
+
+    @Setup
+    public void setUp() {
+        contexto = new SpringApplicationBuilder(GerenciarProdutosApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;MODE=MYSQL",
+                        "produtos.criacao.agrupada.habilitado=" + agrupada,
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN")
+                .run();
+        produtoCriacaoAgrupadaService = contexto.getBean(ProdutoCriacaoAgrupadaService.class);
+        executor = Executors.newFixedThreadPool(concorrencia);
+        produto = new ProdutoDTO(null, "Mala de Viagem", "Mala com rodinhas e cadeado TSA",
+                new BigDecimal("399.90"), 10, "Malas");
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+        contexto.close();
+    }
+
+    @Benchmark
+    public List<ProdutoDTO> rodadaDeCriacoes() throws Exception {
+        List<Future<ProdutoDTO>> tarefas = new ArrayList<>(concorrencia);
+        for (int i = 0; i < concorrencia; i++) {
+            tarefas.add(executor.submit(() -> produtoCriacaoAgrupadaService.criar(produto)));
+        }
+        List<ProdutoDTO> criados = new ArrayList<>(concorrencia);
+        for (Future<ProdutoDTO> tarefa : tarefas) {
+            criados.add(tarefa.get());
+        }
+        return criados;
+    }
+}
@@ -0,0 +1,76 @@
+package com.bagaggio.gerenciar_produtos.service;
+
+import com.bagaggio.gerenciar_produtos.GerenciarProdutosApplication;
+import com.bagaggio.gerenciar_produtos.exeption.ProdutoNaoEncontradoException;
+import com.bagaggio.gerenciar_produtos.model.Produto;
+import com.bagaggio.gerenciar_produtos.repository.ProdutoRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Vazão de buscas por IDs inexistentes no {@link ProdutoService} contra o H2 embarcado (perfil "test"),
+ * com e sem o índice de IDs. Sem o índice, cada busca vai ao banco antes de responder 404.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProdutoNaoEncontradoBenchmark {
+
+    @Param({"1000"})
+    private int totalProdutos;
+
+    /**
+     * "false" mede o caminho anterior (findById a cada busca); "true", a recusa pelo índice de IDs
+     */
+    @Param({"false", "true"})
+    private boolean indiceIds;
+
+    private ConfigurableApplicationContext contexto;
+    private ProdutoService produtoService;
+    private long maiorId;
+
+    @Setup
+    public void setUp() {
+        contexto = new SpringApplicationBuilder(GerenciarProdutosApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;MODE=MYSQL",
+                        "produtos.indice-ids.habilitado=" + indiceIds,
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN")
+                .run();
+        produtoService = contexto.getBean(ProdutoService.class);
+        maiorId = contexto.getBean(ProdutoRepository.class).saveAll(IntStream.range(0, totalProdutos)
+                        .mapToObj(i -> new Produto(null, "Produto " + i, "Descrição do produto " + i,
+                                BigDecimal.valueOf(1999 + i, 2), i % 50, "Categoria " + i % 20))
+                        .toList())
+                .getLast().getId();
+    }
+
+    @TearDown
+    public void tearDown() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public Object buscarIdInexistente() {
+        // IDs além do último criado, como os de crawlers e clientes com dados antigos
+        long id = maiorId + 1 + ThreadLocalRandom.current().nextInt(1_000_000);
+        try {
+            return produtoService.buscarPorId(id);
+        } catch (ProdutoNaoEncontradoException e) {
+            return e;
+        }
+    }
+}
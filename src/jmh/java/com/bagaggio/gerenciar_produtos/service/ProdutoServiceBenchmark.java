@@ -0,0 +1,80 @@
+package com.bagaggio.gerenciar_produtos.service;
+
+import com.bagaggio.gerenciar_produtos.GerenciarProdutosApplication;
+import com.bagaggio.gerenciar_produtos.dto.PaginaDTO;
+import com.bagaggio.gerenciar_produtos.dto.ProdutoDTO;
+import com.bagaggio.gerenciar_produtos.model.Produto;
+import com.bagaggio.gerenciar_produtos.repository.ProdutoRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Benchmarks de ponta a ponta do {@link ProdutoService} contra o H2 embarcado (perfil "test"),
+ * com e sem o cache de produtos por ID.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProdutoServiceBenchmark {
+
+    @Param({"1000"})
+    private int totalProdutos;
+
+    /**
+     * "caffeine" mede leituras servidas do cache; "none" mede a ida ao banco a cada busca
+     */
+    @Param({"caffeine", "none"})
+    private String cache;
+
+    private ConfigurableApplicationContext contexto;
+    private ProdutoService produtoService;
+    private List<Long> ids;
+
+    @Setup
+    public void setUp() {
+        contexto = new SpringApplicationBuilder(GerenciarProdutosApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;MODE=MYSQL",
+                        "spring.cache.type=" + cache,
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN")
+                .run();
+        produtoService = contexto.getBean(ProdutoService.class);
+        ids = contexto.getBean(ProdutoRepository.class).saveAll(IntStream.range(0, totalProdutos)
+                        .mapToObj(i -> new Produto(null, "Produto " + i, "Descrição do produto " + i,
+                                BigDecimal.valueOf(1999 + i, 2), i % 50, "Categoria " + i % 20))
+                        .toList())
+                .stream().map(Produto::getId).toList();
+    }
+
+    @TearDown
+    public void tearDown() {
+        contexto.close();
+    }
+
+    /**
+     * Primeira página com o limite padrão da API
+     */
+    @Benchmark
+    public PaginaDTO<ProdutoDTO> listarPagina() {
+        return produtoService.listarPagina(FiltroProduto.TODOS, null, 50);
+    }
+
+    @Benchmark
+    public ProdutoDTO buscarPorId() {
+        return produtoService.buscarPorId(ids.get(ThreadLocalRandom.current().nextInt(ids.size())));
+    }
+}
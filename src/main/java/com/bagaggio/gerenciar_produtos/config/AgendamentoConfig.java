@@ -0,0 +1,12 @@
+package com.bagaggio.gerenciar_produtos.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita as tarefas agendadas da aplicação (ex.: descarga periódica dos ajustes de estoque).
+ */
+@Configuration
+@EnableScheduling
+public class AgendamentoConfig {
+}
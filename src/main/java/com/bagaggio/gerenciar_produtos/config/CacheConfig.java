@@ -0,0 +1,52 @@
+package com.bagaggio.gerenciar_produtos.config;
+
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+/**
+ * Configuração do cache em memória da aplicação.
+ * O provedor (Caffeine), o tamanho máximo e o tempo de expiração
+ * são definidos no application.properties.
+ */
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfig {
+
+    /**
+     * Cache de produtos por ID, com os {@code ProdutoDTO} retornados por {@code buscarPorId}
+     * (guardados como cópias imutáveis, ver {@link ProdutoCaffeineCache})
+     */
+    public static final String CACHE_PRODUTOS = "produtos";
+
+    /**
+     * Gerenciador Caffeine montado a partir de spring.cache.*, como o da autoconfiguração,
+     * mas com o cache de produtos adaptado por {@link ProdutoCaffeineCache}.
+     * Com outro spring.cache.type (ex.: none nos testes) a autoconfiguração volta a criar o gerenciador.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "spring.cache.type", havingValue = "caffeine", matchIfMissing = true)
+    public CaffeineCacheManager cacheManager(CacheProperties cacheProperties) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+            @Override
+            protected Cache adaptCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+                return CACHE_PRODUTOS.equals(name)
+                        ? new ProdutoCaffeineCache(name, cache, isAllowNullValues())
+                        : super.adaptCaffeineCache(name, cache);
+            }
+        };
+        String especificacao = cacheProperties.getCaffeine().getSpec();
+        if (StringUtils.hasText(especificacao)) {
+            cacheManager.setCacheSpecification(especificacao);
+        }
+        cacheManager.setCacheNames(cacheProperties.getCacheNames());
+        return cacheManager;
+    }
+}
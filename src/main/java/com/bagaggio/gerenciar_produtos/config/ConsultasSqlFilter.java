@@ -0,0 +1,75 @@
+package com.bagaggio.gerenciar_produtos.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Mede quantos comandos SQL cada requisição HTTP emitiu.
+ * A contagem é publicada na métrica "http.server.sql.statements" (por método e URI),
+ * registrada em log (DEBUG, ou WARN acima do limite configurado, indicando possíveis N+1)
+ * e guardada no atributo {@link #ATRIBUTO_CONSULTAS} da requisição para os testes.
+ */
+@Slf4j
+@Component
+public class ConsultasSqlFilter extends OncePerRequestFilter {
+
+    /**
+     * Atributo da requisição com a quantidade de comandos SQL emitidos
+     */
+    public static final String ATRIBUTO_CONSULTAS = ConsultasSqlFilter.class.getName() + ".consultas";
+
+    private final ContadorConsultasSql contadorConsultasSql;
+    private final MeterRegistry meterRegistry;
+    private final int limiteAlerta;
+
+    @Autowired
+    public ConsultasSqlFilter(ContadorConsultasSql contadorConsultasSql,
+                              MeterRegistry meterRegistry,
+                              @Value("${produtos.sql.alerta-consultas-por-requisicao:20}") int limiteAlerta) {
+        this.contadorConsultasSql = contadorConsultasSql;
+        this.meterRegistry = meterRegistry;
+        this.limiteAlerta = limiteAlerta;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        contadorConsultasSql.iniciar();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            int consultas = contadorConsultasSql.finalizar();
+            request.setAttribute(ATRIBUTO_CONSULTAS, consultas);
+            registrar(request, consultas);
+        }
+    }
+
+    private void registrar(HttpServletRequest request, int consultas) {
+        Object padrao = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = padrao != null ? padrao.toString() : "UNKNOWN";
+        DistributionSummary.builder("http.server.sql.statements")
+                .description("Comandos SQL emitidos por requisição HTTP")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(consultas);
+
+        if (consultas > limiteAlerta) {
+            log.warn("{} {} emitiu {} comandos SQL (limite de alerta: {})", request.getMethod(), uri, consultas, limiteAlerta);
+        } else {
+            log.debug("{} {} emitiu {} comandos SQL", request.getMethod(), uri, consultas);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.bagaggio.gerenciar_produtos.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+
+/**
+ * Conta os comandos SQL executados na thread atual, na camada JDBC.
+ * O DataSource da aplicação é envolvido por um proxy que conta cada execução de Statement
+ * ({@code execute*}; um batch conta como um comando), então entram na contagem tanto as consultas do
+ * Hibernate quanto as enviadas diretamente via JDBC (ex.: inserções em lote, eventos do outbox).
+ * A contagem só acontece entre {@link #iniciar()} e {@link #finalizar()} (ex.: durante uma requisição HTTP);
+ * fora disso o custo por comando é uma leitura de ThreadLocal.
+ */
+@Component
+public class ContadorConsultasSql implements BeanPostProcessor {
+
+    private static final ThreadLocal<int[]> CONTAGEM = new ThreadLocal<>();
+
+    private static final Set<String> EXECUCOES = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    /**
+     * Inicia a contagem na thread atual, zerando qualquer contagem anterior
+     */
+    public void iniciar() {
+        CONTAGEM.set(new int[1]);
+    }
+
+    /**
+     * Encerra a contagem na thread atual
+     * @return quantidade de comandos SQL executados desde {@link #iniciar()}, ou 0 se a contagem não foi iniciada
+     */
+    public int finalizar() {
+        int[] contagem = CONTAGEM.get();
+        CONTAGEM.remove();
+        return contagem == null ? 0 : contagem[0];
+    }
+
+    /**
+     * Envolve o DataSource usado pela aplicação (o pool, ou o roteamento entre primário e réplica)
+     */
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && "dataSource".equals(beanName)) {
+            return new DataSourceContador(dataSource);
+        }
+        return bean;
+    }
+
+    private static void contar() {
+        int[] contagem = CONTAGEM.get();
+        if (contagem != null) {
+            contagem[0]++;
+        }
+    }
+
+    private static Object invocar(Object alvo, Method metodo, Object[] argumentos) throws Throwable {
+        try {
+            return metodo.invoke(alvo, argumentos);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    /**
+     * DataSource que entrega conexões cujos Statements contam as suas execuções.
+     * Como {@link DelegatingDataSource}, continua podendo ser desembrulhado até o pool (ex.: métricas do Hikari).
+     */
+    static final class DataSourceContador extends DelegatingDataSource {
+
+        DataSourceContador(DataSource alvo) {
+            super(alvo);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return conexaoContada(obtainTargetDataSource().getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return conexaoContada(obtainTargetDataSource().getConnection(username, password));
+        }
+
+        private static Connection conexaoContada(Connection conexao) {
+            InvocationHandler handler = (proxy, metodo, argumentos) -> {
+                Object resultado = invocar(conexao, metodo, argumentos);
+                // createStatement, prepareStatement e prepareCall: o proxy tem a interface declarada pelo método
+                if (resultado instanceof Statement statement && metodo.getReturnType().isInterface()
+                        && Statement.class.isAssignableFrom(metodo.getReturnType())) {
+                    return statementContado(statement, metodo.getReturnType());
+                }
+                return resultado;
+            };
+            return (Connection) Proxy.newProxyInstance(ContadorConsultasSql.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, handler);
+        }
+
+        private static Object statementContado(Statement statement, Class<?> tipo) {
+            InvocationHandler handler = (proxy, metodo, argumentos) -> {
+                if (EXECUCOES.contains(metodo.getName())) {
+                    contar();
+                }
+                return invocar(statement, metodo, argumentos);
+            };
+            return Proxy.newProxyInstance(ContadorConsultasSql.class.getClassLoader(), new Class<?>[]{tipo}, handler);
+        }
+    }
+}
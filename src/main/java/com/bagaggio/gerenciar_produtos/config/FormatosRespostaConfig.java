@@ -0,0 +1,29 @@
+package com.bagaggio.gerenciar_produtos.config;
+
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Configuração dos formatos de corpo aceitos e produzidos pela API.
+ * Além de JSON, a API negocia CBOR ({@code application/cbor}), um formato binário compacto,
+ * pelos cabeçalhos Accept e Content-Type.
+ */
+@Configuration
+public class FormatosRespostaConfig {
+
+    /**
+     * Conversor CBOR criado a partir do builder do Spring Boot, com as mesmas configurações
+     * spring.jackson.* do JSON (ex.: datas ISO-8601 em vez de números).
+     * Por ser um bean, o Spring Boot o coloca no lugar do conversor CBOR padrão, na mesma posição,
+     * mantendo JSON como formato padrão quando o cliente não pede um formato específico.
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        CBORMapper cborMapper = new CBORMapper();
+        objectMapperBuilder.configure(cborMapper);
+        return new MappingJackson2CborHttpMessageConverter(cborMapper);
+    }
+}
@@ -0,0 +1,53 @@
+package com.bagaggio.gerenciar_produtos.config;
+
+import com.bagaggio.gerenciar_produtos.dto.ProdutoDTO;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Cache de produtos que guarda um registro imutável no lugar do {@link ProdutoDTO}.
+ * O DTO é mutável e vai direto para a serialização e para quem chamou o serviço; guardá-lo
+ * no cache faria uma alteração feita por um chamador aparecer para todos os outros.
+ * Cada escrita copia o DTO para um {@link ProdutoCacheado} e cada leitura devolve um DTO novo.
+ */
+class ProdutoCaffeineCache extends CaffeineCache {
+
+    ProdutoCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache, boolean allowNullValues) {
+        super(name, cache, allowNullValues);
+    }
+
+    @Override
+    protected Object toStoreValue(Object userValue) {
+        if (userValue instanceof ProdutoDTO produto) {
+            return ProdutoCacheado.de(produto);
+        }
+        return super.toStoreValue(userValue);
+    }
+
+    @Override
+    protected Object fromStoreValue(Object storeValue) {
+        if (storeValue instanceof ProdutoCacheado produto) {
+            return produto.toDTO();
+        }
+        return super.fromStoreValue(storeValue);
+    }
+
+    /**
+     * Cópia imutável dos campos de um {@link ProdutoDTO}.
+     */
+    record ProdutoCacheado(Long id, String nome, String descricao, BigDecimal preco, Integer quantidade,
+                           String categoria, Long versao, Instant criadoEm, Instant atualizadoEm) {
+
+        static ProdutoCacheado de(ProdutoDTO produto) {
+            return new ProdutoCacheado(produto.getId(), produto.getNome(), produto.getDescricao(), produto.getPreco(),
+                    produto.getQuantidade(), produto.getCategoria(), produto.getVersao(), produto.getCriadoEm(),
+                    produto.getAtualizadoEm());
+        }
+
+        ProdutoDTO toDTO() {
+            return new ProdutoDTO(id, nome, descricao, preco, quantidade, categoria, versao, criadoEm, atualizadoEm);
+        }
+    }
+}
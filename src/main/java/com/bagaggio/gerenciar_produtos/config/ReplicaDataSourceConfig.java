@@ -0,0 +1,72 @@
+package com.bagaggio.gerenciar_produtos.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Configuração de leitura em réplica, ativada quando {@code produtos.datasource.replica.url} é informada.
+ * Transações somente leitura usam o pool da réplica; escritas, inicialização do schema e
+ * acessos fora de transação usam o pool do primário ({@code spring.datasource.*}).
+ * Como a réplica é assíncrona, uma leitura logo após uma escrita pode não enxergá-la.
+ */
+@Configuration
+@ConditionalOnProperty(name = "produtos.datasource.replica.url")
+public class ReplicaDataSourceConfig {
+
+    /**
+     * Pool do primário, configurado pelas propriedades padrão spring.datasource.* e spring.datasource.hikari.*
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primarioDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primario");
+        return dataSource;
+    }
+
+    /**
+     * Pool da réplica, configurado por produtos.datasource.replica.* e produtos.datasource.replica.hikari.*
+     * (usuário e senha do primário, se não informados)
+     */
+    @Bean
+    @ConfigurationProperties("produtos.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(@Value("${produtos.datasource.replica.url}") String url,
+                                              @Value("${produtos.datasource.replica.username:${spring.datasource.username:}}") String username,
+                                              @Value("${produtos.datasource.replica.password:${spring.datasource.password:}}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    /**
+     * DataSource usado pela aplicação (JPA, JdbcTemplate, inicialização do schema)
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primarioDataSource, HikariDataSource replicaDataSource) {
+        RoteamentoDataSource roteamento = new RoteamentoDataSource();
+        roteamento.setTargetDataSources(Map.of(
+                RoteamentoDataSource.Destino.PRIMARIO, primarioDataSource,
+                RoteamentoDataSource.Destino.REPLICA, replicaDataSource));
+        roteamento.setDefaultTargetDataSource(primarioDataSource);
+        roteamento.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(roteamento);
+    }
+}
@@ -0,0 +1,26 @@
+package com.bagaggio.gerenciar_produtos.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * DataSource que direciona as conexões de transações somente leitura para a réplica
+ * e todas as demais (escritas e acessos fora de transação) para o primário.
+ * Deve ser envolvido por um {@code LazyConnectionDataSourceProxy}, para que a conexão
+ * só seja obtida depois que a transação já foi marcada como somente leitura.
+ */
+public class RoteamentoDataSource extends AbstractRoutingDataSource {
+
+    /**
+     * Destinos possíveis de uma conexão
+     */
+    public enum Destino {
+        PRIMARIO,
+        REPLICA
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? Destino.REPLICA : Destino.PRIMARIO;
+    }
+}
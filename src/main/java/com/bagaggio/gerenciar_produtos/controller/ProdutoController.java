@@ -1,13 +1,59 @@
 package com.bagaggio.gerenciar_produtos.controller;
 
+import com.bagaggio.gerenciar_produtos.dto.AjusteEstoqueDTO;
+import com.bagaggio.gerenciar_produtos.dto.AtualizacaoEmMassaDTO;
+import com.bagaggio.gerenciar_produtos.dto.EstatisticaCategoriaDTO;
+import com.bagaggio.gerenciar_produtos.dto.ImportacaoDTO;
+import com.bagaggio.gerenciar_produtos.dto.MovimentoEstoqueDTO;
+import com.bagaggio.gerenciar_produtos.dto.PaginaBuscaDTO;
+import com.bagaggio.gerenciar_produtos.dto.PaginaDTO;
 import com.bagaggio.gerenciar_produtos.dto.ProdutoDTO;
+import com.bagaggio.gerenciar_produtos.dto.ResultadoAtualizacaoDTO;
+import com.bagaggio.gerenciar_produtos.dto.ResultadoBuscaIdsDTO;
+import com.bagaggio.gerenciar_produtos.dto.ResultadoLoteDTO;
+import com.bagaggio.gerenciar_produtos.dto.SincronizacaoDTO;
+import com.bagaggio.gerenciar_produtos.exeption.PrecondicaoFalhouException;
+import com.bagaggio.gerenciar_produtos.exeption.ProdutoNaoEncontradoException;
+import com.bagaggio.gerenciar_produtos.service.AjusteEstoqueService;
+import com.bagaggio.gerenciar_produtos.service.CamposProduto;
+import com.bagaggio.gerenciar_produtos.service.EstatisticasCategoriaService;
+import com.bagaggio.gerenciar_produtos.service.FiltroProduto;
+import com.bagaggio.gerenciar_produtos.service.OrdenacaoProduto;
+import com.bagaggio.gerenciar_produtos.service.ProdutoAtualizacaoService;
+import com.bagaggio.gerenciar_produtos.service.ProdutoBuscaPorIdsService;
+import com.bagaggio.gerenciar_produtos.service.ProdutoBuscaService;
+import com.bagaggio.gerenciar_produtos.service.ProdutoCriacaoAgrupadaService;
+import com.bagaggio.gerenciar_produtos.service.ProdutoEventoService;
+import com.bagaggio.gerenciar_produtos.service.ProdutoImportacaoService;
+import com.bagaggio.gerenciar_produtos.service.ProdutoLoteService;
 import com.bagaggio.gerenciar_produtos.service.ProdutoService;
+import com.bagaggio.gerenciar_produtos.service.ProdutoSincronizacaoService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Controller responsável por expor os endpoints da API de produtos.
@@ -16,38 +62,373 @@ import java.util.List;
 @RequestMapping("/produtos")
 public class ProdutoController {
 
+    /**
+     * Cabeçalho com o cursor da próxima página nas listagens paginadas
+     */
+    public static final String HEADER_PROXIMO_CURSOR = "X-Proximo-Cursor";
+
+    /**
+     * Tipo de mídia do JSON Merge Patch (RFC 7396)
+     */
+    public static final String APPLICATION_MERGE_PATCH_JSON_VALUE = "application/merge-patch+json";
+
     private final ProdutoService produtoService;
+    private final ProdutoLoteService produtoLoteService;
+    private final ProdutoImportacaoService produtoImportacaoService;
+    private final ProdutoCriacaoAgrupadaService produtoCriacaoAgrupadaService;
+    private final ProdutoBuscaService produtoBuscaService;
+    private final ProdutoBuscaPorIdsService produtoBuscaPorIdsService;
+    private final ProdutoAtualizacaoService produtoAtualizacaoService;
+    private final AjusteEstoqueService ajusteEstoqueService;
+    private final EstatisticasCategoriaService estatisticasCategoriaService;
+    private final ProdutoEventoService produtoEventoService;
+    private final ProdutoSincronizacaoService produtoSincronizacaoService;
+    private final ObjectMapper objectMapper;
+    private final int limitePadrao;
+    private final int limiteMaximo;
 
     @Autowired
-    public ProdutoController(ProdutoService produtoService) {
+    public ProdutoController(ProdutoService produtoService,
+                             ProdutoLoteService produtoLoteService,
+                             ProdutoImportacaoService produtoImportacaoService,
+                             ProdutoCriacaoAgrupadaService produtoCriacaoAgrupadaService,
+                             ProdutoBuscaService produtoBuscaService,
+                             ProdutoBuscaPorIdsService produtoBuscaPorIdsService,
+                             ProdutoAtualizacaoService produtoAtualizacaoService,
+                             AjusteEstoqueService ajusteEstoqueService,
+                             EstatisticasCategoriaService estatisticasCategoriaService,
+                             ProdutoEventoService produtoEventoService,
+                             ProdutoSincronizacaoService produtoSincronizacaoService,
+                             ObjectMapper objectMapper,
+                             @Value("${produtos.paginacao.limite-padrao:50}") int limitePadrao,
+                             @Value("${produtos.paginacao.limite-maximo:500}") int limiteMaximo) {
         this.produtoService = produtoService;
+        this.produtoLoteService = produtoLoteService;
+        this.produtoImportacaoService = produtoImportacaoService;
+        this.produtoCriacaoAgrupadaService = produtoCriacaoAgrupadaService;
+        this.produtoBuscaService = produtoBuscaService;
+        this.produtoBuscaPorIdsService = produtoBuscaPorIdsService;
+        this.produtoAtualizacaoService = produtoAtualizacaoService;
+        this.ajusteEstoqueService = ajusteEstoqueService;
+        this.estatisticasCategoriaService = estatisticasCategoriaService;
+        this.produtoEventoService = produtoEventoService;
+        this.produtoSincronizacaoService = produtoSincronizacaoService;
+        this.objectMapper = objectMapper;
+        this.limitePadrao = limitePadrao;
+        this.limiteMaximo = limiteMaximo;
     }
 
+    /**
+     * Lista os produtos paginados por cursor, com filtros opcionais por categoria e faixa de preço.
+     * A ordenação ("sort") aceita "id" ou "preco", com "asc" ou "desc" (ex.: "preco,desc").
+     * O cursor da próxima página é devolvido nos cabeçalhos "X-Proximo-Cursor" e "Link" (rel="next").
+     */
     @GetMapping
-    public ResponseEntity<List<ProdutoDTO>> listarTodos(){
-        return ResponseEntity.ok(produtoService.listarTodos());
+    public ResponseEntity<List<ProdutoDTO>> listarTodos(@RequestParam(required = false) String categoria,
+                                                        @RequestParam(required = false) BigDecimal precoMin,
+                                                        @RequestParam(required = false) BigDecimal precoMax,
+                                                        @RequestParam(required = false) String sort,
+                                                        @RequestParam(required = false) String cursor,
+                                                        @RequestParam(required = false) Integer limite){
+        FiltroProduto filtro = new FiltroProduto(categoria, precoMin, precoMax, OrdenacaoProduto.de(sort));
+        PaginaDTO<ProdutoDTO> pagina = produtoService.listarPagina(filtro, cursor, limiteEfetivo(limite));
+        return ResponseEntity.ok().headers(headersPaginacao(pagina)).body(pagina.getItens());
+    }
+
+    /**
+     * Lista os produtos com somente os campos pedidos em "fields" (ex.: "nome,preco,categoria").
+     * O ID é sempre incluído; filtros, ordenação e paginação funcionam como na listagem completa.
+     */
+    @GetMapping(params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> listarCampos(@RequestParam String fields,
+                                                                  @RequestParam(required = false) String categoria,
+                                                                  @RequestParam(required = false) BigDecimal precoMin,
+                                                                  @RequestParam(required = false) BigDecimal precoMax,
+                                                                  @RequestParam(required = false) String sort,
+                                                                  @RequestParam(required = false) String cursor,
+                                                                  @RequestParam(required = false) Integer limite) {
+        FiltroProduto filtro = new FiltroProduto(categoria, precoMin, precoMax, OrdenacaoProduto.de(sort));
+        PaginaDTO<Map<String, Object>> pagina = produtoService.listarPaginaCampos(
+                filtro, CamposProduto.de(fields), cursor, limiteEfetivo(limite));
+        return ResponseEntity.ok().headers(headersPaginacao(pagina)).body(pagina.getItens());
+    }
+
+    /**
+     * Sincronização incremental: produtos criados ou alterados e IDs removidos desde "modifiedSince"
+     * (instante ISO-8601, ex.: "2025-01-10T12:00:00Z"), em ordem de alteração.
+     * Para a página seguinte, ou para sincronizar de novo mais tarde, informe em "cursor" o
+     * "proximoCursor" devolvido, que tem precedência sobre "modifiedSince".
+     */
+    @GetMapping(params = "modifiedSince")
+    public ResponseEntity<SincronizacaoDTO> sincronizar(@RequestParam Instant modifiedSince,
+                                                        @RequestParam(required = false) String cursor,
+                                                        @RequestParam(required = false) Integer limite) {
+        return ResponseEntity.ok(produtoSincronizacaoService.sincronizar(modifiedSince, cursor, limiteEfetivo(limite)));
+    }
+
+    /**
+     * Busca vários produtos por ID em uma única requisição (ex.: "ids=1,2,3").
+     * Os produtos vêm na ordem dos IDs pedidos e os IDs inexistentes são listados em "naoEncontrados".
+     */
+    @GetMapping(params = "ids")
+    public ResponseEntity<ResultadoBuscaIdsDTO> buscarPorIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(produtoBuscaPorIdsService.buscarPorIds(ids));
+    }
+
+    /**
+     * Variante da busca por IDs com a lista no corpo (array JSON), para listas longas demais para a URL
+     */
+    @PostMapping("/lookup")
+    public ResponseEntity<ResultadoBuscaIdsDTO> buscarPorIdsNoCorpo(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(produtoBuscaPorIdsService.buscarPorIds(ids));
+    }
+
+    /**
+     * Busca textual por nome e descrição, com resultados ordenados por relevância (BM25)
+     */
+    @GetMapping("/search")
+    public ResponseEntity<PaginaBuscaDTO> pesquisar(@RequestParam String q,
+                                                    @RequestParam(defaultValue = "0") int pagina,
+                                                    @RequestParam(required = false) Integer limite) {
+        return ResponseEntity.ok(produtoBuscaService.buscar(q, pagina, limiteEfetivo(limite)));
+    }
+
+    /**
+     * Estatísticas de estoque por categoria: quantidade de produtos, unidades em estoque,
+     * valor do estoque (preço * quantidade) e preços mínimo, máximo e médio.
+     * Servidas de agregados mantidos em memória, sem consultar o banco.
+     */
+    @GetMapping("/categorias/stats")
+    public ResponseEntity<List<EstatisticaCategoriaDTO>> estatisticasPorCategoria() {
+        return ResponseEntity.ok(estatisticasCategoriaService.listar());
     }
 
+    /**
+     * Exporta o catálogo completo em NDJSON (um produto JSON por linha).
+     * Os produtos são escritos direto no corpo da resposta à medida que são lidos do banco.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportar() {
+        ObjectWriter escritor = objectMapper.writerFor(ProdutoDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        StreamingResponseBody corpo = saida -> {
+            try (JsonGenerator gerador = objectMapper.createGenerator(saida)) {
+                gerador.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                gerador.setRootValueSeparator(null);
+                produtoService.exportarTodos(produto -> {
+                    try {
+                        escritor.writeValue(gerador, produto);
+                        gerador.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(corpo);
+    }
+
+    /**
+     * Fluxo de mudanças de produtos em Server-Sent Events, em ordem de sequência.
+     * Cada evento traz o tipo da mudança, o ID do produto e o estado atual (ou o delta de estoque);
+     * o "id" do evento é a sequência a informar em "since" (ou no Last-Event-ID) para retomar.
+     * Sem "since", envia só as mudanças posteriores à assinatura.
+     */
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter acompanharMudancas(@RequestParam(required = false) Long since,
+                                         @RequestHeader(value = "Last-Event-ID", required = false) Long ultimoEventoId) {
+        // Na reconexão automática o navegador repete a URL original: o Last-Event-ID é mais recente que o "since"
+        return produtoEventoService.assinar(ultimoEventoId != null ? ultimoEventoId : since);
+    }
+
+    /**
+     * Busca um produto por ID, devolvendo a versão do produto no cabeçalho ETag.
+     * Se o ETag enviado em If-None-Match ainda for o atual, responde 304 sem corpo.
+     */
     @GetMapping("/{id}")
     public ResponseEntity<ProdutoDTO> buscarPorId(@PathVariable Long id){
-        return ResponseEntity.ok(produtoService.buscarPorId(id));
+        ProdutoDTO produto = produtoService.buscarPorId(id);
+        return ResponseEntity.ok().eTag(etagDe(produto)).body(produto);
     }
 
+    /**
+     * Cria um produto. Com a gravação agrupada habilitada, criações simultâneas são
+     * inseridas juntas em uma única transação.
+     */
     @PostMapping
-    public ResponseEntity<ProdutoDTO> criar(@RequestBody ProdutoDTO produtoDTO) {
-        return new ResponseEntity<>(produtoService.criarProduto(produtoDTO), HttpStatus.CREATED);
+    public ResponseEntity<ProdutoDTO> criar(@Valid @RequestBody ProdutoDTO produtoDTO) {
+        ProdutoDTO criado = produtoCriacaoAgrupadaService.criar(produtoDTO);
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(etagDe(criado)).body(criado);
+    }
+
+    /**
+     * Cria produtos em lote a partir de um array JSON ou de um fluxo NDJSON.
+     * O corpo é lido item a item, sem materializar a requisição inteira em memória.
+     * Retorna um relatório com o resultado de cada item.
+     */
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ResultadoLoteDTO> criarEmLote(InputStream corpo) throws IOException {
+        try (MappingIterator<ProdutoDTO> produtos = objectMapper.readerFor(ProdutoDTO.class).readValues(corpo)) {
+            return ResponseEntity.ok(produtoLoteService.criarEmLote(produtos));
+        }
+    }
+
+    /**
+     * Importa um catálogo em CSV enviado como arquivo (multipart, parte "arquivo").
+     * O arquivo é gravado em disco e processado em segundo plano: retorna 202 com o andamento inicial
+     * e o endereço para acompanhar a importação no cabeçalho Location.
+     */
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ImportacaoDTO> importar(@RequestParam("arquivo") MultipartFile arquivo) throws IOException {
+        return importacaoAceita(produtoImportacaoService.importar(arquivo::transferTo));
+    }
+
+    /**
+     * Importa um catálogo em CSV enviado diretamente no corpo da requisição (text/csv)
+     */
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<ImportacaoDTO> importarCorpo(InputStream corpo) throws IOException {
+        return importacaoAceita(produtoImportacaoService.importar(corpo));
+    }
+
+    /**
+     * Andamento de uma importação: bytes e linhas processados, produtos criados, linhas por segundo
+     * e as linhas com erro. Retorna 404 para importações desconhecidas ou já fora do período de retenção.
+     */
+    @GetMapping("/import/{id}")
+    public ResponseEntity<ImportacaoDTO> acompanharImportacao(@PathVariable String id) {
+        return ResponseEntity.of(produtoImportacaoService.buscar(id));
     }
 
+    /**
+     * Atualiza um produto. Com o cabeçalho If-Match, só atualiza se o ETag ainda for o atual (412 caso contrário).
+     */
     @PutMapping("/{id}")
-    public ResponseEntity<ProdutoDTO> atualizar(@PathVariable Long id, @RequestBody ProdutoDTO produtoDTO) {
-        return ResponseEntity.ok(produtoService.atualizarProduto(id, produtoDTO));
+    public ResponseEntity<ProdutoDTO> atualizar(@PathVariable Long id, @RequestBody ProdutoDTO produtoDTO,
+                                                @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        ProdutoDTO atualizado = produtoService.atualizarProduto(id, produtoDTO, versaoDoIfMatch(id, ifMatch));
+        return ResponseEntity.ok().eTag(etagDe(atualizado)).body(atualizado);
     }
 
+    /**
+     * Atualiza em massa os produtos selecionados pela categoria e/ou pelos IDs,
+     * definindo ou reajustando o preço (fatorPreco) e somando um delta à quantidade.
+     * Retorna a quantidade de produtos alterados; 409 se algum estoque ficaria negativo.
+     */
+    @PatchMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ResultadoAtualizacaoDTO> atualizarEmMassa(@Valid @RequestBody AtualizacaoEmMassaDTO atualizacao) {
+        return ResponseEntity.ok(produtoAtualizacaoService.atualizarEmMassa(atualizacao));
+    }
+
+    /**
+     * Aplica um JSON Merge Patch a cada produto do corpo, indexado pelo ID
+     * (ex.: {"1": {"preco": 10.00}, "2": {"descricao": null}}).
+     * Retorna a quantidade de produtos alterados e os IDs não encontrados.
+     */
+    @PatchMapping(consumes = APPLICATION_MERGE_PATCH_JSON_VALUE)
+    public ResponseEntity<ResultadoAtualizacaoDTO> aplicarMergePatch(@RequestBody Map<Long, JsonNode> patches) {
+        return ResponseEntity.ok(produtoAtualizacaoService.aplicarMergePatch(patches));
+    }
+
+    /**
+     * Remove um produto. Com o cabeçalho If-Match, só remove se o ETag ainda for o atual (412 caso contrário).
+     */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deletar(@PathVariable Long id) {
-        if(!produtoService.deletarProduto(id)){
-            throw new RuntimeException("Produto não encontrado com id: " + id);
+    public ResponseEntity<Void> deletar(@PathVariable Long id,
+                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if(!produtoService.deletarProduto(id, versaoDoIfMatch(id, ifMatch))){
+            throw new ProdutoNaoEncontradoException(id);
         }
         return ResponseEntity.noContent().build();
     }
+
+    /**
+     * Reserva unidades do estoque do produto
+     * Retorna 409 se o estoque for insuficiente.
+     */
+    @PostMapping("/{id}/estoque/reservar")
+    public ResponseEntity<Void> reservarEstoque(@PathVariable Long id, @Valid @RequestBody MovimentoEstoqueDTO movimento) {
+        produtoService.reservarEstoque(id, movimento.getQuantidade());
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Devolve ao estoque unidades reservadas anteriormente
+     */
+    @PostMapping("/{id}/estoque/liberar")
+    public ResponseEntity<Void> liberarEstoque(@PathVariable Long id, @Valid @RequestBody MovimentoEstoqueDTO movimento) {
+        produtoService.liberarEstoque(id, movimento.getQuantidade());
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Soma um delta (positivo ou negativo) à quantidade em estoque, sem verificar o saldo.
+     * Retorna 204 quando o ajuste já foi gravado, ou 202 quando foi acumulado
+     * pelo modo write-behind para ser gravado na próxima descarga.
+     */
+    @PostMapping("/{id}/estoque/ajustar")
+    public ResponseEntity<Void> ajustarEstoque(@PathVariable Long id, @Valid @RequestBody AjusteEstoqueDTO ajuste) {
+        ajusteEstoqueService.ajustar(id, ajuste.getDelta());
+        return ajusteEstoqueService.isWriteBehindHabilitado()
+                ? ResponseEntity.accepted().build()
+                : ResponseEntity.noContent().build();
+    }
+
+    // Métodos auxiliares de importação
+    private static ResponseEntity<ImportacaoDTO> importacaoAceita(ImportacaoDTO importacao) {
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}").buildAndExpand(importacao.getId()).toUri())
+                .body(importacao);
+    }
+
+    // Métodos auxiliares de requisições condicionais
+    // O ETag é forte e corresponde à versão do produto (ex.: "3")
+    private static String etagDe(ProdutoDTO produto) {
+        return "\"" + produto.getVersao() + "\"";
+    }
+
+    /**
+     * Extrai a versão esperada do cabeçalho If-Match
+     * @return a versão, ou null se o cabeçalho estiver ausente ou for "*"
+     * @throws PrecondicaoFalhouException se o valor não puder corresponder a nenhum ETag do produto
+     */
+    private static Long versaoDoIfMatch(Long id, String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String etag = ifMatch.trim();
+        // ETags fracos (W/"...") nunca satisfazem a comparação forte exigida pelo If-Match
+        if (etag.length() < 2 || !etag.startsWith("\"") || !etag.endsWith("\"")) {
+            throw new PrecondicaoFalhouException(id);
+        }
+        try {
+            return Long.valueOf(etag.substring(1, etag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new PrecondicaoFalhouException(id);
+        }
+    }
+
+    // Métodos auxiliares de paginação
+    private int limiteEfetivo(Integer limite) {
+        if (limite == null) {
+            return limitePadrao;
+        }
+        if (limite < 1) {
+            throw new IllegalArgumentException("O limite deve ser maior que zero");
+        }
+        return Math.min(limite, limiteMaximo);
+    }
+
+    private HttpHeaders headersPaginacao(PaginaDTO<?> pagina) {
+        HttpHeaders headers = new HttpHeaders();
+        if (pagina.getProximoCursor() != null) {
+            String proximaPagina = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("cursor", pagina.getProximoCursor())
+                    .toUriString();
+            headers.add(HEADER_PROXIMO_CURSOR, pagina.getProximoCursor());
+            headers.add(HttpHeaders.LINK, "<" + proximaPagina + ">; rel=\"next\"");
+        }
+        return headers;
+    }
 }
@@ -0,0 +1,20 @@
+package com.bagaggio.gerenciar_produtos.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * DTO com a variação de quantidade de um ajuste de estoque (positiva para entradas, negativa para saídas).
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AjusteEstoqueDTO {
+
+    @NotNull(message = "O delta é obrigatório")
+    private Integer delta;
+}
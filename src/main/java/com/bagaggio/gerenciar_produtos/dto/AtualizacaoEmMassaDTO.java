@@ -0,0 +1,44 @@
+package com.bagaggio.gerenciar_produtos.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * DTO de uma atualização parcial em massa: um critério de seleção (categoria e/ou IDs)
+ * e as operações a aplicar nos produtos selecionados.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AtualizacaoEmMassaDTO {
+
+    private String categoria;
+
+    private List<Long> ids;
+
+    /**
+     * Novo preço dos produtos
+     */
+    @DecimalMin(value = "0.0", inclusive = false, message = "O preço deve ser positivo")
+    @Digits(integer = 16, fraction = 2)
+    private BigDecimal preco;
+
+    /**
+     * Fator multiplicado ao preço atual (ex.: 1.05 para +5%), com o resultado arredondado para duas casas
+     */
+    @DecimalMin(value = "0.0", inclusive = false, message = "O fator de preço deve ser positivo")
+    private BigDecimal fatorPreco;
+
+    /**
+     * Valor somado à quantidade em estoque (negativo para retirar unidades)
+     */
+    private Integer deltaQuantidade;
+}
@@ -0,0 +1,18 @@
+package com.bagaggio.gerenciar_produtos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * Linha de uma importação em CSV que não gerou produto.
+ * A posição é o deslocamento, em bytes, do início da linha no arquivo enviado
+ * (ex.: {@code tail -c +<posicao+1> catalogo.csv | head -1} mostra a linha).
+ */
+@Getter
+@AllArgsConstructor
+public class ErroImportacaoDTO {
+    private final long posicao;
+    private final Map<String, String> erros;
+}
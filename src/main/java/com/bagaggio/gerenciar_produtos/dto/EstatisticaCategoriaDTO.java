@@ -0,0 +1,24 @@
+package com.bagaggio.gerenciar_produtos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/**
+ * Totais e faixa de preço dos produtos de uma categoria.
+ */
+@Getter
+@AllArgsConstructor
+public class EstatisticaCategoriaDTO {
+    private final String categoria;
+    private final long produtos;
+    private final long quantidadeTotal;
+    /**
+     * Soma de preco * quantidade dos produtos da categoria
+     */
+    private final BigDecimal valorEstoque;
+    private final BigDecimal precoMinimo;
+    private final BigDecimal precoMaximo;
+    private final BigDecimal precoMedio;
+}
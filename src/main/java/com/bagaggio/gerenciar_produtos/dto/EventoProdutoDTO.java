@@ -0,0 +1,42 @@
+package com.bagaggio.gerenciar_produtos.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * Alteração de produto registrada na tabela de eventos (outbox) e enviada no fluxo de mudanças.
+ */
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class EventoProdutoDTO {
+
+    /**
+     * Posição do evento no fluxo, crescente; é o "id" do evento SSE e o valor de "since" para retomar
+     */
+    private final Long sequencia;
+
+    /**
+     * CRIADO, ATUALIZADO, REMOVIDO ou ESTOQUE_AJUSTADO
+     */
+    private final String tipo;
+
+    private final Long produtoId;
+
+    /**
+     * Estado do produto após a criação ou atualização, já serializado em JSON
+     */
+    @JsonRawValue
+    private final String produto;
+
+    /**
+     * Variação da quantidade em estoque, nos eventos ESTOQUE_AJUSTADO
+     */
+    private final Long delta;
+
+    private final Instant registradoEm;
+}
@@ -0,0 +1,43 @@
+package com.bagaggio.gerenciar_produtos.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Andamento de uma importação de catálogo em CSV.
+ * Os contadores avançam enquanto a importação está em andamento; as linhas com erro
+ * são listadas até um limite, em ordem de posição no arquivo.
+ */
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ImportacaoDTO {
+
+    /**
+     * Situação da importação
+     */
+    public enum Status { EM_ANDAMENTO, CONCLUIDA, FALHOU }
+
+    private final String id;
+    private final Status status;
+    private final long bytesTotal;
+    private final long bytesProcessados;
+    private final int percentual;
+    private final long linhasLidas;
+    private final long criados;
+    private final long linhasComErro;
+    private final long linhasPorSegundo;
+    private final Instant iniciadoEm;
+    private final Instant concluidoEm;
+
+    /**
+     * Motivo da falha, quando a importação é interrompida
+     */
+    private final String mensagem;
+
+    private final List<ErroImportacaoDTO> erros;
+}
@@ -0,0 +1,39 @@
+package com.bagaggio.gerenciar_produtos.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * Resultado do processamento de um item em uma operação em lote.
+ * O índice corresponde à posição do item na requisição, começando em zero.
+ */
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ItemLoteDTO {
+
+    /**
+     * Situação do item após o processamento
+     */
+    public enum Status { CRIADO, INVALIDO, ERRO }
+
+    private final int indice;
+    private final Status status;
+    private final Long id;
+    private final Map<String, String> erros;
+
+    public static ItemLoteDTO criado(int indice, Long id) {
+        return new ItemLoteDTO(indice, Status.CRIADO, id, null);
+    }
+
+    public static ItemLoteDTO invalido(int indice, Map<String, String> erros) {
+        return new ItemLoteDTO(indice, Status.INVALIDO, null, erros);
+    }
+
+    public static ItemLoteDTO erro(int indice, String mensagem) {
+        return new ItemLoteDTO(indice, Status.ERRO, null, Map.of("item", mensagem));
+    }
+}
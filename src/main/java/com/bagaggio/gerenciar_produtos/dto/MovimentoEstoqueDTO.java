@@ -0,0 +1,22 @@
+package com.bagaggio.gerenciar_produtos.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * DTO com a quantidade de unidades de uma reserva ou liberação de estoque.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovimentoEstoqueDTO {
+
+    @NotNull(message = "A quantidade é obrigatória")
+    @Positive(message = "A quantidade deve ser positiva")
+    private Integer quantidade;
+}
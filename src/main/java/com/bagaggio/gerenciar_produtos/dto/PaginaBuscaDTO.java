@@ -0,0 +1,17 @@
+package com.bagaggio.gerenciar_produtos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Página de resultados da busca textual, em ordem decrescente de relevância.
+ */
+@Getter
+@AllArgsConstructor
+public class PaginaBuscaDTO {
+    private final int total;
+    private final int pagina;
+    private final List<ProdutoDTO> itens;
+}
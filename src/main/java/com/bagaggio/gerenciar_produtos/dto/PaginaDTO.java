@@ -0,0 +1,17 @@
+package com.bagaggio.gerenciar_produtos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Página de resultados de uma listagem paginada por cursor.
+ * O cursor da próxima página é nulo quando não há mais resultados.
+ */
+@Getter
+@AllArgsConstructor
+public class PaginaDTO<T> {
+    private final List<T> itens;
+    private final String proximoCursor;
+}
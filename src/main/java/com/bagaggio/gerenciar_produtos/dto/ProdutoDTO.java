@@ -1,5 +1,6 @@
 package com.bagaggio.gerenciar_produtos.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.*;
 
 
@@ -9,6 +10,7 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 
 /**
  * DTO (Data Transfer Object) para a entidade Produto.
@@ -33,6 +35,7 @@ public class ProdutoDTO {
     @Digits(integer = 16, fraction = 2)
     private BigDecimal preco;
 
+    @NotNull(message = "A quantidade é obrigatória")
     @PositiveOrZero(message = "A quantidade não pode ser negativa")
     private Integer quantidade;
 
@@ -40,5 +43,20 @@ public class ProdutoDTO {
     @Size(max = 50, message = "A categoria não pode exceder 50 caracteres")
     private String categoria;
 
+    /**
+     * Versão atual do produto, exposta também no cabeçalho ETag.
+     * Somente leitura: alterações condicionais usam o cabeçalho If-Match.
+     */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long versao;
 
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Instant criadoEm;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Instant atualizadoEm;
+
+    public ProdutoDTO(Long id, String nome, String descricao, BigDecimal preco, Integer quantidade, String categoria) {
+        this(id, nome, descricao, preco, quantidade, categoria, null, null, null);
+    }
 }
@@ -0,0 +1,19 @@
+package com.bagaggio.gerenciar_produtos.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Resultado de uma atualização em massa: quantos produtos foram alterados
+ * e, no JSON Merge Patch, quais IDs não foram encontrados.
+ */
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ResultadoAtualizacaoDTO {
+    private final int afetados;
+    private final List<Long> naoEncontrados;
+}
@@ -0,0 +1,17 @@
+package com.bagaggio.gerenciar_produtos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Resultado da busca por uma lista de IDs: os produtos encontrados, na ordem em que os IDs
+ * foram pedidos, e os IDs que não correspondem a nenhum produto.
+ */
+@Getter
+@AllArgsConstructor
+public class ResultadoBuscaIdsDTO {
+    private final List<ProdutoDTO> produtos;
+    private final List<Long> naoEncontrados;
+}
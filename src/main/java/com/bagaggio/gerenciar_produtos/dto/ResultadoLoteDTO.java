@@ -0,0 +1,23 @@
+package com.bagaggio.gerenciar_produtos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Relatório de uma operação em lote, com os totais e o resultado de cada item.
+ */
+@Getter
+@AllArgsConstructor
+public class ResultadoLoteDTO {
+    private final int total;
+    private final int criados;
+    private final int falhas;
+    private final List<ItemLoteDTO> itens;
+
+    public static ResultadoLoteDTO de(List<ItemLoteDTO> itens) {
+        int criados = (int) itens.stream().filter(item -> item.getStatus() == ItemLoteDTO.Status.CRIADO).count();
+        return new ResultadoLoteDTO(itens.size(), criados, itens.size() - criados, itens);
+    }
+}
@@ -0,0 +1,25 @@
+package com.bagaggio.gerenciar_produtos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Página da sincronização incremental: produtos criados ou alterados e IDs removidos
+ * desde a posição pedida, em ordem de alteração.
+ */
+@Getter
+@AllArgsConstructor
+public class SincronizacaoDTO {
+    private final List<ProdutoDTO> alterados;
+    private final List<Long> removidos;
+
+    /**
+     * Posição da última mudança entregue. É sempre preenchido: com "temMais" falso,
+     * serve para buscar mais tarde só o que mudar depois desta página.
+     */
+    private final String proximoCursor;
+
+    private final boolean temMais;
+}
@@ -0,0 +1,15 @@
+package com.bagaggio.gerenciar_produtos.exeption;
+
+/**
+ * Exceção lançada quando uma reserva pede mais unidades do que o produto tem em estoque.
+ */
+public class EstoqueInsuficienteException extends RuntimeException {
+
+    public EstoqueInsuficienteException(Long id, int quantidade) {
+        super("Estoque insuficiente para reservar " + quantidade + " unidade(s) do produto com id: " + id);
+    }
+
+    public EstoqueInsuficienteException(String mensagem) {
+        super(mensagem);
+    }
+}
@@ -0,0 +1,11 @@
+package com.bagaggio.gerenciar_produtos.exeption;
+
+/**
+ * Exceção lançada quando a versão informada no cabeçalho If-Match não é a versão atual do produto.
+ */
+public class PrecondicaoFalhouException extends RuntimeException {
+
+    public PrecondicaoFalhouException(Long id) {
+        super("O produto com id: " + id + " foi alterado por outra requisição; obtenha a versão atual e tente novamente");
+    }
+}
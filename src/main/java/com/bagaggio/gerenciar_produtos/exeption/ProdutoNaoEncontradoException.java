@@ -0,0 +1,13 @@
+package com.bagaggio.gerenciar_produtos.exeption;
+
+/**
+ * Exceção lançada quando o produto pedido não existe.
+ * Não preenche o stack trace: é um resultado esperado (ex.: IDs antigos ou inventados por crawlers)
+ * tratado como 404, e capturar a pilha seria a parte mais cara da resposta.
+ */
+public class ProdutoNaoEncontradoException extends RuntimeException {
+
+    public ProdutoNaoEncontradoException(Long id) {
+        super("Produto não encontrado com id: " + id, null, false, false);
+    }
+}
@@ -2,8 +2,12 @@ package com.bagaggio.gerenciar_produtos.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 
 
 /**
@@ -11,7 +15,12 @@ import java.math.BigDecimal;
  * Mapeada para a tabela "tb_produtos" no banco de dados.
  */
 @Entity
-@Table(name = "tb_produtos")
+@Table(name = "tb_produtos", indexes = {
+        @Index(name = "idx_produtos_categoria_preco", columnList = "categoria, preco"),
+        @Index(name = "idx_produtos_preco", columnList = "preco"),
+        @Index(name = "idx_produtos_criado_em", columnList = "criado_em"),
+        @Index(name = "idx_produtos_atualizado_em_id", columnList = "atualizado_em, id")
+})
 @Getter
 @Setter
 @AllArgsConstructor
@@ -36,5 +45,48 @@ public class Produto {
 
     @Column(nullable = false, length = 50)
     private String categoria;
+
+    /**
+     * Versão para controle de concorrência otimista, incrementada a cada alteração.
+     * Também é usada como ETag do produto na API.
+     */
+    @Version
+    @Column(nullable = false)
+    private Long versao;
+
+    @Column(nullable = false, updatable = false)
+    @JdbcTypeCode(SqlTypes.TIMESTAMP)
+    private Instant criadoEm;
+
+    /**
+     * Instante da última alteração, inclusive as feitas por UPDATEs diretos (estoque, atualização em massa).
+     * Junto com o ID, é a chave da sincronização incremental (modifiedSince).
+     */
+    @Column(nullable = false)
+    @JdbcTypeCode(SqlTypes.TIMESTAMP)
+    private Instant atualizadoEm;
+
+    public Produto(Long id, String nome, String descricao, BigDecimal preco, Integer quantidade, String categoria) {
+        this(id, nome, descricao, preco, quantidade, categoria, null, null, null);
+    }
+
+    /**
+     * Instante atual na precisão das colunas de data (microssegundos), para que o valor
+     * gravado seja exatamente o usado nos cursores de sincronização
+     */
+    public static Instant agora() {
+        return Instant.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    @PrePersist
+    void aoCriar() {
+        criadoEm = agora();
+        atualizadoEm = criadoEm;
+    }
+
+    @PreUpdate
+    void aoAtualizar() {
+        atualizadoEm = agora();
+    }
 }
 
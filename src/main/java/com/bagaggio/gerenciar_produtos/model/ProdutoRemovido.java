@@ -0,0 +1,34 @@
+package com.bagaggio.gerenciar_produtos.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+
+/**
+ * Registro de um produto removido (tombstone), para que a sincronização incremental
+ * informe as remoções sem precisar comparar o catálogo inteiro.
+ * Mapeada para a tabela "tb_produtos_removidos" no banco de dados.
+ */
+@Entity
+@Table(name = "tb_produtos_removidos", indexes = {
+        @Index(name = "idx_produtos_removidos_removido_em_id", columnList = "removido_em, id")
+})
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProdutoRemovido {
+
+    /**
+     * ID do produto removido
+     */
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    @JdbcTypeCode(SqlTypes.TIMESTAMP)
+    private Instant removidoEm;
+}
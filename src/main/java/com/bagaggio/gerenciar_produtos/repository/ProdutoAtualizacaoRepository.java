@@ -0,0 +1,22 @@
+package com.bagaggio.gerenciar_produtos.repository;
+
+import com.bagaggio.gerenciar_produtos.model.Produto;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+
+/**
+ * Fragmento do {@link ProdutoRepository} para atualizações em massa, sem carregar os produtos.
+ */
+public interface ProdutoAtualizacaoRepository {
+
+    /**
+     * Aplica as operações a todos os produtos que atendem à especificação em um único UPDATE.
+     * Operações nulas não alteram o campo correspondente; a versão e o atualizadoEm são sempre atualizados.
+     * @param preco novo preço
+     * @param fatorPreco fator multiplicado ao preço atual, arredondado para duas casas
+     * @param deltaQuantidade valor somado à quantidade atual
+     * @return quantidade de produtos alterados
+     */
+    int atualizarEmMassa(Specification<Produto> especificacao, BigDecimal preco, BigDecimal fatorPreco, Integer deltaQuantidade);
+}
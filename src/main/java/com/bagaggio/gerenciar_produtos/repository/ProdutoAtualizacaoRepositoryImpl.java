@@ -0,0 +1,50 @@
+package com.bagaggio.gerenciar_produtos.repository;
+
+import com.bagaggio.gerenciar_produtos.model.Produto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Implementação do {@link ProdutoAtualizacaoRepository} com um CriteriaUpdate.
+ */
+class ProdutoAtualizacaoRepositoryImpl implements ProdutoAtualizacaoRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int atualizarEmMassa(Specification<Produto> especificacao, BigDecimal preco, BigDecimal fatorPreco, Integer deltaQuantidade) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Produto> update = cb.createCriteriaUpdate(Produto.class);
+        Root<Produto> produto = update.from(Produto.class);
+
+        if (preco != null) {
+            update.set(produto.<BigDecimal>get("preco"), preco);
+        }
+        if (fatorPreco != null) {
+            Expression<BigDecimal> reajustado = cb.function("round", BigDecimal.class,
+                    cb.prod(produto.<BigDecimal>get("preco"), fatorPreco), cb.literal(2));
+            update.set(produto.<BigDecimal>get("preco"), reajustado);
+        }
+        if (deltaQuantidade != null) {
+            update.set(produto.<Integer>get("quantidade"), cb.sum(produto.<Integer>get("quantidade"), deltaQuantidade));
+        }
+        update.set(produto.<Long>get("versao"), cb.sum(produto.<Long>get("versao"), 1L));
+        update.set(produto.<Instant>get("atualizadoEm"), Produto.agora());
+
+        Predicate restricao = especificacao.toPredicate(produto, null, cb);
+        if (restricao != null) {
+            update.where(restricao);
+        }
+        return entityManager.createQuery(update).executeUpdate();
+    }
+}
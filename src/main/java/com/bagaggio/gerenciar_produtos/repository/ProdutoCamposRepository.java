@@ -0,0 +1,22 @@
+package com.bagaggio.gerenciar_produtos.repository;
+
+import com.bagaggio.gerenciar_produtos.model.Produto;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fragmento do {@link ProdutoRepository} para consultas que projetam apenas alguns campos do produto.
+ */
+public interface ProdutoCamposRepository {
+
+    /**
+     * Busca somente as colunas informadas dos produtos que atendem à especificação.
+     * As linhas vêm como tuplas, sem instanciar nem gerenciar entidades.
+     * @param colunas nomes dos atributos de {@link Produto} a selecionar
+     * @return um mapa por produto, com as colunas na ordem informada
+     */
+    List<Map<String, Object>> buscarCampos(Specification<Produto> especificacao, Sort sort, int limite, List<String> colunas);
+}
@@ -0,0 +1,53 @@
+package com.bagaggio.gerenciar_produtos.repository;
+
+import com.bagaggio.gerenciar_produtos.model.Produto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementação do {@link ProdutoCamposRepository} com uma consulta Criteria de tuplas,
+ * cujo SELECT contém somente as colunas pedidas.
+ */
+class ProdutoCamposRepositoryImpl implements ProdutoCamposRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Map<String, Object>> buscarCampos(Specification<Produto> especificacao, Sort sort, int limite, List<String> colunas) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> consulta = cb.createTupleQuery();
+        Root<Produto> produto = consulta.from(Produto.class);
+
+        consulta.multiselect(colunas.stream().<Selection<?>>map(coluna -> produto.get(coluna).alias(coluna)).toList());
+        Predicate restricao = especificacao.toPredicate(produto, consulta, cb);
+        if (restricao != null) {
+            consulta.where(restricao);
+        }
+        consulta.orderBy(QueryUtils.toOrders(sort, produto, cb));
+
+        return entityManager.createQuery(consulta)
+                .setMaxResults(limite)
+                .getResultList()
+                .stream()
+                .map(tupla -> {
+                    Map<String, Object> linha = new LinkedHashMap<>();
+                    colunas.forEach(coluna -> linha.put(coluna, tupla.get(coluna)));
+                    return linha;
+                })
+                .toList();
+    }
+}
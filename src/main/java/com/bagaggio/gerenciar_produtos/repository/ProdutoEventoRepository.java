@@ -0,0 +1,94 @@
+package com.bagaggio.gerenciar_produtos.repository;
+
+import com.bagaggio.gerenciar_produtos.dto.EventoProdutoDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Repositório JDBC da tabela de eventos de produto (transactional outbox).
+ * Os eventos são gravados na mesma transação da alteração que os originou
+ * e lidos em ordem de sequência pelo fluxo de mudanças.
+ * Os instantes são gravados em UTC na coluna DATETIME, como o Hibernate (hibernate.jdbc.time_zone).
+ */
+@Repository
+public class ProdutoEventoRepository {
+
+    private static final String SQL_INSERIR = """
+            INSERT INTO tb_produtos_eventos (produto_id, tipo, produto, delta, registrado_em)
+            VALUES (:produtoId, :tipo, :produto, :delta, :registradoEm)
+            """;
+
+    private static final String SQL_BUSCAR_APOS = """
+            SELECT id, produto_id, tipo, produto, delta, registrado_em FROM tb_produtos_eventos
+            WHERE id > :sequencia AND registrado_em <= :registradoAte
+            ORDER BY id
+            LIMIT :limite
+            """;
+
+    private static final RowMapper<EventoProdutoDTO> MAPEADOR = (rs, linha) -> new EventoProdutoDTO(
+            rs.getLong("id"),
+            rs.getString("tipo"),
+            rs.getLong("produto_id"),
+            rs.getString("produto"),
+            rs.getObject("delta", Long.class),
+            rs.getObject("registrado_em", LocalDateTime.class).toInstant(ZoneOffset.UTC)
+    );
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public ProdutoEventoRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Insere os eventos em um único batch JDBC, participando da transação corrente
+     */
+    public void inserir(List<EventoProdutoDTO> eventos) {
+        MapSqlParameterSource[] parametros = eventos.stream()
+                .map(evento -> new MapSqlParameterSource()
+                        .addValue("produtoId", evento.getProdutoId())
+                        .addValue("tipo", evento.getTipo())
+                        .addValue("produto", evento.getProduto())
+                        .addValue("delta", evento.getDelta())
+                        .addValue("registradoEm", LocalDateTime.ofInstant(evento.getRegistradoEm(), ZoneOffset.UTC)))
+                .toArray(MapSqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(SQL_INSERIR, parametros);
+    }
+
+    /**
+     * Lista, em ordem de sequência, os eventos posteriores à sequência informada
+     * e registrados até o instante informado
+     */
+    public List<EventoProdutoDTO> buscarApos(long sequencia, Instant registradoAte, int limite) {
+        return jdbcTemplate.query(SQL_BUSCAR_APOS, new MapSqlParameterSource()
+                .addValue("sequencia", sequencia)
+                .addValue("registradoAte", LocalDateTime.ofInstant(registradoAte, ZoneOffset.UTC))
+                .addValue("limite", limite), MAPEADOR);
+    }
+
+    /**
+     * Sequência do último evento registrado, ou 0 se não houver eventos
+     */
+    public long ultimaSequencia() {
+        Long ultima = jdbcTemplate.getJdbcTemplate().queryForObject("SELECT MAX(id) FROM tb_produtos_eventos", Long.class);
+        return ultima == null ? 0 : ultima;
+    }
+
+    /**
+     * Remove os eventos registrados antes do instante informado
+     * @return quantidade de eventos removidos
+     */
+    public int removerAnterioresA(Instant instante) {
+        return jdbcTemplate.update("DELETE FROM tb_produtos_eventos WHERE registrado_em < :instante",
+                new MapSqlParameterSource("instante", LocalDateTime.ofInstant(instante, ZoneOffset.UTC)));
+    }
+}
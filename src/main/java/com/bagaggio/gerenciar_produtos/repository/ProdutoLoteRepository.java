@@ -0,0 +1,93 @@
+package com.bagaggio.gerenciar_produtos.repository;
+
+import com.bagaggio.gerenciar_produtos.model.Produto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Repositório para inserções e atualizações de produtos em lote via JDBC.
+ * A geração de ID por IDENTITY impede o Hibernate de agrupar INSERTs,
+ * por isso os lotes são enviados diretamente como batch JDBC
+ * (no MySQL reescritos em INSERTs de múltiplas linhas com "rewriteBatchedStatements=true").
+ * As datas são gravadas em UTC, como o Hibernate grava as das entidades (hibernate.jdbc.time_zone).
+ */
+@Repository
+public class ProdutoLoteRepository {
+
+    private static final String SQL_INSERIR = """
+            INSERT INTO tb_produtos (nome, descricao, preco, quantidade, categoria, versao, criado_em, atualizado_em)
+            VALUES (:nome, :descricao, :preco, :quantidade, :categoria, 0, :criadoEm, :criadoEm)
+            """;
+
+    private static final String SQL_AJUSTAR_ESTOQUE = """
+            UPDATE tb_produtos SET quantidade = quantidade + :delta, versao = versao + 1, atualizado_em = :atualizadoEm
+            WHERE id = :id
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public ProdutoLoteRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Insere os produtos em um único batch JDBC, preenchendo a versão e as datas de criação e atualização
+     * @return os IDs gerados, na mesma ordem dos produtos informados
+     */
+    public List<Long> inserir(List<Produto> produtos) {
+        Instant agora = Produto.agora();
+        MapSqlParameterSource[] parametros = produtos.stream()
+                .map(produto -> {
+                    produto.setVersao(0L);
+                    produto.setCriadoEm(agora);
+                    produto.setAtualizadoEm(agora);
+                    return new MapSqlParameterSource()
+                            .addValue("nome", produto.getNome())
+                            .addValue("descricao", produto.getDescricao())
+                            .addValue("preco", produto.getPreco())
+                            .addValue("quantidade", produto.getQuantidade())
+                            .addValue("categoria", produto.getCategoria())
+                            .addValue("criadoEm", LocalDateTime.ofInstant(agora, ZoneOffset.UTC));
+                })
+                .toArray(MapSqlParameterSource[]::new);
+        KeyHolder chaves = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(SQL_INSERIR, parametros, chaves, new String[]{"id"});
+
+        List<Long> ids = chaves.getKeyList().stream()
+                .map(chave -> ((Number) chave.values().iterator().next()).longValue())
+                .toList();
+        if (ids.size() != produtos.size()) {
+            throw new IllegalStateException("O banco retornou " + ids.size() + " IDs para " + produtos.size() + " produtos inseridos");
+        }
+        return ids;
+    }
+
+    /**
+     * Aplica os deltas de estoque em um único batch JDBC, com um UPDATE por produto.
+     * O batch é atômico: se falhar, nenhum ajuste é gravado.
+     * @return linhas afetadas por UPDATE, na ordem de iteração do mapa (0 indica produto inexistente)
+     */
+    @Transactional
+    public int[] ajustarEstoque(Map<Long, Long> deltas) {
+        LocalDateTime agora = LocalDateTime.ofInstant(Produto.agora(), ZoneOffset.UTC);
+        MapSqlParameterSource[] parametros = deltas.entrySet().stream()
+                .map(ajuste -> new MapSqlParameterSource()
+                        .addValue("id", ajuste.getKey())
+                        .addValue("delta", ajuste.getValue())
+                        .addValue("atualizadoEm", agora))
+                .toArray(MapSqlParameterSource[]::new);
+        return jdbcTemplate.batchUpdate(SQL_AJUSTAR_ESTOQUE, parametros);
+    }
+}
@@ -0,0 +1,38 @@
+package com.bagaggio.gerenciar_produtos.repository;
+
+import com.bagaggio.gerenciar_produtos.model.ProdutoRemovido;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Repositório dos registros de produtos removidos (tombstones).
+ */
+@Repository
+public interface ProdutoRemovidoRepository extends JpaRepository<ProdutoRemovido, Long> {
+
+    /**
+     * Registra a remoção com um único INSERT (o save faria antes um SELECT, já que o ID é atribuído)
+     */
+    @Modifying
+    @Query("insert into ProdutoRemovido (id, removidoEm) values (:id, :removidoEm)")
+    void registrar(@Param("id") Long id, @Param("removidoEm") Instant removidoEm);
+
+    /**
+     * Remoções posteriores à posição (removidoEm, id) e registradas até o instante informado,
+     * em ordem de remoção
+     */
+    @Query("""
+            select r from ProdutoRemovido r
+            where (r.removidoEm > :removidoEm or (r.removidoEm = :removidoEm and r.id > :id)) and r.removidoEm <= :ate
+            order by r.removidoEm, r.id
+            """)
+    List<ProdutoRemovido> buscarApos(@Param("removidoEm") Instant removidoEm, @Param("id") Long id,
+                                     @Param("ate") Instant ate, Limit limite);
+}
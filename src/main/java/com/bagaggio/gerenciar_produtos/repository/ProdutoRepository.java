@@ -1,13 +1,131 @@
 package com.bagaggio.gerenciar_produtos.repository;
 
 import com.bagaggio.gerenciar_produtos.model.Produto;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repositório para operações de banco de dados relacionadas a produtos.
  */
 @Repository
-public interface ProdutoRepository extends JpaRepository<Produto,Long> {
+public interface ProdutoRepository extends JpaRepository<Produto,Long>, JpaSpecificationExecutor<Produto>,
+        ProdutoCamposRepository, ProdutoAtualizacaoRepository {
+
+    /**
+     * Chamado fora de transação, abre uma transação de escrita, e não somente leitura como o padrão do
+     * Spring Data: as buscas por ID preenchem o cache de produtos e por isso leem do primário, não da réplica.
+     * Dentro de uma transação, participa dela normalmente.
+     */
+    @Override
+    @Transactional
+    Optional<Produto> findById(Long id);
+
+    /**
+     * Mesmo roteamento de {@link #findById}: fora de transação, a consulta vai ao primário
+     */
+    @Override
+    @Transactional
+    List<Produto> findAllById(Iterable<Long> ids);
+
+    /**
+     * Percorre todos os produtos em ordem de ID com um cursor JDBC somente-leitura.
+     * O fetch size limita quantas linhas o driver mantém em memória por vez
+     * (no MySQL exige "useCursorFetch=true" na URL de conexão).
+     * Deve ser consumido dentro de uma transação e fechado ao final.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select p from Produto p order by p.id")
+    Stream<Produto> streamTodosOrdenadosPorId();
+
+    /**
+     * Percorre os IDs de todos os produtos em streaming, sem carregar as entidades.
+     * Deve ser consumido dentro de uma transação e fechado ao final.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select p.id from Produto p")
+    Stream<Long> streamIds();
+
+    /**
+     * Produtos alterados após a posição (atualizadoEm, id) e até o instante informado,
+     * em ordem de alteração (paginação por keyset sobre o índice de atualizadoEm e ID)
+     */
+    @Query("""
+            select p from Produto p
+            where (p.atualizadoEm > :atualizadoEm or (p.atualizadoEm = :atualizadoEm and p.id > :id)) and p.atualizadoEm <= :ate
+            order by p.atualizadoEm, p.id
+            """)
+    List<Produto> buscarAlteradosApos(@Param("atualizadoEm") Instant atualizadoEm, @Param("id") Long id,
+                                      @Param("ate") Instant ate, Limit limite);
+
+    /**
+     * Reserva unidades do estoque em um único UPDATE condicional, sem ler o produto antes.
+     * A verificação e o decremento são atômicos no banco, evitando vendas acima do estoque.
+     * A versão é incrementada para invalidar ETags e edições concorrentes baseadas no estoque antigo.
+     * @return 1 se a reserva foi aplicada, 0 se o produto não existe ou o estoque é insuficiente
+     */
+    @Modifying
+    @Query("update Produto p set p.quantidade = p.quantidade - :quantidade, p.versao = p.versao + 1, p.atualizadoEm = :atualizadoEm where p.id = :id and p.quantidade >= :quantidade")
+    int reservarEstoque(@Param("id") Long id, @Param("quantidade") int quantidade, @Param("atualizadoEm") Instant atualizadoEm);
+
+    default int reservarEstoque(Long id, int quantidade) {
+        return reservarEstoque(id, quantidade, Produto.agora());
+    }
+
+    /**
+     * Devolve unidades ao estoque em um único UPDATE
+     * @return 1 se a liberação foi aplicada, 0 se o produto não existe
+     */
+    @Modifying
+    @Query("update Produto p set p.quantidade = p.quantidade + :quantidade, p.versao = p.versao + 1, p.atualizadoEm = :atualizadoEm where p.id = :id")
+    int liberarEstoque(@Param("id") Long id, @Param("quantidade") int quantidade, @Param("atualizadoEm") Instant atualizadoEm);
+
+    default int liberarEstoque(Long id, int quantidade) {
+        return liberarEstoque(id, quantidade, Produto.agora());
+    }
+
+    /**
+     * Soma um delta (positivo ou negativo) à quantidade em estoque em um único UPDATE
+     * @return 1 se o ajuste foi aplicado, 0 se o produto não existe
+     */
+    @Transactional
+    @Modifying
+    @Query("update Produto p set p.quantidade = p.quantidade + :delta, p.versao = p.versao + 1, p.atualizadoEm = :atualizadoEm where p.id = :id")
+    int ajustarEstoque(@Param("id") Long id, @Param("delta") int delta, @Param("atualizadoEm") Instant atualizadoEm);
+
+    default int ajustarEstoque(Long id, int delta) {
+        return ajustarEstoque(id, delta, Produto.agora());
+    }
+
+    /**
+     * Remove o produto em um único DELETE, sem carregá-lo antes
+     * @return 1 se o produto foi removido, 0 se não existe
+     */
+    @Modifying
+    @Query("delete from Produto p where p.id = :id")
+    int deletarPorId(@Param("id") Long id);
 
+    /**
+     * Remove o produto somente se ele ainda estiver na versão informada
+     * @return 1 se o produto foi removido, 0 se não existe ou está em outra versão
+     */
+    @Modifying
+    @Query("delete from Produto p where p.id = :id and p.versao = :versao")
+    int deletarNaVersao(@Param("id") Long id, @Param("versao") Long versao);
 }
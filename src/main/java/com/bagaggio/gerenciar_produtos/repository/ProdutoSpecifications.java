@@ -0,0 +1,59 @@
+package com.bagaggio.gerenciar_produtos.repository;
+
+import com.bagaggio.gerenciar_produtos.model.Produto;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+
+/**
+ * Specifications para consultas dinâmicas de produtos.
+ * Os filtros por categoria e faixa de preço são atendidos pelos índices
+ * "idx_produtos_categoria_preco" e "idx_produtos_preco" de tb_produtos.
+ */
+public final class ProdutoSpecifications {
+
+    private ProdutoSpecifications() {
+    }
+
+    public static Specification<Produto> comCategoria(String categoria) {
+        return (root, query, cb) -> categoria == null ? null : cb.equal(root.get("categoria"), categoria);
+    }
+
+    public static Specification<Produto> comPrecoMinimo(BigDecimal precoMin) {
+        return (root, query, cb) -> precoMin == null ? null : cb.greaterThanOrEqualTo(root.get("preco"), precoMin);
+    }
+
+    public static Specification<Produto> comPrecoMaximo(BigDecimal precoMax) {
+        return (root, query, cb) -> precoMax == null ? null : cb.lessThanOrEqualTo(root.get("preco"), precoMax);
+    }
+
+    public static Specification<Produto> comIds(Collection<Long> ids) {
+        return (root, query, cb) -> ids == null ? null : root.get("id").in(ids);
+    }
+
+    public static Specification<Produto> comQuantidadeMenorQue(int quantidade) {
+        return (root, query, cb) -> cb.lessThan(root.get("quantidade"), quantidade);
+    }
+
+    /**
+     * Produtos posteriores ao cursor na ordenação por ID
+     */
+    public static Specification<Produto> aposId(Long id, boolean decrescente) {
+        return (root, query, cb) -> decrescente
+                ? cb.lessThan(root.get("id"), id)
+                : cb.greaterThan(root.get("id"), id);
+    }
+
+    /**
+     * Produtos posteriores ao cursor na ordenação por preço, com o ID como desempate:
+     * preco > :preco OR (preco = :preco AND id > :id), invertido na ordem decrescente
+     */
+    public static Specification<Produto> aposPreco(BigDecimal preco, Long id, boolean decrescente) {
+        return (root, query, cb) -> decrescente
+                ? cb.or(cb.lessThan(root.get("preco"), preco),
+                        cb.and(cb.equal(root.get("preco"), preco), cb.lessThan(root.get("id"), id)))
+                : cb.or(cb.greaterThan(root.get("preco"), preco),
+                        cb.and(cb.equal(root.get("preco"), preco), cb.greaterThan(root.get("id"), id)));
+    }
+}
@@ -0,0 +1,198 @@
+package com.bagaggio.gerenciar_produtos.service;
+
+import com.bagaggio.gerenciar_produtos.config.CacheConfig;
+import com.bagaggio.gerenciar_produtos.exeption.ProdutoNaoEncontradoException;
+import com.bagaggio.gerenciar_produtos.repository.ProdutoLoteRepository;
+import com.bagaggio.gerenciar_produtos.repository.ProdutoRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serviço de ajustes de quantidade em estoque com escrita adiada (write-behind) opcional.
+ *
+ * <p>Com o modo desabilitado (padrão), cada ajuste é um único UPDATE no produto.
+ * Em ambos os modos, o UPDATE e o registro do {@link EstoqueAjustadoEvent} na tabela de eventos
+ * (outbox) acontecem na mesma transação: ou os dois são gravados, ou nenhum.
+ * Habilitado ({@code produtos.estoque.write-behind.habilitado=true}), os ajustes são somados
+ * em contadores {@link LongAdder} por produto, sem contenção entre threads, e descarregados
+ * periodicamente em um batch JDBC com um UPDATE por produto alterado no intervalo.</p>
+ *
+ * <p>Garantias do modo write-behind:</p>
+ * <ul>
+ *   <li>nenhum ajuste aceito é perdido ou contado duas vezes enquanto a aplicação estiver no ar:
+ *   se a descarga falhar, os deltas voltam aos contadores e são reenviados na próxima;</li>
+ *   <li>no desligamento normal os contadores pendentes são descarregados antes de o banco ser fechado;</li>
+ *   <li>em uma queda abrupta do processo, perdem-se os ajustes do último intervalo ainda não descarregados;</li>
+ *   <li>leituras do produto não enxergam ajustes pendentes, e saídas não validam o estoque
+ *   disponível (reservas que exigem essa garantia devem usar {@code reservarEstoque}).</li>
+ * </ul>
+ */
+@Slf4j
+@Service
+public class AjusteEstoqueService {
+
+    private final ProdutoRepository produtoRepository;
+    private final ProdutoLoteRepository produtoLoteRepository;
+    private final CacheManager cacheManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean writeBehindHabilitado;
+
+    /**
+     * Deltas pendentes por ID de produto. As entradas são mantidas entre descargas
+     * (no máximo uma por produto ajustado) para que nenhuma thread some em um contador descartado.
+     */
+    private final Map<Long, LongAdder> pendentes = new ConcurrentHashMap<>();
+
+    /**
+     * Serializa as descargas (agendada e de desligamento). Usa ReentrantLock em vez de synchronized
+     * para não prender a thread portadora quando executada em uma virtual thread durante o JDBC.
+     */
+    private final ReentrantLock descarga = new ReentrantLock();
+
+    @Autowired
+    public AjusteEstoqueService(ProdutoRepository produtoRepository,
+                                ProdutoLoteRepository produtoLoteRepository,
+                                CacheManager cacheManager,
+                                ApplicationEventPublisher eventPublisher,
+                                PlatformTransactionManager transactionManager,
+                                @Value(ProdutoService.TIMEOUT_ESCRITA) int timeoutEscrita,
+                                @Value("${produtos.estoque.write-behind.habilitado:false}") boolean writeBehindHabilitado) {
+        this.produtoRepository = produtoRepository;
+        this.produtoLoteRepository = produtoLoteRepository;
+        this.cacheManager = cacheManager;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setTimeout(timeoutEscrita);
+        this.writeBehindHabilitado = writeBehindHabilitado;
+    }
+
+    public boolean isWriteBehindHabilitado() {
+        return writeBehindHabilitado;
+    }
+
+    /**
+     * Aplica um ajuste de quantidade ao estoque do produto.
+     * No modo write-behind o ajuste só é acumulado em memória; um ID inexistente
+     * é descartado na descarga seguinte.
+     * @throws ProdutoNaoEncontradoException se o modo write-behind estiver desabilitado e o produto não for encontrado
+     */
+    public void ajustar(Long id, int delta) {
+        if (writeBehindHabilitado) {
+            pendentes.computeIfAbsent(id, chave -> new LongAdder()).add(delta);
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            if (produtoRepository.ajustarEstoque(id, delta) == 0) {
+                throw new ProdutoNaoEncontradoException(id);
+            }
+            eventPublisher.publishEvent(new EstoqueAjustadoEvent(id, delta));
+        });
+        evictar(List.of(id));
+    }
+
+    /**
+     * Soma dos ajustes ainda não gravados no banco para o produto
+     */
+    public long pendente(Long id) {
+        LongAdder contador = pendentes.get(id);
+        return contador == null ? 0 : contador.sum();
+    }
+
+    /**
+     * Descarrega os ajustes acumulados em um único batch JDBC, coalescendo os deltas de cada produto.
+     * Executada no intervalo configurado e no desligamento da aplicação.
+     * @return quantidade de produtos atualizados
+     */
+    @Scheduled(fixedDelayString = "${produtos.estoque.write-behind.intervalo-ms:1000}")
+    public int descarregar() {
+        if (pendentes.isEmpty()) {
+            return 0;
+        }
+        descarga.lock();
+        try {
+            return descarregarPendentes();
+        } finally {
+            descarga.unlock();
+        }
+    }
+
+    private int descarregarPendentes() {
+        // sumThenReset zera cada célula atomicamente: somas concorrentes ficam para a próxima descarga
+        Map<Long, Long> deltas = new LinkedHashMap<>();
+        pendentes.forEach((id, contador) -> {
+            long delta = contador.sumThenReset();
+            if (delta != 0) {
+                deltas.put(id, delta);
+            }
+        });
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+
+        int atualizados;
+        try {
+            // O batch e os eventos do outbox são gravados na mesma transação
+            atualizados = transactionTemplate.execute(status -> gravar(deltas));
+        } catch (RuntimeException e) {
+            // Falhas do banco ou da transação (início, commit, timeout): a transação não foi confirmada,
+            // então os deltas voltam aos contadores para serem reenviados na próxima descarga
+            deltas.forEach((id, delta) -> pendentes.computeIfAbsent(id, chave -> new LongAdder()).add(delta));
+            log.warn("Falha ao descarregar ajustes de estoque de {} produto(s); nova tentativa no próximo intervalo",
+                    deltas.size(), e);
+            return 0;
+        }
+        evictar(deltas.keySet());
+        return atualizados;
+    }
+
+    private int gravar(Map<Long, Long> deltas) {
+        int[] linhas = produtoLoteRepository.ajustarEstoque(deltas);
+        int atualizados = 0;
+        int i = 0;
+        for (Map.Entry<Long, Long> ajuste : deltas.entrySet()) {
+            if (linhas[i++] == 0) {
+                pendentes.remove(ajuste.getKey());
+                log.warn("Ajuste de estoque descartado: produto com id {} não existe", ajuste.getKey());
+            } else {
+                atualizados++;
+                eventPublisher.publishEvent(new EstoqueAjustadoEvent(ajuste.getKey(), ajuste.getValue()));
+            }
+        }
+        return atualizados;
+    }
+
+    /**
+     * Descarrega os ajustes pendentes antes de o contexto (e o pool de conexões) ser encerrado
+     */
+    @PreDestroy
+    public void drenar() {
+        if (writeBehindHabilitado) {
+            int atualizados = descarregar();
+            log.info("Ajustes de estoque pendentes descarregados no desligamento: {} produto(s)", atualizados);
+        }
+    }
+
+    private void evictar(Iterable<Long> ids) {
+        Cache cache = cacheManager.getCache(CacheConfig.CACHE_PRODUTOS);
+        if (cache != null) {
+            ids.forEach(cache::evict);
+        }
+    }
+}
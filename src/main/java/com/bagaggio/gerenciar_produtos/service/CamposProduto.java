@@ -0,0 +1,57 @@
+package com.bagaggio.gerenciar_produtos.service;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Conjunto de campos do produto pedidos no parâmetro "fields" da listagem (sparse fieldset).
+ * O ID é sempre incluído, pois identifica o produto e compõe o cursor de paginação.
+ */
+public record CamposProduto(Set<String> nomes) {
+
+    /**
+     * Campos do produto que podem ser selecionados, na ordem em que são devolvidos
+     */
+    public static final List<String> DISPONIVEIS = List.of("id", "nome", "descricao", "preco", "quantidade", "categoria", "versao", "criadoEm", "atualizadoEm");
+
+    public CamposProduto {
+        nomes = Set.copyOf(nomes);
+    }
+
+    /**
+     * Converte o parâmetro "fields" no formato "campo1,campo2" (ex.: "nome,preco")
+     * @throws IllegalArgumentException se algum campo não existir ou nenhum for informado
+     */
+    public static CamposProduto de(String fields) {
+        Set<String> nomes = Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(campo -> !campo.isEmpty())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (nomes.isEmpty()) {
+            throw new IllegalArgumentException("Informe ao menos um campo em fields (disponíveis: " + String.join(", ", DISPONIVEIS) + ")");
+        }
+        for (String campo : nomes) {
+            if (!DISPONIVEIS.contains(campo)) {
+                throw new IllegalArgumentException("Campo não suportado: " + campo + " (disponíveis: " + String.join(", ", DISPONIVEIS) + ")");
+            }
+        }
+        nomes.add("id");
+        return new CamposProduto(nomes);
+    }
+
+    /**
+     * Colunas a buscar no banco: os campos pedidos mais os necessários para a ordenação e o cursor
+     */
+    public List<String> colunas(OrdenacaoProduto ordenacao) {
+        return DISPONIVEIS.stream()
+                .filter(campo -> nomes.contains(campo) || (campo.equals("preco") && ordenacao.porPreco()))
+                .toList();
+    }
+
+    public boolean contem(String campo) {
+        return nomes.contains(campo);
+    }
+}
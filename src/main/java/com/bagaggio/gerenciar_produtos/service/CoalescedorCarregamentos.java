@@ -0,0 +1,104 @@
+package com.bagaggio.gerenciar_produtos.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Agrupa leituras idênticas e simultâneas em um único carregamento (single-flight).
+ *
+ * <p>A primeira chamada para uma chave executa o carregamento; as que chegam enquanto ele está
+ * em andamento aguardam o mesmo future e recebem o mesmo resultado (ou a mesma exceção), sem
+ * locks por chave. Terminado o carregamento a chave é liberada: nada é guardado além das
+ * leituras em andamento, então o resultado nunca é mais antigo que o início da leitura compartilhada.</p>
+ *
+ * <p>Leituras dentro de uma transação de escrita não são compartilhadas, já que podem
+ * enxergar alterações ainda não confirmadas.</p>
+ *
+ * <p>As métricas "produtos.carregamentos" (por operação, com resultado "executado" ou
+ * "compartilhado") mostram quantos carregamentos foram evitados.</p>
+ */
+@Service
+public class CoalescedorCarregamentos {
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<Chave, CompletableFuture<Object>> emAndamento = new ConcurrentHashMap<>();
+
+    @Autowired
+    public CoalescedorCarregamentos(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Executa o carregamento, ou aguarda o resultado de um carregamento idêntico já em andamento
+     * @param operacao nome da operação (ex.: "buscarPorId"), usado na chave e nas métricas
+     * @param chave parâmetros normalizados da leitura; deve implementar equals e hashCode
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T carregar(String operacao, Object chave, Supplier<T> carregador) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return carregador.get();
+        }
+
+        Chave emUso = new Chave(operacao, chave);
+        CompletableFuture<Object> novo = new CompletableFuture<>();
+        CompletableFuture<Object> existente = emAndamento.putIfAbsent(emUso, novo);
+        if (existente != null) {
+            contador(operacao, "compartilhado").increment();
+            return (T) aguardar(existente);
+        }
+
+        contador(operacao, "executado").increment();
+        try {
+            T valor = carregador.get();
+            novo.complete(valor);
+            return valor;
+        } catch (RuntimeException | Error e) {
+            novo.completeExceptionally(e);
+            throw e;
+        } finally {
+            emAndamento.remove(emUso, novo);
+        }
+    }
+
+    /**
+     * Aguarda o future e repassa a exceção original em caso de falha (ex.: produto não encontrado -> 404),
+     * em vez da CompletionException que a envolve
+     */
+    static <T> T aguardar(CompletableFuture<T> carregamento) {
+        try {
+            return carregamento.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            if (e.getCause() instanceof Error erro) {
+                throw erro;
+            }
+            throw e;
+        }
+    }
+
+    // Métodos auxiliares
+    private Counter contador(String operacao, String resultado) {
+        return Counter.builder("produtos.carregamentos")
+                .description("Carregamentos de leituras de produtos, executados ou compartilhados com uma leitura idêntica em andamento")
+                .tag("operacao", operacao)
+                .tag("resultado", resultado)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Chave de uma leitura em andamento: a operação e os seus parâmetros
+     */
+    private record Chave(String operacao, Object parametros) {
+    }
+}
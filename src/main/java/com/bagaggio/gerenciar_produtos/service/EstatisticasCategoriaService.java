@@ -0,0 +1,303 @@
+package com.bagaggio.gerenciar_produtos.service;
+
+import com.bagaggio.gerenciar_produtos.dto.EstatisticaCategoriaDTO;
+import com.bagaggio.gerenciar_produtos.dto.ProdutoDTO;
+import com.bagaggio.gerenciar_produtos.model.Produto;
+import com.bagaggio.gerenciar_produtos.repository.ProdutoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Serviço de estatísticas de estoque por categoria.
+ * Mantém em memória uma tabela de agregados por categoria, carregada na inicialização a partir
+ * do banco e atualizada incrementalmente pelos eventos de alteração de produto e de estoque,
+ * de forma que a consulta custa O(categorias) e não O(produtos).
+ * Os listeners de duas alterações do mesmo produto podem rodar fora de ordem após o commit;
+ * por isso o estado de um produto só substitui o anterior se tiver versão maior.
+ */
+@Slf4j
+@Service
+public class EstatisticasCategoriaService {
+
+    private final ProdutoService produtoService;
+    private final ProdutoRepository produtoRepository;
+
+    // Estado dos agregados, protegido pelo lock
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private TabelaAgregados tabela = new TabelaAgregados();
+    private TabelaAgregados emReconstrucao;
+    private final Set<Long> alteradosDuranteReconstrucao = new HashSet<>();
+    private final Set<Long> ajustadosDuranteReconstrucao = new HashSet<>();
+
+    @Autowired
+    public EstatisticasCategoriaService(ProdutoService produtoService, ProdutoRepository produtoRepository) {
+        this.produtoService = produtoService;
+        this.produtoRepository = produtoRepository;
+    }
+
+    /**
+     * Lista as estatísticas de cada categoria com ao menos um produto, em ordem alfabética
+     */
+    public List<EstatisticaCategoriaDTO> listar() {
+        lock.readLock().lock();
+        try {
+            return tabela.categorias.values().stream()
+                    .filter(agregado -> agregado.produtos > 0)
+                    .map(Agregado::toDTO)
+                    .sorted((a, b) -> a.getCategoria().compareTo(b.getCategoria()))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Aplica a criação, atualização ou remoção de um produto após o commit
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarProduto(ProdutoAlteradoEvent evento) {
+        lock.writeLock().lock();
+        try {
+            tabela.definir(evento.id(), evento.produto());
+            if (emReconstrucao != null) {
+                emReconstrucao.definir(evento.id(), evento.produto());
+                alteradosDuranteReconstrucao.add(evento.id());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Aplica uma variação de estoque após o commit
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAjustarEstoque(EstoqueAjustadoEvent evento) {
+        lock.writeLock().lock();
+        try {
+            tabela.ajustar(evento.id(), evento.delta());
+            // A leitura da reconstrução pode ou não conter o ajuste (e pode ainda nem ter chegado ao produto):
+            // o produto é relido do banco ao fim da leitura
+            if (emReconstrucao != null) {
+                emReconstrucao.ajustar(evento.id(), evento.delta());
+                ajustadosDuranteReconstrucao.add(evento.id());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reconstrói os agregados a partir do banco, percorrendo o catálogo em streaming.
+     * As consultas continuam sendo atendidas pela tabela anterior até a nova ficar pronta;
+     * alterações ocorridas durante a reconstrução são aplicadas às duas. A leitura é um snapshot
+     * (e pode vir da réplica), então os produtos com estoque ajustado durante a reconstrução
+     * são relidos do primário antes da troca.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruir() {
+        long inicio = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            emReconstrucao = new TabelaAgregados();
+            alteradosDuranteReconstrucao.clear();
+            ajustadosDuranteReconstrucao.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            produtoService.exportarTodos(produto -> {
+                lock.writeLock().lock();
+                try {
+                    // Produtos alterados durante a reconstrução já estão com a versão mais recente
+                    if (!alteradosDuranteReconstrucao.contains(produto.getId())) {
+                        emReconstrucao.definir(produto.getId(), produto);
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            });
+            recarregarAjustados();
+
+            lock.writeLock().lock();
+            try {
+                // Os ajustados durante a releitura são relidos com o lock, sem novos ajustes concorrentes
+                recarregarAjustados();
+                tabela = emReconstrucao;
+                log.info("Estatísticas de {} categorias carregadas em {} ms", tabela.categorias.size(), System.currentTimeMillis() - inicio);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (RuntimeException e) {
+            log.error("Falha ao carregar as estatísticas por categoria", e);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                emReconstrucao = null;
+                alteradosDuranteReconstrucao.clear();
+                ajustadosDuranteReconstrucao.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Relê do primário os produtos com estoque ajustado durante a reconstrução e substitui a sua contribuição.
+     * Chamada sem o lock, um produto ajustado de novo durante a releitura fica para a próxima chamada;
+     * chamada com o lock de escrita (reentrante), os novos ajustes esperam a releitura terminar.
+     * Produtos com eventos de alteração já têm o estado completo mais recente e não são relidos.
+     */
+    private void recarregarAjustados() {
+        Set<Long> ids;
+        lock.writeLock().lock();
+        try {
+            ids = new HashSet<>(ajustadosDuranteReconstrucao);
+            ids.removeAll(alteradosDuranteReconstrucao);
+            ajustadosDuranteReconstrucao.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        Map<Long, ProdutoDTO> atuais = new HashMap<>();
+        for (Produto produto : produtoRepository.findAllById(ids)) {
+            atuais.put(produto.getId(), ProdutoService.toDTO(produto));
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (Long id : ids) {
+                if (ajustadosDuranteReconstrucao.contains(id) || alteradosDuranteReconstrucao.contains(id)) {
+                    continue;
+                }
+                emReconstrucao.recarregar(id, atuais.get(id));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Contribuição de um produto para o agregado da sua categoria
+     */
+    private record Linha(Agregado agregado, BigDecimal preco, long quantidade, Long versao) {
+    }
+
+    /**
+     * Agregados por categoria e a contribuição de cada produto, sem sincronização própria.
+     * Guardar a contribuição permite desfazê-la quando o produto muda ou é removido.
+     */
+    static final class TabelaAgregados {
+
+        private final Map<String, Agregado> categorias = new HashMap<>();
+        private final Map<Long, Linha> linhas = new HashMap<>();
+
+        /**
+         * Substitui a contribuição do produto pelo seu estado atual, ou a remove se o produto for null.
+         * Um estado com versão menor ou igual à da contribuição atual é de uma alteração anterior,
+         * entregue fora de ordem, e é ignorado.
+         */
+        void definir(Long id, ProdutoDTO produto) {
+            Linha atual = linhas.get(id);
+            if (produto != null && atual != null && produto.getVersao() != null && atual.versao() != null
+                    && produto.getVersao() <= atual.versao()) {
+                return;
+            }
+            recarregar(id, produto);
+        }
+
+        /**
+         * Substitui a contribuição do produto pelo estado lido do banco, qualquer que seja a versão
+         * (os ajustes de estoque mudam a versão no banco sem mudá-la aqui)
+         */
+        void recarregar(Long id, ProdutoDTO produto) {
+            Linha anterior = linhas.remove(id);
+            if (anterior != null) {
+                anterior.agregado().subtrair(anterior.preco(), anterior.quantidade());
+            }
+            if (produto == null) {
+                return;
+            }
+            Agregado agregado = categorias.computeIfAbsent(produto.getCategoria(), Agregado::new);
+            BigDecimal preco = produto.getPreco().setScale(2, RoundingMode.HALF_EVEN);
+            long quantidade = produto.getQuantidade() == null ? 0 : produto.getQuantidade();
+            agregado.somar(preco, quantidade);
+            linhas.put(id, new Linha(agregado, preco, quantidade, produto.getVersao()));
+        }
+
+        void ajustar(Long id, long delta) {
+            Linha linha = linhas.get(id);
+            if (linha != null) {
+                linha.agregado().ajustarQuantidade(linha.preco(), delta);
+                linhas.put(id, new Linha(linha.agregado(), linha.preco(), linha.quantidade() + delta, linha.versao()));
+            }
+        }
+    }
+
+    /**
+     * Totais de uma categoria. Os preços são mantidos em um multiconjunto ordenado
+     * para que o mínimo e o máximo continuem corretos após remoções.
+     */
+    static final class Agregado {
+
+        private final String categoria;
+        private final TreeMap<BigDecimal, Integer> precos = new TreeMap<>();
+        private long produtos;
+        private long quantidadeTotal;
+        private BigDecimal valorEstoque = BigDecimal.ZERO;
+        private BigDecimal somaPrecos = BigDecimal.ZERO;
+
+        Agregado(String categoria) {
+            this.categoria = categoria;
+        }
+
+        void somar(BigDecimal preco, long quantidade) {
+            produtos++;
+            somaPrecos = somaPrecos.add(preco);
+            precos.merge(preco, 1, Integer::sum);
+            ajustarQuantidade(preco, quantidade);
+        }
+
+        void subtrair(BigDecimal preco, long quantidade) {
+            produtos--;
+            somaPrecos = somaPrecos.subtract(preco);
+            precos.computeIfPresent(preco, (chave, total) -> total == 1 ? null : total - 1);
+            ajustarQuantidade(preco, -quantidade);
+        }
+
+        void ajustarQuantidade(BigDecimal preco, long delta) {
+            quantidadeTotal += delta;
+            valorEstoque = valorEstoque.add(preco.multiply(BigDecimal.valueOf(delta)));
+        }
+
+        EstatisticaCategoriaDTO toDTO() {
+            return new EstatisticaCategoriaDTO(
+                    categoria,
+                    produtos,
+                    quantidadeTotal,
+                    valorEstoque,
+                    precos.firstKey(),
+                    precos.lastKey(),
+                    somaPrecos.divide(BigDecimal.valueOf(produtos), 2, RoundingMode.HALF_EVEN)
+            );
+        }
+    }
+}
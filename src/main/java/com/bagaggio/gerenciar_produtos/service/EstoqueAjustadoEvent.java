@@ -0,0 +1,9 @@
+package com.bagaggio.gerenciar_produtos.service;
+
+/**
+ * Evento publicado quando a quantidade em estoque de um produto muda por um UPDATE direto
+ * (reserva, liberação ou ajuste), sem que o produto seja carregado.
+ * @param delta variação aplicada à quantidade
+ */
+public record EstoqueAjustadoEvent(Long id, long delta) {
+}
@@ -0,0 +1,24 @@
+package com.bagaggio.gerenciar_produtos.service;
+
+import java.math.BigDecimal;
+
+/**
+ * Critérios de filtro e ordenação da listagem de produtos.
+ * Campos nulos não restringem a consulta.
+ */
+public record FiltroProduto(String categoria, BigDecimal precoMin, BigDecimal precoMax, OrdenacaoProduto ordenacao) {
+
+    /**
+     * Filtro sem restrições, ordenado por ID
+     */
+    public static final FiltroProduto TODOS = new FiltroProduto(null, null, null, OrdenacaoProduto.ID_ASC);
+
+    public FiltroProduto {
+        if (precoMin != null && precoMax != null && precoMin.compareTo(precoMax) > 0) {
+            throw new IllegalArgumentException("O preço mínimo não pode ser maior que o preço máximo");
+        }
+        if (ordenacao == null) {
+            ordenacao = OrdenacaoProduto.ID_ASC;
+        }
+    }
+}
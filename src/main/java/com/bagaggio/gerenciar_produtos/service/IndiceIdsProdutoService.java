@@ -0,0 +1,126 @@
+package com.bagaggio.gerenciar_produtos.service;
+
+import com.bagaggio.gerenciar_produtos.repository.ProdutoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.BitSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Conjunto em memória dos IDs de produtos existentes, usado para responder 404 a IDs
+ * inexistentes sem consultar o banco.
+ *
+ * <p>Como os IDs são sequenciais (auto incremento), o conjunto é um bitmap com um bit por ID:
+ * ocupa menos que um filtro de Bloom com a mesma quantidade de IDs e não tem falsos positivos.
+ * Só a ausência é garantida: um ID marcado pode já ter sido removido, e IDs fora da faixa do
+ * bitmap ou consultados antes da carga inicial terminar sempre vão ao banco.</p>
+ *
+ * <p>O conjunto acompanha apenas as alterações feitas pela aplicação, por isso vem desabilitado
+ * ({@code produtos.indice-ids.habilitado}); não o habilite se outros sistemas inserirem produtos
+ * direto no banco.</p>
+ */
+@Slf4j
+@Service
+public class IndiceIdsProdutoService {
+
+    // Maior ID representável no bitmap (exclusive)
+    private static final long LIMITE_IDS = Integer.MAX_VALUE;
+
+    private final ProdutoRepository produtoRepository;
+    private final boolean habilitado;
+
+    // Estado do bitmap, protegido pelo lock
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final BitSet ids = new BitSet();
+    private volatile boolean pronto;
+
+    @Autowired
+    public IndiceIdsProdutoService(ProdutoRepository produtoRepository,
+                                   @Value("${produtos.indice-ids.habilitado:false}") boolean habilitado) {
+        this.produtoRepository = produtoRepository;
+        this.habilitado = habilitado;
+    }
+
+    /**
+     * Indica se o produto com o ID informado com certeza não existe.
+     * Falso significa apenas que o produto pode existir e deve ser buscado no banco.
+     */
+    public boolean certamenteAusente(Long id) {
+        if (!pronto || id == null || id < 0 || id >= LIMITE_IDS) {
+            return false;
+        }
+        lock.readLock().lock();
+        try {
+            return !ids.get(id.intValue());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Marca o ID de um produto criado ainda antes do commit, para que ele nunca seja dado como ausente;
+     * se a transação for desfeita, o ID fica marcado sem prejuízo além de uma consulta ao banco
+     */
+    @EventListener
+    public void aoCriarProduto(ProdutoAlteradoEvent evento) {
+        if (habilitado && evento.tipo() == ProdutoAlteradoEvent.Tipo.CRIADO) {
+            adicionar(evento.id());
+        }
+    }
+
+    /**
+     * Desmarca o ID de um produto removido após o commit
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoRemoverProduto(ProdutoAlteradoEvent evento) {
+        if (habilitado && evento.tipo() == ProdutoAlteradoEvent.Tipo.REMOVIDO && evento.id() < LIMITE_IDS) {
+            lock.writeLock().lock();
+            try {
+                ids.clear(evento.id().intValue());
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Carrega os IDs existentes a partir do banco.
+     * Criações ocorridas durante a carga já marcam o bitmap; uma remoção concorrente pode
+     * deixar o ID marcado, o que só custa uma consulta ao banco.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void reconstruir() {
+        if (!habilitado) {
+            return;
+        }
+        long inicio = System.currentTimeMillis();
+        try (Stream<Long> existentes = produtoRepository.streamIds()) {
+            existentes.forEach(this::adicionar);
+            pronto = true;
+            log.info("Índice de IDs de produtos carregado em {} ms", System.currentTimeMillis() - inicio);
+        } catch (RuntimeException e) {
+            log.error("Falha ao carregar o índice de IDs de produtos; as buscas por ID continuam indo ao banco", e);
+        }
+    }
+
+    private void adicionar(Long id) {
+        if (id >= LIMITE_IDS) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            ids.set(id.intValue());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
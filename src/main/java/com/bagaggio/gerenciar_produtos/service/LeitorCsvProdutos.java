@@ -0,0 +1,317 @@
+package com.bagaggio.gerenciar_produtos.service;
+
+import com.bagaggio.gerenciar_produtos.dto.ProdutoDTO;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Leitor de linhas de um CSV de produtos sobre um {@link ByteBuffer}, normalmente um trecho do arquivo
+ * mapeado em memória.
+ *
+ * <p>Os bytes são percorridos diretamente, sem criar uma String por linha: só os campos de texto do
+ * produto são decodificados (UTF-8), e preço e quantidade são convertidos a partir dos próprios bytes.
+ * Campos entre aspas podem conter o separador e aspas duplicadas (""), mas cada registro deve ocupar
+ * uma única linha. Cada instância reaproveita os seus buffers e não deve ser compartilhada entre threads.</p>
+ */
+final class LeitorCsvProdutos {
+
+    private static final String[] COLUNAS = {"nome", "descricao", "preco", "quantidade", "categoria"};
+    private static final int NOME = 0;
+    private static final int DESCRICAO = 1;
+    private static final int PRECO = 2;
+    private static final int QUANTIDADE = 3;
+    private static final int CATEGORIA = 4;
+
+    private static final byte ASPAS = '"';
+    private static final byte[] BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+
+    private final Cabecalho cabecalho;
+    private final int[] inicios = new int[COLUNAS.length];
+    private final int[] fins = new int[COLUNAS.length];
+    private final boolean[] comAspasDuplicadas = new boolean[COLUNAS.length];
+    private byte[] bytes = new byte[256];
+    private char[] caracteres = new char[64];
+
+    LeitorCsvProdutos(Cabecalho cabecalho) {
+        this.cabecalho = cabecalho;
+    }
+
+    /**
+     * Recebe cada linha lida, com a sua posição (em bytes) no arquivo, e diz se a leitura deve continuar
+     */
+    @FunctionalInterface
+    interface ConsumidorLinha {
+
+        /**
+         * @param produto produto lido, com null nos campos que não puderam ser convertidos; null se a linha for ilegível
+         * @param erros erros de leitura por campo, vazio se a linha foi lida por completo
+         * @return false para interromper a leitura
+         */
+        boolean aceitar(long posicao, ProdutoDTO produto, Map<String, String> erros);
+    }
+
+    /**
+     * Colunas do arquivo e o separador, lidos da primeira linha
+     * @param separador ',' ou ';'
+     * @param campoDaColuna campo do produto de cada coluna do arquivo, ou -1 para colunas ignoradas
+     * @param tamanho bytes do cabeçalho, incluindo a quebra de linha (onde começam os dados)
+     */
+    record Cabecalho(byte separador, int[] campoDaColuna, int tamanho) {
+    }
+
+    /**
+     * Lê o cabeçalho do início do arquivo.
+     * Os nomes das colunas são comparados sem acentos e sem diferenciar maiúsculas (ex.: "Preço");
+     * colunas desconhecidas são ignoradas. O separador é o que aparece mais vezes no cabeçalho.
+     * @param fimDoArquivo se o buffer termina junto com o arquivo (cabeçalho sem quebra de linha)
+     * @throws IllegalArgumentException se o cabeçalho for longo demais ou faltar alguma coluna
+     */
+    static Cabecalho lerCabecalho(ByteBuffer buffer, boolean fimDoArquivo) {
+        int inicio = comecaComBom(buffer) ? BOM.length : 0;
+        int fim = proximaQuebra(buffer, inicio);
+        if (fim < 0 && !fimDoArquivo) {
+            throw new IllegalArgumentException("O cabeçalho do CSV excede o tamanho máximo de linha");
+        }
+        int fimLinha = fim < 0 ? buffer.limit() : fim;
+        byte[] conteudo = new byte[fimLinha - inicio];
+        buffer.get(inicio, conteudo);
+        String linha = new String(conteudo, StandardCharsets.UTF_8).strip();
+
+        long virgulas = linha.chars().filter(c -> c == ',').count();
+        long pontosEVirgulas = linha.chars().filter(c -> c == ';').count();
+        char separador = pontosEVirgulas > virgulas ? ';' : ',';
+
+        String[] nomes = linha.split(String.valueOf(separador), -1);
+        int[] campoDaColuna = new int[nomes.length];
+        boolean[] encontrados = new boolean[COLUNAS.length];
+        for (int coluna = 0; coluna < nomes.length; coluna++) {
+            int campo = Arrays.asList(COLUNAS).indexOf(normalizar(nomes[coluna]));
+            if (campo >= 0 && encontrados[campo]) {
+                throw new IllegalArgumentException("Coluna repetida no cabeçalho do CSV: " + COLUNAS[campo]);
+            }
+            campoDaColuna[coluna] = campo;
+            if (campo >= 0) {
+                encontrados[campo] = true;
+            }
+        }
+        for (int campo = 0; campo < COLUNAS.length; campo++) {
+            if (!encontrados[campo]) {
+                throw new IllegalArgumentException("Coluna obrigatória ausente no cabeçalho do CSV: " + COLUNAS[campo]
+                        + " (esperadas: " + String.join(", ", COLUNAS) + ")");
+            }
+        }
+        return new Cabecalho((byte) separador, campoDaColuna, fim < 0 ? buffer.limit() : fim + 1);
+    }
+
+    /**
+     * Lê as linhas que começam antes de {@code limite}, mesmo que terminem depois dele.
+     * @param buffer trecho do arquivo, posições 0 a limit()
+     * @param deslocamento posição no arquivo do byte 0 do buffer
+     * @param continuacao se o trecho pode começar no meio de uma linha: os bytes até a primeira quebra
+     *                    pertencem ao trecho anterior e são pulados (o byte 0 deve ser o último do trecho anterior)
+     * @param limite posição no buffer a partir da qual começam as linhas do próximo trecho
+     * @param fimDoArquivo se o buffer termina junto com o arquivo (última linha sem quebra de linha)
+     */
+    void ler(ByteBuffer buffer, long deslocamento, boolean continuacao, int limite, boolean fimDoArquivo,
+             ConsumidorLinha consumidor) {
+        int inicio = 0;
+        if (continuacao) {
+            int quebra = proximaQuebra(buffer, 0);
+            if (quebra < 0) {
+                return;
+            }
+            inicio = quebra + 1;
+        }
+        while (inicio < limite) {
+            int quebra = proximaQuebra(buffer, inicio);
+            if (quebra < 0 && !fimDoArquivo) {
+                consumidor.aceitar(deslocamento + inicio, null, Map.of("linha", "A linha excede o tamanho máximo"));
+                return;
+            }
+            int fim = quebra < 0 ? buffer.limit() : quebra;
+            if (fim > inicio && buffer.get(fim - 1) == '\r') {
+                fim--;
+            }
+            if (!emBranco(buffer, inicio, fim) && !lerLinha(buffer, deslocamento + inicio, inicio, fim, consumidor)) {
+                return;
+            }
+            if (quebra < 0) {
+                return;
+            }
+            inicio = quebra + 1;
+        }
+    }
+
+    // Métodos auxiliares
+    private boolean lerLinha(ByteBuffer buffer, long posicao, int inicio, int fim, ConsumidorLinha consumidor) {
+        int coluna = 0;
+        int i = inicio;
+        while (true) {
+            int campo = coluna < cabecalho.campoDaColuna().length ? cabecalho.campoDaColuna()[coluna] : -1;
+            int inicioCampo;
+            int fimCampo;
+            boolean duplicadas = false;
+            if (i < fim && buffer.get(i) == ASPAS) {
+                inicioCampo = i + 1;
+                int j = inicioCampo;
+                while (true) {
+                    if (j >= fim) {
+                        return consumidor.aceitar(posicao, null, Map.of("linha", "Aspas não fechadas na coluna " + (coluna + 1)));
+                    }
+                    if (buffer.get(j) == ASPAS) {
+                        if (j + 1 < fim && buffer.get(j + 1) == ASPAS) {
+                            duplicadas = true;
+                            j += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    j++;
+                }
+                fimCampo = j;
+                i = j + 1;
+                if (i < fim && buffer.get(i) != cabecalho.separador()) {
+                    return consumidor.aceitar(posicao, null, Map.of("linha", "Conteúdo após as aspas na coluna " + (coluna + 1)));
+                }
+            } else {
+                inicioCampo = i;
+                while (i < fim && buffer.get(i) != cabecalho.separador()) {
+                    i++;
+                }
+                fimCampo = i;
+                while (inicioCampo < fimCampo && buffer.get(inicioCampo) == ' ') {
+                    inicioCampo++;
+                }
+                while (fimCampo > inicioCampo && buffer.get(fimCampo - 1) == ' ') {
+                    fimCampo--;
+                }
+            }
+            if (campo >= 0) {
+                inicios[campo] = inicioCampo;
+                fins[campo] = fimCampo;
+                comAspasDuplicadas[campo] = duplicadas;
+            }
+            coluna++;
+            if (i >= fim) {
+                break;
+            }
+            i++; // separador
+        }
+        if (coluna != cabecalho.campoDaColuna().length) {
+            return consumidor.aceitar(posicao, null, Map.of("linha", "A linha tem " + coluna + " colunas e o cabeçalho tem "
+                    + cabecalho.campoDaColuna().length));
+        }
+
+        Map<String, String> erros = new LinkedHashMap<>();
+        ProdutoDTO produto = new ProdutoDTO();
+        produto.setNome(texto(buffer, NOME));
+        produto.setDescricao(texto(buffer, DESCRICAO));
+        produto.setCategoria(texto(buffer, CATEGORIA));
+        produto.setPreco(preco(buffer, erros));
+        produto.setQuantidade(quantidade(buffer, erros));
+        return consumidor.aceitar(posicao, produto, erros);
+    }
+
+    private String texto(ByteBuffer buffer, int campo) {
+        int tamanho = fins[campo] - inicios[campo];
+        if (tamanho <= 0) {
+            return null;
+        }
+        if (bytes.length < tamanho) {
+            bytes = new byte[Math.max(tamanho, bytes.length * 2)];
+        }
+        buffer.get(inicios[campo], bytes, 0, tamanho);
+        if (comAspasDuplicadas[campo]) {
+            // "" dentro de um campo entre aspas representa uma aspa
+            int escrito = 0;
+            for (int lido = 0; lido < tamanho; lido++) {
+                bytes[escrito++] = bytes[lido];
+                if (bytes[lido] == ASPAS) {
+                    lido++;
+                }
+            }
+            tamanho = escrito;
+        }
+        return new String(bytes, 0, tamanho, StandardCharsets.UTF_8);
+    }
+
+    // Aceita "." ou "," como separador decimal (ex.: 1234.56 ou 1234,56), sem separador de milhar
+    private BigDecimal preco(ByteBuffer buffer, Map<String, String> erros) {
+        int tamanho = fins[PRECO] - inicios[PRECO];
+        if (tamanho <= 0) {
+            return null;
+        }
+        if (caracteres.length < tamanho) {
+            caracteres = new char[tamanho];
+        }
+        for (int i = 0; i < tamanho; i++) {
+            byte b = buffer.get(inicios[PRECO] + i);
+            caracteres[i] = b == ',' ? '.' : (char) (b & 0xFF);
+        }
+        try {
+            return new BigDecimal(caracteres, 0, tamanho);
+        } catch (NumberFormatException e) {
+            erros.put("preco", "Preço inválido");
+            return null;
+        }
+    }
+
+    private Integer quantidade(ByteBuffer buffer, Map<String, String> erros) {
+        int inicio = inicios[QUANTIDADE];
+        int fim = fins[QUANTIDADE];
+        if (fim <= inicio) {
+            erros.put("quantidade", "A quantidade é obrigatória");
+            return null;
+        }
+        boolean negativa = buffer.get(inicio) == '-';
+        int i = negativa || buffer.get(inicio) == '+' ? inicio + 1 : inicio;
+        long valor = 0;
+        if (i == fim) {
+            erros.put("quantidade", "Quantidade inválida");
+            return null;
+        }
+        for (; i < fim; i++) {
+            int digito = buffer.get(i) - '0';
+            if (digito < 0 || digito > 9 || (valor = valor * 10 + digito) > Integer.MAX_VALUE) {
+                erros.put("quantidade", "Quantidade inválida");
+                return null;
+            }
+        }
+        return (int) (negativa ? -valor : valor);
+    }
+
+    private static int proximaQuebra(ByteBuffer buffer, int inicio) {
+        for (int i = inicio; i < buffer.limit(); i++) {
+            if (buffer.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean emBranco(ByteBuffer buffer, int inicio, int fim) {
+        for (int i = inicio; i < fim; i++) {
+            if (buffer.get(i) != ' ' && buffer.get(i) != '\t') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean comecaComBom(ByteBuffer buffer) {
+        return buffer.limit() >= BOM.length
+                && buffer.get(0) == BOM[0] && buffer.get(1) == BOM[1] && buffer.get(2) == BOM[2];
+    }
+
+    private static String normalizar(String coluna) {
+        String semAcentos = Normalizer.normalize(coluna.strip(), Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return semAcentos.replace("\"", "").toLowerCase(Locale.ROOT);
+    }
+}
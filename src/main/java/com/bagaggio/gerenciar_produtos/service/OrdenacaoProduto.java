@@ -0,0 +1,52 @@
+package com.bagaggio.gerenciar_produtos.service;
+
+import org.springframework.data.domain.Sort;
+
+/**
+ * Ordenações suportadas na listagem de produtos.
+ * Todas usam o ID como critério de desempate, o que permite a paginação por cursor (keyset).
+ */
+public enum OrdenacaoProduto {
+    ID_ASC("id", Sort.Direction.ASC),
+    ID_DESC("id", Sort.Direction.DESC),
+    PRECO_ASC("preco", Sort.Direction.ASC),
+    PRECO_DESC("preco", Sort.Direction.DESC);
+
+    private final String campo;
+    private final Sort.Direction direcao;
+
+    OrdenacaoProduto(String campo, Sort.Direction direcao) {
+        this.campo = campo;
+        this.direcao = direcao;
+    }
+
+    /**
+     * Converte o parâmetro "sort" no formato "campo[,asc|desc]" (ex.: "preco,desc")
+     * @throws IllegalArgumentException se o campo ou a direção não forem suportados
+     */
+    public static OrdenacaoProduto de(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return ID_ASC;
+        }
+        String[] partes = sort.split(",");
+        String direcao = partes.length > 1 ? partes[1].trim() : "asc";
+        for (OrdenacaoProduto ordenacao : values()) {
+            if (ordenacao.campo.equalsIgnoreCase(partes[0].trim()) && ordenacao.direcao.name().equalsIgnoreCase(direcao)) {
+                return ordenacao;
+            }
+        }
+        throw new IllegalArgumentException("Ordenação não suportada: " + sort + " (use id ou preco, com asc ou desc)");
+    }
+
+    public boolean porPreco() {
+        return "preco".equals(campo);
+    }
+
+    public boolean decrescente() {
+        return direcao == Sort.Direction.DESC;
+    }
+
+    public Sort toSort() {
+        return porPreco() ? Sort.by(direcao, "preco", "id") : Sort.by(direcao, "id");
+    }
+}
@@ -0,0 +1,29 @@
+package com.bagaggio.gerenciar_produtos.service;
+
+import com.bagaggio.gerenciar_produtos.dto.ProdutoDTO;
+
+/**
+ * Evento publicado pelos serviços de produto a cada criação, atualização ou remoção.
+ * Os ouvintes que mantêm estruturas derivadas em memória (como o índice de busca)
+ * reagem a ele após o commit da transação.
+ * @param produto estado atual do produto, ou null quando removido
+ */
+public record ProdutoAlteradoEvent(Tipo tipo, Long id, ProdutoDTO produto) {
+
+    /**
+     * Tipo da alteração sofrida pelo produto
+     */
+    public enum Tipo { CRIADO, ATUALIZADO, REMOVIDO }
+
+    public static ProdutoAlteradoEvent criado(ProdutoDTO produto) {
+        return new ProdutoAlteradoEvent(Tipo.CRIADO, produto.getId(), produto);
+    }
+
+    public static ProdutoAlteradoEvent atualizado(ProdutoDTO produto) {
+        return new ProdutoAlteradoEvent(Tipo.ATUALIZADO, produto.getId(), produto);
+    }
+
+    public static ProdutoAlteradoEvent removido(Long id) {
+        return new ProdutoAlteradoEvent(Tipo.REMOVIDO, id, null);
+    }
+}
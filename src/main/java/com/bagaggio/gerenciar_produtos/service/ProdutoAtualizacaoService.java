@@ -0,0 +1,209 @@
+package com.bagaggio.gerenciar_produtos.service;
+
+import com.bagaggio.gerenciar_produtos.config.CacheConfig;
+import com.bagaggio.gerenciar_produtos.dto.AtualizacaoEmMassaDTO;
+import com.bagaggio.gerenciar_produtos.dto.ProdutoDTO;
+import com.bagaggio.gerenciar_produtos.dto.ResultadoAtualizacaoDTO;
+import com.bagaggio.gerenciar_produtos.exeption.EstoqueInsuficienteException;
+import com.bagaggio.gerenciar_produtos.model.Produto;
+import com.bagaggio.gerenciar_produtos.repository.ProdutoRepository;
+import com.bagaggio.gerenciar_produtos.repository.ProdutoSpecifications;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Serviço responsável pelas atualizações parciais em massa de produtos.
+ */
+@Service
+public class ProdutoAtualizacaoService {
+
+    /**
+     * Produtos relidos por consulta para publicar os eventos de uma atualização em massa
+     */
+    private static final int PRODUTOS_POR_BLOCO_EVENTOS = 1_000;
+
+    private final ProdutoRepository produtoRepository;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    public ProdutoAtualizacaoService(ProdutoRepository produtoRepository,
+                                     ObjectMapper objectMapper,
+                                     Validator validator,
+                                     ApplicationEventPublisher eventPublisher) {
+        this.produtoRepository = produtoRepository;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Aplica as operações a todos os produtos selecionados pela categoria e/ou pelos IDs
+     * em um único UPDATE, sem carregar os produtos antes da alteração.
+     * O cache de produtos é esvaziado, já que não se sabe quais produtos foram alterados.
+     * @return quantidade de produtos alterados
+     * @throws IllegalArgumentException se faltar o critério de seleção ou as operações
+     * @throws EstoqueInsuficienteException se o delta de quantidade deixar algum produto com estoque negativo
+     */
+    @Transactional(timeoutString = ProdutoService.TIMEOUT_ESCRITA)
+    @CacheEvict(cacheNames = CacheConfig.CACHE_PRODUTOS, allEntries = true)
+    public ResultadoAtualizacaoDTO atualizarEmMassa(AtualizacaoEmMassaDTO atualizacao) {
+        String categoria = atualizacao.getCategoria() == null || atualizacao.getCategoria().isBlank() ? null : atualizacao.getCategoria();
+        List<Long> ids = atualizacao.getIds() == null || atualizacao.getIds().isEmpty() ? null : atualizacao.getIds();
+        if (categoria == null && ids == null) {
+            throw new IllegalArgumentException("Informe a categoria ou os ids dos produtos a atualizar");
+        }
+        if (atualizacao.getPreco() == null && atualizacao.getFatorPreco() == null && atualizacao.getDeltaQuantidade() == null) {
+            throw new IllegalArgumentException("Informe ao menos uma operação: preco, fatorPreco ou deltaQuantidade");
+        }
+        if (atualizacao.getPreco() != null && atualizacao.getFatorPreco() != null) {
+            throw new IllegalArgumentException("Informe preco ou fatorPreco, não ambos");
+        }
+
+        Specification<Produto> selecao = ProdutoSpecifications.comCategoria(categoria)
+                .and(ProdutoSpecifications.comIds(ids));
+
+        Integer delta = atualizacao.getDeltaQuantidade();
+        int afetados = produtoRepository.atualizarEmMassa(selecao,
+                atualizacao.getPreco() == null ? null : atualizacao.getPreco().setScale(2, RoundingMode.HALF_EVEN),
+                atualizacao.getFatorPreco(),
+                delta);
+
+        // O estoque é conferido depois do UPDATE, na mesma transação: as linhas alteradas ficam bloqueadas
+        // até o commit, então nenhuma retirada concorrente cabe entre a conferência e a escrita.
+        // Se algum produto ficou negativo, a exceção desfaz o UPDATE inteiro
+        if (delta != null && delta < 0) {
+            long semEstoque = produtoRepository.count(selecao.and(ProdutoSpecifications.comQuantidadeMenorQue(0)));
+            if (semEstoque > 0) {
+                throw new EstoqueInsuficienteException(
+                        "Estoque insuficiente para retirar " + (-delta) + " unidade(s) de " + semEstoque + " produto(s)");
+            }
+        }
+
+        if (afetados > 0) {
+            publicarAtualizados(selecao);
+        }
+        return new ResultadoAtualizacaoDTO(afetados, null);
+    }
+
+    /**
+     * Aplica um JSON Merge Patch (RFC 7396) a cada produto informado.
+     * Os produtos são carregados em uma única consulta e os UPDATEs são enviados em batches JDBC.
+     * Se algum patch deixar um produto inválido, nenhum produto é alterado.
+     * @param patches patch de cada produto, por ID
+     * @return quantidade de produtos alterados e IDs não encontrados
+     * @throws IllegalArgumentException se algum patch for mal formado ou deixar o produto inválido
+     */
+    @Transactional(timeoutString = ProdutoService.TIMEOUT_ESCRITA)
+    @CacheEvict(cacheNames = CacheConfig.CACHE_PRODUTOS, allEntries = true)
+    public ResultadoAtualizacaoDTO aplicarMergePatch(Map<Long, JsonNode> patches) {
+        Map<Long, Produto> produtos = produtoRepository.findAllById(patches.keySet()).stream()
+                .collect(Collectors.toMap(Produto::getId, Function.identity()));
+
+        List<Long> naoEncontrados = new ArrayList<>();
+        List<Produto> alterados = new ArrayList<>();
+        for (Map.Entry<Long, JsonNode> patch : patches.entrySet()) {
+            Produto produto = produtos.get(patch.getKey());
+            if (produto == null) {
+                naoEncontrados.add(patch.getKey());
+                continue;
+            }
+            ProdutoDTO produtoDTO = aplicar(produto, patch.getValue());
+            produto.setNome(produtoDTO.getNome());
+            produto.setDescricao(produtoDTO.getDescricao());
+            produto.setPreco(produtoDTO.getPreco().setScale(2, RoundingMode.HALF_EVEN));
+            produto.setQuantidade(produtoDTO.getQuantidade());
+            produto.setCategoria(produtoDTO.getCategoria());
+            alterados.add(produto);
+        }
+
+        // O flush envia os UPDATEs agora, para que os eventos levem as versões já incrementadas
+        produtoRepository.flush();
+        alterados.forEach(produto -> eventPublisher.publishEvent(ProdutoAlteradoEvent.atualizado(ProdutoService.toDTO(produto))));
+        return new ResultadoAtualizacaoDTO(alterados.size(), naoEncontrados);
+    }
+
+    // Métodos auxiliares
+
+    /**
+     * Avisa os ouvintes que mantêm estruturas derivadas (ex.: estatísticas por categoria) sobre os produtos
+     * alterados em massa. A seleção não depende dos campos alterados, então os produtos são relidos por ela,
+     * em blocos por ordem de ID e como tuplas, sem carregar entidades no contexto de persistência.
+     */
+    private void publicarAtualizados(Specification<Produto> selecao) {
+        Long ultimoId = null;
+        List<Map<String, Object>> bloco;
+        do {
+            Specification<Produto> restantes = ultimoId == null ? selecao : selecao.and(ProdutoSpecifications.aposId(ultimoId, false));
+            bloco = produtoRepository.buscarCampos(restantes, Sort.by("id"), PRODUTOS_POR_BLOCO_EVENTOS, CamposProduto.DISPONIVEIS);
+            for (Map<String, Object> linha : bloco) {
+                eventPublisher.publishEvent(ProdutoAlteradoEvent.atualizado(toDTO(linha)));
+            }
+            if (!bloco.isEmpty()) {
+                ultimoId = (Long) bloco.getLast().get("id");
+            }
+        } while (bloco.size() == PRODUTOS_POR_BLOCO_EVENTOS);
+    }
+
+    private static ProdutoDTO toDTO(Map<String, Object> linha) {
+        return new ProdutoDTO(
+                (Long) linha.get("id"),
+                (String) linha.get("nome"),
+                (String) linha.get("descricao"),
+                (BigDecimal) linha.get("preco"),
+                (Integer) linha.get("quantidade"),
+                (String) linha.get("categoria"),
+                (Long) linha.get("versao"),
+                (Instant) linha.get("criadoEm"),
+                (Instant) linha.get("atualizadoEm")
+        );
+    }
+
+    private ProdutoDTO aplicar(Produto produto, JsonNode patch) {
+        if (patch == null || !patch.isObject()) {
+            throw new IllegalArgumentException("O patch do produto " + produto.getId() + " deve ser um objeto JSON");
+        }
+        ProdutoDTO produtoDTO;
+        try {
+            // Campos ausentes ficam como estão e campos nulos são apagados, como define o Merge Patch
+            produtoDTO = objectMapper.readerForUpdating(ProdutoService.toDTO(produto)).readValue(patch);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Patch inválido para o produto " + produto.getId() + ": " + e.getMessage());
+        }
+
+        Set<ConstraintViolation<ProdutoDTO>> violacoes = validator.validate(produtoDTO);
+        List<String> erros = violacoes.stream()
+                .map(violacao -> violacao.getPropertyPath() + ": " + violacao.getMessage())
+                .sorted()
+                .collect(Collectors.toCollection(ArrayList::new));
+        // A quantidade é opcional na criação, mas a coluna não aceita nulo
+        if (produtoDTO.getQuantidade() == null) {
+            erros.add("quantidade: A quantidade não pode ser removida");
+        }
+        if (!erros.isEmpty()) {
+            throw new IllegalArgumentException("Patch inválido para o produto " + produto.getId() + ": " + String.join(", ", erros));
+        }
+        return produtoDTO;
+    }
+}
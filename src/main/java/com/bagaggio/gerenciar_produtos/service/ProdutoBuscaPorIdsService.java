@@ -0,0 +1,109 @@
+package com.bagaggio.gerenciar_produtos.service;
+
+import com.bagaggio.gerenciar_produtos.config.CacheConfig;
+import com.bagaggio.gerenciar_produtos.dto.ProdutoDTO;
+import com.bagaggio.gerenciar_produtos.dto.ResultadoBuscaIdsDTO;
+import com.bagaggio.gerenciar_produtos.model.Produto;
+import com.bagaggio.gerenciar_produtos.repository.ProdutoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Serviço de busca de vários produtos por ID de uma só vez (ex.: itens de um carrinho ou pedido).
+ * Os IDs já presentes no cache de produtos não vão ao banco; os demais são lidos com um único
+ * SELECT ... WHERE id IN (...) por bloco e entram no cache, como em {@link ProdutoService#buscarPorId}.
+ * IDs que o índice de IDs sabe não existirem não entram na consulta.
+ */
+@Service
+public class ProdutoBuscaPorIdsService {
+
+    private final ProdutoRepository produtoRepository;
+    private final CacheManager cacheManager;
+    private final IndiceIdsProdutoService indiceIdsProdutoService;
+    private final int maximoIds;
+    private final int idsPorConsulta;
+
+    @Autowired
+    public ProdutoBuscaPorIdsService(ProdutoRepository produtoRepository,
+                                     CacheManager cacheManager,
+                                     IndiceIdsProdutoService indiceIdsProdutoService,
+                                     @Value("${produtos.busca-ids.maximo:1000}") int maximoIds,
+                                     @Value("${produtos.busca-ids.ids-por-consulta:500}") int idsPorConsulta) {
+        this.produtoRepository = produtoRepository;
+        this.cacheManager = cacheManager;
+        this.indiceIdsProdutoService = indiceIdsProdutoService;
+        this.maximoIds = maximoIds;
+        this.idsPorConsulta = idsPorConsulta;
+    }
+
+    /**
+     * Busca os produtos dos IDs informados.
+     * Os produtos são devolvidos na ordem dos IDs pedidos, uma vez por ID mesmo que ele se repita.
+     * Os produtos lidos do banco preenchem o cache, então a consulta usa o primário, e não a réplica
+     * (ver {@link ProdutoRepository#findAllById}); a transação só é aberta por ela.
+     * @throws IllegalArgumentException se a lista estiver vazia, tiver IDs nulos ou passar do máximo
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public ResultadoBuscaIdsDTO buscarPorIds(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("Informe ao menos um id");
+        }
+        if (ids.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("A lista de ids não pode conter valores nulos");
+        }
+        Set<Long> distintos = new LinkedHashSet<>(ids);
+        if (distintos.size() > maximoIds) {
+            throw new IllegalArgumentException("Informe no máximo " + maximoIds + " ids por busca");
+        }
+
+        // Primeiro o cache: só os IDs ausentes são buscados no banco
+        Cache cache = cacheManager.getCache(CacheConfig.CACHE_PRODUTOS);
+        Map<Long, ProdutoDTO> encontrados = new HashMap<>();
+        List<Long> ausentes = new ArrayList<>();
+        for (Long id : distintos) {
+            ProdutoDTO produto = cache == null ? null : cache.get(id, ProdutoDTO.class);
+            if (produto != null) {
+                encontrados.put(id, produto);
+            } else if (!indiceIdsProdutoService.certamenteAusente(id)) {
+                ausentes.add(id);
+            }
+        }
+
+        // Um IN por bloco, para não passar do limite de parâmetros do driver em listas muito grandes
+        for (int inicio = 0; inicio < ausentes.size(); inicio += idsPorConsulta) {
+            List<Long> bloco = ausentes.subList(inicio, Math.min(inicio + idsPorConsulta, ausentes.size()));
+            for (Produto produto : produtoRepository.findAllById(bloco)) {
+                ProdutoDTO dto = ProdutoService.toDTO(produto);
+                encontrados.put(dto.getId(), dto);
+                if (cache != null) {
+                    cache.put(dto.getId(), dto);
+                }
+            }
+        }
+
+        List<ProdutoDTO> produtos = new ArrayList<>(encontrados.size());
+        List<Long> naoEncontrados = new ArrayList<>();
+        for (Long id : distintos) {
+            ProdutoDTO produto = encontrados.get(id);
+            if (produto != null) {
+                produtos.add(produto);
+            } else {
+                naoEncontrados.add(id);
+            }
+        }
+        return new ResultadoBuscaIdsDTO(produtos, naoEncontrados);
+    }
+}
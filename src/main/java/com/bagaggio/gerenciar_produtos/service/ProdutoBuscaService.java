@@ -0,0 +1,380 @@
+package com.bagaggio.gerenciar_produtos.service;
+
+import com.bagaggio.gerenciar_produtos.dto.PaginaBuscaDTO;
+import com.bagaggio.gerenciar_produtos.dto.ProdutoDTO;
+import com.bagaggio.gerenciar_produtos.model.Produto;
+import com.bagaggio.gerenciar_produtos.repository.ProdutoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Serviço de busca textual de produtos por nome e descrição.
+ * Mantém em memória um índice invertido, construído na inicialização a partir do banco
+ * e atualizado pelos eventos de alteração de produto. Os resultados são ordenados por BM25,
+ * com peso dobrado para os termos do nome.
+ */
+@Slf4j
+@Service
+public class ProdutoBuscaService {
+
+    /**
+     * Profundidade máxima de paginação dos resultados ((pagina + 1) * limite)
+     */
+    static final int PROFUNDIDADE_MAXIMA = 10_000;
+
+    private final ProdutoService produtoService;
+    private final ProdutoRepository produtoRepository;
+
+    // Estado do índice, protegido pelo lock
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private IndiceInvertido indice = new IndiceInvertido();
+    private IndiceInvertido emReconstrucao;
+    private final Set<Long> alteradosDuranteReconstrucao = new HashSet<>();
+
+    @Autowired
+    public ProdutoBuscaService(ProdutoService produtoService, ProdutoRepository produtoRepository) {
+        this.produtoService = produtoService;
+        this.produtoRepository = produtoRepository;
+    }
+
+    /**
+     * Busca produtos cujo nome ou descrição contenham algum dos termos da consulta
+     * @param consulta texto livre; acentos, maiúsculas e plurais simples são ignorados
+     * @param pagina número da página, começando em zero
+     * @param limite quantidade de produtos por página
+     * @throws IllegalArgumentException se a página pedida ultrapassar a profundidade máxima
+     */
+    @Transactional(readOnly = true)
+    public PaginaBuscaDTO buscar(String consulta, int pagina, int limite) {
+        if (pagina < 0) {
+            throw new IllegalArgumentException("A página não pode ser negativa");
+        }
+        if ((long) (pagina + 1) * limite > PROFUNDIDADE_MAXIMA) {
+            throw new IllegalArgumentException("A busca permite paginar até os " + PROFUNDIDADE_MAXIMA + " primeiros resultados");
+        }
+
+        List<String> termos = new ArrayList<>(new LinkedHashSet<>(TokenizadorBusca.tokenizar(consulta)));
+        ResultadoIndice resultado;
+        lock.readLock().lock();
+        try {
+            resultado = indice.buscar(termos, pagina * limite, limite);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // Carrega os produtos da página em uma única consulta, preservando a ordem de relevância
+        Map<Long, Produto> produtos = produtoRepository.findAllById(resultado.ids()).stream()
+                .collect(Collectors.toMap(Produto::getId, Function.identity()));
+        List<ProdutoDTO> itens = resultado.ids().stream()
+                .map(produtos::get)
+                .filter(produto -> produto != null)
+                .map(ProdutoService::toDTO)
+                .toList();
+        return new PaginaBuscaDTO(resultado.total(), pagina, itens);
+    }
+
+    /**
+     * Mantém o índice atualizado após o commit de cada alteração de produto
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarProduto(ProdutoAlteradoEvent evento) {
+        List<String> termos = evento.produto() == null ? null : termosDe(evento.produto());
+        lock.writeLock().lock();
+        try {
+            aplicar(indice, evento.id(), termos);
+            if (emReconstrucao != null) {
+                aplicar(emReconstrucao, evento.id(), termos);
+                alteradosDuranteReconstrucao.add(evento.id());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reconstrói o índice a partir do banco, percorrendo o catálogo em streaming.
+     * As buscas continuam sendo atendidas pelo índice anterior até o novo ficar pronto;
+     * alterações ocorridas durante a reconstrução são aplicadas aos dois.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruirIndice() {
+        long inicio = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            emReconstrucao = new IndiceInvertido();
+            alteradosDuranteReconstrucao.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            produtoService.exportarTodos(produto -> {
+                List<String> termos = termosDe(produto);
+                lock.writeLock().lock();
+                try {
+                    // Produtos alterados durante a reconstrução já estão com a versão mais recente
+                    if (!alteradosDuranteReconstrucao.contains(produto.getId())) {
+                        emReconstrucao.indexar(produto.getId(), termos);
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            });
+
+            lock.writeLock().lock();
+            try {
+                indice = emReconstrucao;
+                log.info("Índice de busca reconstruído com {} produtos em {} ms", indice.docsAtivos, System.currentTimeMillis() - inicio);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (RuntimeException e) {
+            log.error("Falha ao reconstruir o índice de busca", e);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                emReconstrucao = null;
+                alteradosDuranteReconstrucao.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    // Métodos auxiliares
+    private static void aplicar(IndiceInvertido alvo, Long id, List<String> termos) {
+        if (termos == null) {
+            alvo.remover(id);
+        } else {
+            alvo.indexar(id, termos);
+        }
+        if (alvo.precisaCompactar()) {
+            alvo.compactar();
+        }
+    }
+
+    private static List<String> termosDe(ProdutoDTO produto) {
+        // O nome entra duas vezes para pesar mais que a descrição
+        List<String> termos = new ArrayList<>(TokenizadorBusca.tokenizar(produto.getNome()));
+        termos.addAll(termos);
+        termos.addAll(TokenizadorBusca.tokenizar(produto.getDescricao()));
+        return termos;
+    }
+
+    /**
+     * IDs de produtos de uma página de resultados e total de documentos encontrados
+     */
+    record ResultadoIndice(List<Long> ids, int total) {
+    }
+
+    /**
+     * Índice invertido de termos para documentos, sem sincronização própria.
+     * Cada produto indexado recebe um número de documento sequencial; atualizações
+     * marcam o documento anterior como removido e indexam um novo. Quando os removidos
+     * passam de um quarto do total, o índice é compactado.
+     */
+    static final class IndiceInvertido {
+
+        private static final double K1 = 1.2;
+        private static final double B = 0.75;
+
+        private final Map<String, Postagens> postagens = new HashMap<>();
+        private final Map<Long, Integer> docPorProduto = new HashMap<>();
+        private final BitSet removidos = new BitSet();
+        private long[] produtoPorDoc = new long[1024];
+        private int[] tamanhoPorDoc = new int[1024];
+        private int totalDocs;
+        private int docsRemovidos;
+        private int docsAtivos;
+        private long somaTamanhos;
+
+        void indexar(long produtoId, List<String> termos) {
+            remover(produtoId);
+            int doc = totalDocs++;
+            if (doc == produtoPorDoc.length) {
+                produtoPorDoc = Arrays.copyOf(produtoPorDoc, doc * 2);
+                tamanhoPorDoc = Arrays.copyOf(tamanhoPorDoc, doc * 2);
+            }
+            produtoPorDoc[doc] = produtoId;
+            tamanhoPorDoc[doc] = termos.size();
+            docPorProduto.put(produtoId, doc);
+            docsAtivos++;
+            somaTamanhos += termos.size();
+
+            Map<String, Integer> frequencias = new HashMap<>();
+            termos.forEach(termo -> frequencias.merge(termo, 1, Integer::sum));
+            frequencias.forEach((termo, frequencia) ->
+                    postagens.computeIfAbsent(termo, t -> new Postagens()).adicionar(doc, frequencia));
+        }
+
+        void remover(long produtoId) {
+            Integer doc = docPorProduto.remove(produtoId);
+            if (doc != null) {
+                removidos.set(doc);
+                docsRemovidos++;
+                docsAtivos--;
+                somaTamanhos -= tamanhoPorDoc[doc];
+            }
+        }
+
+        boolean precisaCompactar() {
+            return docsRemovidos > 1024 && docsRemovidos > totalDocs / 4;
+        }
+
+        /**
+         * Renumera os documentos ativos e descarta das listas de postagens os removidos
+         */
+        void compactar() {
+            int[] novoDoc = new int[totalDocs];
+            int proximo = 0;
+            for (int doc = 0; doc < totalDocs; doc++) {
+                if (removidos.get(doc)) {
+                    novoDoc[doc] = -1;
+                    continue;
+                }
+                novoDoc[doc] = proximo;
+                produtoPorDoc[proximo] = produtoPorDoc[doc];
+                tamanhoPorDoc[proximo] = tamanhoPorDoc[doc];
+                docPorProduto.put(produtoPorDoc[proximo], proximo);
+                proximo++;
+            }
+            postagens.values().removeIf(lista -> lista.remapear(novoDoc) == 0);
+            removidos.clear();
+            totalDocs = proximo;
+            docsRemovidos = 0;
+        }
+
+        /**
+         * Percorre as listas de postagens dos termos em paralelo (documento a documento),
+         * pontuando cada documento com BM25 e mantendo apenas os melhores em um heap.
+         * O número de documentos de cada termo inclui removidos ainda não compactados,
+         * o que torna o IDF aproximado entre compactações.
+         */
+        ResultadoIndice buscar(List<String> termos, int inicio, int quantidade) {
+            List<Postagens> listas = new ArrayList<>();
+            for (String termo : termos) {
+                Postagens lista = postagens.get(termo);
+                if (lista != null) {
+                    listas.add(lista);
+                }
+            }
+            if (listas.isEmpty() || docsAtivos == 0) {
+                return new ResultadoIndice(List.of(), 0);
+            }
+
+            double tamanhoMedio = (double) somaTamanhos / docsAtivos;
+            double[] idf = new double[listas.size()];
+            for (int t = 0; t < listas.size(); t++) {
+                int df = listas.get(t).tamanho;
+                idf[t] = Math.log(1 + (docsAtivos - df + 0.5) / (df + 0.5));
+            }
+
+            int melhores = inicio + quantidade;
+            Comparator<Candidato> ordem = Comparator.comparingDouble(Candidato::pontuacao)
+                    .thenComparing(Comparator.comparingInt(Candidato::doc).reversed());
+            PriorityQueue<Candidato> heap = new PriorityQueue<>(melhores + 1, ordem);
+            int[] posicoes = new int[listas.size()];
+            int total = 0;
+
+            while (true) {
+                int doc = Integer.MAX_VALUE;
+                for (int t = 0; t < listas.size(); t++) {
+                    Postagens lista = listas.get(t);
+                    if (posicoes[t] < lista.tamanho) {
+                        doc = Math.min(doc, lista.docs[posicoes[t]]);
+                    }
+                }
+                if (doc == Integer.MAX_VALUE) {
+                    break;
+                }
+
+                double pontuacao = 0;
+                double normalizacao = K1 * (1 - B + B * tamanhoPorDoc[doc] / tamanhoMedio);
+                for (int t = 0; t < listas.size(); t++) {
+                    Postagens lista = listas.get(t);
+                    if (posicoes[t] < lista.tamanho && lista.docs[posicoes[t]] == doc) {
+                        int tf = lista.frequencias[posicoes[t]];
+                        pontuacao += idf[t] * tf * (K1 + 1) / (tf + normalizacao);
+                        posicoes[t]++;
+                    }
+                }
+                if (removidos.get(doc)) {
+                    continue;
+                }
+
+                total++;
+                Candidato candidato = new Candidato(doc, pontuacao);
+                if (heap.size() < melhores) {
+                    heap.add(candidato);
+                } else if (ordem.compare(candidato, heap.peek()) > 0) {
+                    heap.poll();
+                    heap.add(candidato);
+                }
+            }
+
+            List<Candidato> ordenados = new ArrayList<>(heap);
+            ordenados.sort(ordem.reversed());
+            List<Long> ids = ordenados.stream()
+                    .skip(inicio)
+                    .map(candidato -> produtoPorDoc[candidato.doc()])
+                    .toList();
+            return new ResultadoIndice(ids, total);
+        }
+
+        private record Candidato(int doc, double pontuacao) {
+        }
+    }
+
+    /**
+     * Lista de postagens de um termo: documentos em ordem crescente e a frequência do termo em cada um
+     */
+    static final class Postagens {
+        private int[] docs = new int[4];
+        private int[] frequencias = new int[4];
+        private int tamanho;
+
+        void adicionar(int doc, int frequencia) {
+            if (tamanho == docs.length) {
+                docs = Arrays.copyOf(docs, tamanho * 2);
+                frequencias = Arrays.copyOf(frequencias, tamanho * 2);
+            }
+            docs[tamanho] = doc;
+            frequencias[tamanho] = frequencia;
+            tamanho++;
+        }
+
+        int remapear(int[] novoDoc) {
+            int destino = 0;
+            for (int i = 0; i < tamanho; i++) {
+                int doc = novoDoc[docs[i]];
+                if (doc >= 0) {
+                    docs[destino] = doc;
+                    frequencias[destino] = frequencias[i];
+                    destino++;
+                }
+            }
+            tamanho = destino;
+            return tamanho;
+        }
+    }
+}
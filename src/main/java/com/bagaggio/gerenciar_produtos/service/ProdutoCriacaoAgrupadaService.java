@@ -0,0 +1,260 @@
+package com.bagaggio.gerenciar_produtos.service;
+
+import com.bagaggio.gerenciar_produtos.config.CacheConfig;
+import com.bagaggio.gerenciar_produtos.dto.ProdutoDTO;
+import com.bagaggio.gerenciar_produtos.model.Produto;
+import com.bagaggio.gerenciar_produtos.repository.ProdutoLoteRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Serviço de criação de produtos individuais com gravação agrupada (group commit) opcional.
+ *
+ * <p>Com o modo desabilitado (padrão), cada criação é uma transação com um INSERT, como em
+ * {@link ProdutoService#criarProduto}. Habilitado ({@code produtos.criacao.agrupada.habilitado=true}),
+ * as criações simultâneas entram em uma fila e uma única thread as grava em grupos: o grupo fecha
+ * ao atingir o tamanho máximo ou ao fim de uma janela curta desde o primeiro pedido, e é inserido
+ * com um batch JDBC (um INSERT de múltiplas linhas no MySQL) em uma única transação.</p>
+ *
+ * <p>Cada chamada continua recebendo o seu próprio produto, com o ID gerado, ou o seu próprio erro:
+ * se o grupo falhar, cada metade é regravada em separado até isolar o que falhou. O custo é a
+ * latência da janela em cada criação, compensada pela economia de commits sob concorrência.</p>
+ *
+ * <p>A espera por um pedido é limitada pelo timeout das transações de escrita (a janela mais três
+ * transações: a do grupo anterior, a do grupo do pedido e uma regravação). Se a thread gravadora
+ * parar por um erro inesperado, os pedidos na fila recebem o erro e as criações seguintes passam a
+ * ser gravadas uma a uma, como no modo desabilitado.</p>
+ */
+@Slf4j
+@Service
+public class ProdutoCriacaoAgrupadaService {
+
+    private final ProdutoService produtoService;
+    private final ProdutoLoteRepository produtoLoteRepository;
+    private final CacheManager cacheManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean habilitado;
+    private final long janelaNanos;
+    private final int tamanhoMaximo;
+    private final BlockingQueue<Pedido> fila;
+    private final Duration prazoEspera;
+
+    private volatile boolean ativo;
+    private Thread gravador;
+
+    @Autowired
+    public ProdutoCriacaoAgrupadaService(ProdutoService produtoService,
+                                         ProdutoLoteRepository produtoLoteRepository,
+                                         CacheManager cacheManager,
+                                         ApplicationEventPublisher eventPublisher,
+                                         PlatformTransactionManager transactionManager,
+                                         @Value(ProdutoService.TIMEOUT_ESCRITA) int timeoutEscrita,
+                                         @Value("${produtos.criacao.agrupada.habilitado:false}") boolean habilitado,
+                                         @Value("${produtos.criacao.agrupada.janela-ms:2}") long janelaMs,
+                                         @Value("${produtos.criacao.agrupada.tamanho-maximo:100}") int tamanhoMaximo,
+                                         @Value("${produtos.criacao.agrupada.capacidade-fila:10000}") int capacidadeFila) {
+        this.produtoService = produtoService;
+        this.produtoLoteRepository = produtoLoteRepository;
+        this.cacheManager = cacheManager;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setTimeout(timeoutEscrita);
+        this.habilitado = habilitado;
+        this.janelaNanos = TimeUnit.MILLISECONDS.toNanos(janelaMs);
+        this.tamanhoMaximo = tamanhoMaximo;
+        this.fila = new ArrayBlockingQueue<>(capacidadeFila);
+        // Sem timeout de escrita (valor não positivo), a espera também não tem limite
+        this.prazoEspera = timeoutEscrita > 0
+                ? Duration.ofSeconds(3L * timeoutEscrita).plusMillis(janelaMs)
+                : null;
+    }
+
+    /**
+     * Cria um produto, aguardando a gravação do grupo em que ele entrar.
+     * Com o modo desabilitado ou a fila cheia, grava o produto na hora, na própria transação.
+     * O produto criado já entra no cache de produtos.
+     * @throws TransactionTimedOutException se o grupo não for gravado dentro do prazo de espera
+     */
+    public ProdutoDTO criar(ProdutoDTO produtoDTO) {
+        if (!ativo) {
+            return produtoService.criarProduto(produtoDTO);
+        }
+        Pedido pedido = new Pedido(ProdutoService.toEntity(produtoDTO), new CompletableFuture<>());
+        // Fila cheia, ou encerramento iniciado depois da verificação acima e antes de a fila ser drenada
+        if (!fila.offer(pedido) || (!ativo && fila.remove(pedido))) {
+            return produtoService.criarProduto(produtoDTO);
+        }
+        return aguardar(pedido);
+    }
+
+    /**
+     * Indica se as criações estão entrando na fila da thread gravadora
+     */
+    public boolean agrupando() {
+        return ativo;
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        if (habilitado) {
+            ativo = true;
+            gravador = Thread.ofPlatform().name("produtos-criacao-agrupada").daemon().start(this::processar);
+        }
+    }
+
+    /**
+     * Para de aceitar pedidos e grava os que ainda estão na fila antes de o contexto
+     * (e o pool de conexões) ser encerrado
+     */
+    @PreDestroy
+    public void encerrar() throws InterruptedException {
+        if (gravador == null) {
+            return;
+        }
+        ativo = false;
+        gravador.join(TimeUnit.SECONDS.toMillis(10));
+        List<Pedido> restantes = new ArrayList<>();
+        fila.drainTo(restantes);
+        gravar(restantes);
+    }
+
+    private ProdutoDTO aguardar(Pedido pedido) {
+        if (prazoEspera == null) {
+            return CoalescedorCarregamentos.aguardar(pedido.resultado());
+        }
+        try {
+            // A cópia expira sozinha, sem completar o future que a thread gravadora vai completar
+            return CoalescedorCarregamentos.aguardar(
+                    pedido.resultado().copy().orTimeout(prazoEspera.toMillis(), TimeUnit.MILLISECONDS));
+        } catch (CompletionException e) {
+            if (!(e.getCause() instanceof TimeoutException)) {
+                throw e;
+            }
+            // Ainda na fila, o pedido é descartado; já em gravação, o produto ainda pode ser criado
+            boolean descartado = fila.remove(pedido);
+            throw new TransactionTimedOutException("Criação agrupada não concluída em " + prazoEspera.toMillis()
+                    + " ms" + (descartado ? "; o produto não foi gravado" : ""));
+        }
+    }
+
+    // Thread gravadora
+    private void processar() {
+        List<Pedido> grupo = new ArrayList<>(tamanhoMaximo);
+        try {
+            gravarGrupos(grupo);
+        } finally {
+            // Parada sem encerrar(): as criações seguintes são gravadas na hora e as da fila recebem o erro
+            if (ativo) {
+                ativo = false;
+                log.error("A thread da gravação agrupada parou; as criações passam a ser gravadas uma a uma");
+                List<Pedido> restantes = new ArrayList<>();
+                fila.drainTo(restantes);
+                IllegalStateException erro = new IllegalStateException("A gravação agrupada foi interrompida");
+                restantes.forEach(pedido -> pedido.resultado().completeExceptionally(erro));
+            }
+        }
+    }
+
+    // Laço da thread gravadora: monta um grupo por vez e o grava
+    private void gravarGrupos(List<Pedido> grupo) {
+        while (ativo) {
+            try {
+                Pedido primeiro = fila.poll(100, TimeUnit.MILLISECONDS);
+                if (primeiro == null) {
+                    continue;
+                }
+                grupo.add(primeiro);
+                long prazo = System.nanoTime() + janelaNanos;
+                while (grupo.size() < tamanhoMaximo) {
+                    Pedido proximo = fila.poll(Math.max(0, prazo - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    if (proximo == null) {
+                        break;
+                    }
+                    grupo.add(proximo);
+                }
+                gravar(grupo);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                gravar(grupo);
+                return;
+            } catch (Throwable e) {
+                log.error("Falha inesperada na gravação agrupada de {} produto(s)", grupo.size(), e);
+                grupo.forEach(pedido -> pedido.resultado().completeExceptionally(e));
+                if (e instanceof Error erro) {
+                    throw erro;
+                }
+            } finally {
+                grupo.clear();
+            }
+        }
+    }
+
+    private void gravar(List<Pedido> grupo) {
+        if (grupo.isEmpty()) {
+            return;
+        }
+        try {
+            List<ProdutoDTO> criados = transactionTemplate.execute(status -> inserir(grupo));
+            Cache cache = cacheManager.getCache(CacheConfig.CACHE_PRODUTOS);
+            for (int i = 0; i < grupo.size(); i++) {
+                if (cache != null) {
+                    cache.put(criados.get(i).getId(), criados.get(i));
+                }
+                grupo.get(i).resultado().complete(criados.get(i));
+            }
+        } catch (RuntimeException e) {
+            if (grupo.size() == 1) {
+                grupo.getFirst().resultado().completeExceptionally(e);
+                return;
+            }
+            // Regrava cada metade em separado até isolar os pedidos com problema, que recebem o erro
+            log.warn("Falha ao gravar o grupo de {} produto(s); regravando em metades", grupo.size(), e);
+            int meio = grupo.size() / 2;
+            gravar(grupo.subList(0, meio));
+            gravar(grupo.subList(meio, grupo.size()));
+        } catch (Error e) {
+            grupo.forEach(pedido -> pedido.resultado().completeExceptionally(e));
+            throw e;
+        }
+    }
+
+    private List<ProdutoDTO> inserir(List<Pedido> grupo) {
+        List<Produto> produtos = grupo.stream().map(Pedido::produto).toList();
+        List<Long> ids = produtoLoteRepository.inserir(produtos);
+        List<ProdutoDTO> criados = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            produtos.get(i).setId(ids.get(i));
+            ProdutoDTO criado = ProdutoService.toDTO(produtos.get(i));
+            eventPublisher.publishEvent(ProdutoAlteradoEvent.criado(criado));
+            criados.add(criado);
+        }
+        return criados;
+    }
+
+    /**
+     * Criação aguardando a gravação do seu grupo
+     */
+    private record Pedido(Produto produto, CompletableFuture<ProdutoDTO> resultado) {
+    }
+}
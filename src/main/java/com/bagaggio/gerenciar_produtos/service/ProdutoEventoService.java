@@ -0,0 +1,363 @@
+package com.bagaggio.gerenciar_produtos.service;
+
+import com.bagaggio.gerenciar_produtos.dto.EventoProdutoDTO;
+import com.bagaggio.gerenciar_produtos.repository.ProdutoEventoRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Serviço do fluxo de mudanças de produtos (change data capture).
+ *
+ * <p>Cada alteração de produto é gravada na tabela de eventos (transactional outbox) na mesma
+ * transação da alteração: os eventos de uma transação são acumulados e inseridos em um único
+ * batch JDBC imediatamente antes do commit, de forma que um rollback também descarta os eventos.</p>
+ *
+ * <p>Os consumidores acompanham o fluxo por Server-Sent Events a partir de uma sequência.
+ * Uma única tarefa agendada lê os eventos novos (a "cabeça" do fluxo) e os copia para a fila de cada
+ * assinante em dia, então o custo no banco é de uma consulta por intervalo para todos eles.
+ * Um assinante atrasado (ex.: {@code since=0}) lê suas próprias páginas do banco a partir da sua
+ * sequência até alcançar a cabeça, sem atrasar os demais. Os envios rodam fora da tarefa agendada,
+ * em uma virtual thread por assinante, e a fila de cada um é limitada: quem não consome no ritmo
+ * do fluxo é desconectado e retoma pelo {@code Last-Event-ID} a partir do banco.
+ * Como a sequência é atribuída no INSERT e não no commit, uma sequência maior pode ficar visível antes
+ * de uma menor cujo commit demorou (espera por lock, fsync, pausa de GC). Por isso só são enviados eventos
+ * registrados há mais que o timeout das transações de escrita ({@link ProdutoService#TIMEOUT_ESCRITA})
+ * mais um atraso para o commit, como na sincronização incremental: a cabeça nunca passa de um evento
+ * que ainda pode aparecer.</p>
+ */
+@Slf4j
+@Service
+public class ProdutoEventoService {
+
+    private final ProdutoEventoRepository produtoEventoRepository;
+    private final ObjectMapper objectMapper;
+    private final Duration janela;
+    private final int tamanhoLote;
+    private final int capacidadeFila;
+    private final long timeoutMs;
+    private final Duration retencao;
+
+    private final List<Assinante> assinantes = new CopyOnWriteArrayList<>();
+    private final ExecutorService envios = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("produtos-eventos-", 0).factory());
+
+    /**
+     * Protege a cabeça do fluxo e a entrada dos assinantes na distribuição da tarefa agendada
+     */
+    private final Object distribuicao = new Object();
+
+    /**
+     * Sequência do último evento distribuído, ou -1 antes de o primeiro assinante alcançar o fluxo
+     */
+    private long cabeca = -1;
+
+    @Autowired
+    public ProdutoEventoService(ProdutoEventoRepository produtoEventoRepository,
+                                ObjectMapper objectMapper,
+                                @Value(ProdutoService.TIMEOUT_ESCRITA) int timeoutEscrita,
+                                @Value("${produtos.eventos.atraso-ms:1000}") long atrasoMs,
+                                @Value("${produtos.eventos.tamanho-lote:500}") int tamanhoLote,
+                                @Value("${produtos.eventos.fila-assinante:2000}") int capacidadeFila,
+                                @Value("${produtos.eventos.timeout-ms:1800000}") long timeoutMs,
+                                @Value("${produtos.eventos.retencao-horas:168}") long retencaoHoras) {
+        this.produtoEventoRepository = produtoEventoRepository;
+        this.objectMapper = objectMapper;
+        this.janela = Duration.ofSeconds(Math.max(timeoutEscrita, 0)).plusMillis(atrasoMs);
+        this.tamanhoLote = tamanhoLote;
+        // A fila precisa comportar ao menos um lote inteiro da tarefa agendada
+        this.capacidadeFila = Math.max(capacidadeFila, tamanhoLote);
+        this.timeoutMs = timeoutMs;
+        this.retencao = Duration.ofHours(retencaoHoras);
+    }
+
+    /**
+     * Registra a criação, atualização ou remoção de um produto na transação corrente
+     */
+    @EventListener
+    public void aoAlterarProduto(ProdutoAlteradoEvent evento) {
+        String produto = evento.produto() == null ? null : json(evento);
+        registrar(new Pendente(evento.tipo().name(), evento.id(), produto, null));
+    }
+
+    /**
+     * Registra uma variação de estoque na transação corrente
+     */
+    @EventListener
+    public void aoAjustarEstoque(EstoqueAjustadoEvent evento) {
+        registrar(new Pendente("ESTOQUE_AJUSTADO", evento.id(), null, evento.delta()));
+    }
+
+    /**
+     * Assina o fluxo de mudanças a partir da sequência informada.
+     * Os eventos já registrados são lidos do banco pelo próprio assinante; ao alcançar a cabeça do fluxo,
+     * ele passa a receber os eventos novos da tarefa agendada.
+     * @param desde última sequência já recebida pelo consumidor, ou null para receber só as próximas mudanças
+     */
+    public SseEmitter assinar(Long desde) {
+        long cursor = desde == null ? produtoEventoRepository.ultimaSequencia() : desde;
+        SseEmitter emissor = new SseEmitter(timeoutMs);
+        Assinante assinante = new Assinante(emissor, cursor, capacidadeFila);
+        emissor.onCompletion(() -> remover(assinante));
+        emissor.onTimeout(() -> remover(assinante));
+        emissor.onError(erro -> remover(assinante));
+        assinantes.add(assinante);
+        agendar(assinante);
+        return emissor;
+    }
+
+    /**
+     * Lê os eventos novos uma única vez e os coloca na fila de cada assinante em dia com o fluxo
+     */
+    @Scheduled(fixedDelayString = "${produtos.eventos.intervalo-ms:500}")
+    public void enviarNovos() {
+        long desde;
+        synchronized (distribuicao) {
+            if (cabeca < 0 || assinantes.stream().noneMatch(Assinante::isEmDia)) {
+                return;
+            }
+            desde = cabeca;
+        }
+        Instant registradoAte = Instant.now().minus(janela);
+        List<EventoProdutoDTO> eventos;
+        do {
+            eventos = produtoEventoRepository.buscarApos(desde, registradoAte, tamanhoLote);
+            if (eventos.isEmpty()) {
+                return;
+            }
+            desde = eventos.getLast().getSequencia();
+            distribuir(eventos);
+        } while (eventos.size() == tamanhoLote);
+    }
+
+    /**
+     * Remove os eventos mais antigos que o período de retenção
+     */
+    @Scheduled(fixedDelayString = "${produtos.eventos.limpeza-ms:3600000}")
+    public void removerAntigos() {
+        int removidos = produtoEventoRepository.removerAnterioresA(Instant.now().minus(retencao));
+        if (removidos > 0) {
+            log.info("Removidos {} eventos de produto anteriores ao período de retenção", removidos);
+        }
+    }
+
+    /**
+     * Encerra os envios em andamento antes de o contexto ser fechado
+     */
+    @PreDestroy
+    public void encerrar() {
+        envios.shutdownNow();
+    }
+
+    // Métodos auxiliares de distribuição
+    private void distribuir(List<EventoProdutoDTO> eventos) {
+        List<Assinante> atrasados = new ArrayList<>();
+        synchronized (distribuicao) {
+            cabeca = Math.max(cabeca, eventos.getLast().getSequencia());
+            for (Assinante assinante : assinantes) {
+                if (assinante.isEmDia() && !assinante.enfileirar(eventos)) {
+                    atrasados.add(assinante);
+                }
+            }
+        }
+        atrasados.forEach(this::desconectar);
+        assinantes.stream().filter(Assinante::isEmDia).forEach(this::agendar);
+    }
+
+    /**
+     * Agenda o envio para o assinante, se ainda não houver um em andamento
+     */
+    private void agendar(Assinante assinante) {
+        if (assinante.agendado.compareAndSet(false, true)) {
+            envios.execute(() -> enviar(assinante));
+        }
+    }
+
+    /**
+     * Envia ao assinante os eventos pendentes: do banco, até alcançar a cabeça do fluxo, e depois da fila
+     */
+    private void enviar(Assinante assinante) {
+        try {
+            while (!assinante.encerrado) {
+                if (!assinante.isEmDia()) {
+                    recuperar(assinante);
+                    continue;
+                }
+                EventoProdutoDTO evento = assinante.fila.poll();
+                if (evento == null) {
+                    break;
+                }
+                assinante.enviar(evento);
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Consumidor desconectado: volta a assinar com o último id recebido
+            remover(assinante);
+            log.debug("Assinante do fluxo de mudanças desconectado na sequência {}", assinante.getCursor());
+        } finally {
+            assinante.agendado.set(false);
+        }
+        // Eventos enfileirados depois da última leitura da fila e antes da liberação acima
+        if (assinante.isEmDia() && !assinante.encerrado && !assinante.fila.isEmpty()) {
+            agendar(assinante);
+        }
+    }
+
+    /**
+     * Envia uma página de eventos lida do banco a partir da sequência do assinante.
+     * Uma página incompleta indica que o assinante alcançou o fluxo: se nenhum evento distribuído ficou
+     * para trás, ele passa a receber os próximos pela fila.
+     */
+    private void recuperar(Assinante assinante) throws IOException {
+        List<EventoProdutoDTO> eventos = produtoEventoRepository.buscarApos(assinante.getCursor(),
+                Instant.now().minus(janela), tamanhoLote);
+        for (EventoProdutoDTO evento : eventos) {
+            assinante.enviar(evento);
+        }
+        if (eventos.size() < tamanhoLote) {
+            synchronized (distribuicao) {
+                // Sem outros assinantes em dia, a cabeça parada pode avançar até o assinante
+                if (assinantes.stream().noneMatch(Assinante::isEmDia)) {
+                    cabeca = Math.max(cabeca, assinante.getCursor());
+                }
+                if (assinante.getCursor() >= cabeca) {
+                    assinante.emDia = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Desconecta um assinante cuja fila encheu; o consumidor retoma pelo Last-Event-ID, lendo do banco
+     */
+    private void desconectar(Assinante assinante) {
+        remover(assinante);
+        log.info("Assinante do fluxo de mudanças desconectado por não acompanhar o ritmo, na sequência {}", assinante.getCursor());
+        // Fora da tarefa agendada: completar espera um envio em andamento para um cliente lento
+        envios.execute(assinante.emissor::complete);
+    }
+
+    private void remover(Assinante assinante) {
+        assinantes.remove(assinante);
+        assinante.encerrado = true;
+        assinante.fila.clear();
+    }
+
+    // Métodos auxiliares do outbox
+    private void registrar(Pendente pendente) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            produtoEventoRepository.inserir(List.of(pendente.toDTO(Instant.now())));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<Pendente> pendentes = (List<Pendente>) TransactionSynchronizationManager.getResource(this);
+        if (pendentes == null) {
+            List<Pendente> daTransacao = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, daTransacao);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    Instant agora = Instant.now();
+                    produtoEventoRepository.inserir(daTransacao.stream().map(evento -> evento.toDTO(agora)).toList());
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ProdutoEventoService.this);
+                }
+            });
+            pendentes = daTransacao;
+        }
+        pendentes.add(pendente);
+    }
+
+    private String json(ProdutoAlteradoEvent evento) {
+        try {
+            return objectMapper.writeValueAsString(evento.produto());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar o produto com id: " + evento.id(), e);
+        }
+    }
+
+    /**
+     * Evento ainda não gravado, acumulado até o commit da transação
+     */
+    private record Pendente(String tipo, Long produtoId, String produto, Long delta) {
+
+        EventoProdutoDTO toDTO(Instant registradoEm) {
+            return new EventoProdutoDTO(null, tipo, produtoId, produto, delta, registradoEm);
+        }
+    }
+
+    /**
+     * Consumidor conectado ao fluxo, a sequência do último evento enviado a ele
+     * e a fila dos eventos distribuídos e ainda não enviados
+     */
+    private static final class Assinante {
+
+        private final SseEmitter emissor;
+        private final BlockingQueue<EventoProdutoDTO> fila;
+        private final AtomicBoolean agendado = new AtomicBoolean();
+        private volatile long cursor;
+        private volatile boolean emDia;
+        private volatile boolean encerrado;
+
+        Assinante(SseEmitter emissor, long cursor, int capacidadeFila) {
+            this.emissor = emissor;
+            this.cursor = cursor;
+            this.fila = new ArrayBlockingQueue<>(capacidadeFila);
+        }
+
+        long getCursor() {
+            return cursor;
+        }
+
+        boolean isEmDia() {
+            return emDia && !encerrado;
+        }
+
+        /**
+         * Coloca os eventos na fila, se couberem todos
+         * @return false se a fila não comportar os eventos
+         */
+        boolean enfileirar(List<EventoProdutoDTO> eventos) {
+            // Só a thread de envio retira da fila: a capacidade livre não diminui entre a verificação e a inserção
+            if (fila.remainingCapacity() < eventos.size()) {
+                return false;
+            }
+            fila.addAll(eventos);
+            return true;
+        }
+
+        void enviar(EventoProdutoDTO evento) throws IOException {
+            // Eventos já recebidos pela leitura do banco podem chegar de novo pela fila
+            if (evento.getSequencia() > cursor) {
+                emissor.send(SseEmitter.event()
+                        .id(String.valueOf(evento.getSequencia()))
+                        .data(evento, MediaType.APPLICATION_JSON));
+                cursor = evento.getSequencia();
+            }
+        }
+    }
+}
@@ -0,0 +1,382 @@
+package com.bagaggio.gerenciar_produtos.service;
+
+import com.bagaggio.gerenciar_produtos.dto.ErroImportacaoDTO;
+import com.bagaggio.gerenciar_produtos.dto.ImportacaoDTO;
+import com.bagaggio.gerenciar_produtos.dto.ProdutoDTO;
+import com.bagaggio.gerenciar_produtos.model.Produto;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Serviço de importação de catálogos de produtos em CSV.
+ *
+ * <p>O arquivo recebido é gravado em disco e processado em segundo plano: é dividido em fatias de
+ * tamanho fixo, cada uma mapeada em memória e lida em paralelo pelo {@link LeitorCsvProdutos}.
+ * Uma fatia começa na primeira linha completa após o seu início e termina na linha que atravessa o seu fim.
+ * Cada linha é validada com as regras do {@link ProdutoDTO}, e as válidas são inseridas em blocos
+ * com batch JDBC, cada bloco em sua própria transação, como na criação em lote.</p>
+ *
+ * <p>As importações ficam registradas em memória, com o andamento, a vazão e as linhas com erro, até
+ * o fim do período de retenção. Não sobrevivem a um reinício da aplicação: os blocos já inseridos
+ * de uma importação interrompida são mantidos, e o restante do arquivo deve ser enviado de novo.</p>
+ */
+@Slf4j
+@Service
+public class ProdutoImportacaoService {
+
+    private final ProdutoLoteService produtoLoteService;
+    private final Path diretorio;
+    private final long tamanhoMaximoArquivo;
+    private final long tamanhoFatia;
+    private final int tamanhoMaximoLinha;
+    private final int tamanhoBloco;
+    private final int maximoErros;
+    private final Duration retencao;
+    private final ExecutorService executor;
+
+    private final Map<String, Importacao> importacoes = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ProdutoImportacaoService(ProdutoLoteService produtoLoteService,
+                                    @Value("${produtos.importacao.diretorio:${java.io.tmpdir}/produtos-importacao}") String diretorio,
+                                    @Value("${produtos.importacao.tamanho-maximo-arquivo:10GB}") DataSize tamanhoMaximoArquivo,
+                                    @Value("${produtos.importacao.paralelismo:4}") int paralelismo,
+                                    @Value("${produtos.importacao.tamanho-fatia:32MB}") DataSize tamanhoFatia,
+                                    @Value("${produtos.importacao.tamanho-maximo-linha:64KB}") DataSize tamanhoMaximoLinha,
+                                    @Value("${produtos.lote.tamanho-bloco:500}") int tamanhoBloco,
+                                    @Value("${produtos.importacao.maximo-erros:1000}") int maximoErros,
+                                    @Value("${produtos.importacao.retencao-horas:24}") long retencaoHoras) {
+        // Cada fatia, com a linha que atravessa o seu fim, é mapeada em um único MappedByteBuffer
+        if (tamanhoFatia.toBytes() + tamanhoMaximoLinha.toBytes() >= Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("A fatia e o tamanho máximo de linha da importação devem somar menos de 2 GB");
+        }
+        this.produtoLoteService = produtoLoteService;
+        this.diretorio = Path.of(diretorio);
+        this.tamanhoMaximoArquivo = tamanhoMaximoArquivo.toBytes();
+        this.tamanhoFatia = tamanhoFatia.toBytes();
+        this.tamanhoMaximoLinha = (int) tamanhoMaximoLinha.toBytes();
+        this.tamanhoBloco = tamanhoBloco;
+        this.maximoErros = maximoErros;
+        this.retencao = Duration.ofHours(retencaoHoras);
+        this.executor = Executors.newFixedThreadPool(paralelismo,
+                Thread.ofPlatform().name("produtos-importacao-", 0).daemon().factory());
+    }
+
+    /**
+     * Grava o conteúdo recebido no arquivo da importação
+     */
+    @FunctionalInterface
+    public interface GravadorArquivo {
+        void gravarEm(Path destino) throws IOException;
+    }
+
+    /**
+     * Grava o arquivo em disco, valida o cabeçalho e inicia a importação em segundo plano
+     * @return o andamento inicial da importação
+     * @throws IllegalArgumentException se o arquivo estiver vazio ou o cabeçalho for inválido
+     */
+    public ImportacaoDTO importar(GravadorArquivo gravador) throws IOException {
+        Files.createDirectories(diretorio);
+        Path arquivo = Files.createTempFile(diretorio, "importacao-", ".csv");
+        try {
+            gravador.gravarEm(arquivo);
+            return iniciar(arquivo).toDTO();
+        } catch (IOException | RuntimeException e) {
+            apagar(arquivo);
+            throw e;
+        }
+    }
+
+    /**
+     * Grava o conteúdo de um fluxo (ex.: corpo text/csv) e inicia a importação, como {@link #importar(GravadorArquivo)}
+     * @throws MaxUploadSizeExceededException se o conteúdo passar do tamanho máximo do arquivo
+     */
+    public ImportacaoDTO importar(InputStream conteudo) throws IOException {
+        return importar(destino -> copiar(conteudo, destino));
+    }
+
+    /**
+     * Busca o andamento de uma importação
+     */
+    public Optional<ImportacaoDTO> buscar(String id) {
+        return Optional.ofNullable(importacoes.get(id)).map(Importacao::toDTO);
+    }
+
+    /**
+     * Remove do registro as importações terminadas há mais que o período de retenção
+     */
+    @Scheduled(fixedDelayString = "${produtos.importacao.limpeza-ms:3600000}")
+    public void removerAntigas() {
+        Instant limite = Instant.now().minus(retencao);
+        importacoes.values().removeIf(importacao -> importacao.concluidoEm != null && importacao.concluidoEm.isBefore(limite));
+    }
+
+    /**
+     * Interrompe as importações em andamento antes de o pool de conexões ser encerrado
+     */
+    @PreDestroy
+    public void encerrar() throws InterruptedException {
+        importacoes.values().forEach(importacao -> importacao.falhar("Importação interrompida pelo encerramento da aplicação"));
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        importacoes.values().stream()
+                .filter(importacao -> importacao.concluidoEm == null)
+                .forEach(importacao -> apagar(importacao.arquivo));
+    }
+
+    // Métodos auxiliares
+    private Importacao iniciar(Path arquivo) throws IOException {
+        long tamanho = Files.size(arquivo);
+        if (tamanho == 0) {
+            throw new IllegalArgumentException("O arquivo CSV está vazio");
+        }
+        LeitorCsvProdutos.Cabecalho cabecalho;
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            long inicio = Math.min(tamanho, tamanhoMaximoLinha);
+            cabecalho = LeitorCsvProdutos.lerCabecalho(canal.map(FileChannel.MapMode.READ_ONLY, 0, inicio), inicio == tamanho);
+        }
+
+        Importacao importacao = new Importacao(UUID.randomUUID().toString(), arquivo, tamanho);
+        importacao.bytesProcessados.add(cabecalho.tamanho());
+        importacoes.put(importacao.id, importacao);
+
+        List<CompletableFuture<Void>> fatias = new ArrayList<>();
+        for (long inicio = cabecalho.tamanho(); inicio < tamanho; inicio += tamanhoFatia) {
+            long inicioFatia = inicio;
+            long fimFatia = Math.min(tamanho, inicio + tamanhoFatia);
+            fatias.add(CompletableFuture.runAsync(() -> processarFatia(importacao, cabecalho, inicioFatia, fimFatia), executor));
+        }
+        CompletableFuture.allOf(fatias.toArray(CompletableFuture[]::new)).whenComplete((resultado, erro) -> {
+            apagar(arquivo);
+            importacao.concluir();
+            log.info("Importação {} {}: {} linhas, {} produtos criados, {} linhas com erro", importacao.id,
+                    importacao.status == ImportacaoDTO.Status.CONCLUIDA ? "concluída" : "interrompida",
+                    importacao.linhasLidas.sum(), importacao.criados.sum(), importacao.linhasComErro.sum());
+        });
+        log.info("Importação {} iniciada: {} bytes em {} fatias", importacao.id, tamanho, fatias.size());
+        return importacao;
+    }
+
+    private void processarFatia(Importacao importacao, LeitorCsvProdutos.Cabecalho cabecalho, long inicio, long fim) {
+        if (!importacao.ativa()) {
+            return;
+        }
+        // As fatias seguintes incluem o último byte da anterior, para saber se começam no meio de uma linha
+        boolean primeira = inicio == cabecalho.tamanho();
+        long inicioMapeado = primeira ? inicio : inicio - 1;
+        long fimMapeado = Math.min(importacao.bytesTotal, fim + tamanhoMaximoLinha);
+        try (FileChannel canal = FileChannel.open(importacao.arquivo, StandardOpenOption.READ)) {
+            MappedByteBuffer trecho = canal.map(FileChannel.MapMode.READ_ONLY, inicioMapeado, fimMapeado - inicioMapeado);
+            Bloco bloco = new Bloco(importacao);
+            new LeitorCsvProdutos(cabecalho).ler(trecho, inicioMapeado, !primeira, (int) (fim - inicioMapeado),
+                    fimMapeado == importacao.bytesTotal, (posicao, produto, errosLeitura) -> {
+                        if (!importacao.ativa() || Thread.currentThread().isInterrupted()) {
+                            return false;
+                        }
+                        importacao.linhasLidas.increment();
+                        Map<String, String> erros = produto == null ? errosLeitura : validar(produto, errosLeitura);
+                        if (erros.isEmpty()) {
+                            bloco.adicionar(posicao, ProdutoService.toEntity(produto));
+                        } else {
+                            importacao.registrarErro(posicao, erros, maximoErros);
+                        }
+                        return true;
+                    });
+            bloco.inserir();
+            importacao.bytesProcessados.add(fim - inicio);
+        } catch (IOException | RuntimeException e) {
+            log.error("Falha na importação {} no trecho a partir do byte {}", importacao.id, inicio, e);
+            importacao.falhar("Falha ao processar o trecho a partir do byte " + inicio + ": " + e.getMessage());
+        }
+    }
+
+    // Os erros de leitura de um campo prevalecem sobre os de validação (ex.: preço inválido em vez de obrigatório)
+    private Map<String, String> validar(ProdutoDTO produto, Map<String, String> errosLeitura) {
+        Map<String, String> erros = produtoLoteService.validar(produto);
+        if (errosLeitura.isEmpty()) {
+            return erros;
+        }
+        Map<String, String> todos = new LinkedHashMap<>(errosLeitura);
+        erros.forEach(todos::putIfAbsent);
+        return todos;
+    }
+
+    /**
+     * Copia o fluxo para o arquivo, interrompendo assim que passar do tamanho máximo
+     * (o corpo text/csv não tem o limite do multipart)
+     */
+    private void copiar(InputStream conteudo, Path destino) throws IOException {
+        try (OutputStream saida = Files.newOutputStream(destino)) {
+            byte[] buffer = new byte[64 * 1024];
+            long total = 0;
+            int lidos;
+            while ((lidos = conteudo.read(buffer)) != -1) {
+                total += lidos;
+                if (total > tamanhoMaximoArquivo) {
+                    throw new MaxUploadSizeExceededException(tamanhoMaximoArquivo);
+                }
+                saida.write(buffer, 0, lidos);
+            }
+        }
+    }
+
+    private static void apagar(Path arquivo) {
+        try {
+            Files.deleteIfExists(arquivo);
+        } catch (IOException e) {
+            log.warn("Não foi possível apagar o arquivo de importação {}", arquivo, e);
+        }
+    }
+
+    /**
+     * Produtos válidos de uma fatia aguardando a inserção, com a posição da linha de cada um
+     */
+    private final class Bloco {
+
+        private final Importacao importacao;
+        private final List<Produto> produtos = new ArrayList<>(tamanhoBloco);
+        private final List<Long> posicoes = new ArrayList<>(tamanhoBloco);
+
+        Bloco(Importacao importacao) {
+            this.importacao = importacao;
+        }
+
+        void adicionar(long posicao, Produto produto) {
+            produtos.add(produto);
+            posicoes.add(posicao);
+            if (produtos.size() == tamanhoBloco) {
+                inserir();
+            }
+        }
+
+        void inserir() {
+            if (produtos.isEmpty()) {
+                return;
+            }
+            try {
+                produtoLoteService.inserir(produtos);
+                importacao.criados.add(produtos.size());
+            } catch (DataAccessException e) {
+                Map<String, String> erro = Map.of("linha", "Falha ao inserir o bloco: " + e.getMostSpecificCause().getMessage());
+                posicoes.forEach(posicao -> importacao.registrarErro(posicao, erro, maximoErros));
+            }
+            produtos.clear();
+            posicoes.clear();
+        }
+    }
+
+    /**
+     * Estado de uma importação, atualizado concorrentemente pelas fatias
+     */
+    private static final class Importacao {
+
+        private final String id;
+        private final Path arquivo;
+        private final long bytesTotal;
+        private final Instant iniciadoEm = Instant.now();
+        private final long inicioNanos = System.nanoTime();
+        private final LongAdder bytesProcessados = new LongAdder();
+        private final LongAdder linhasLidas = new LongAdder();
+        private final LongAdder criados = new LongAdder();
+        private final LongAdder linhasComErro = new LongAdder();
+        private final TreeMap<Long, Map<String, String>> erros = new TreeMap<>();
+
+        private volatile ImportacaoDTO.Status status = ImportacaoDTO.Status.EM_ANDAMENTO;
+        private volatile String mensagem;
+        private volatile long duracaoNanos;
+        private volatile Instant concluidoEm;
+
+        Importacao(String id, Path arquivo, long bytesTotal) {
+            this.id = id;
+            this.arquivo = arquivo;
+            this.bytesTotal = bytesTotal;
+        }
+
+        boolean ativa() {
+            return mensagem == null;
+        }
+
+        // Conta todas as linhas com erro, mas guarda só as de menor posição no arquivo,
+        // independentemente da ordem em que as fatias as encontram
+        void registrarErro(long posicao, Map<String, String> errosLinha, int maximo) {
+            linhasComErro.increment();
+            synchronized (erros) {
+                erros.put(posicao, errosLinha);
+                if (erros.size() > maximo) {
+                    erros.pollLastEntry();
+                }
+            }
+        }
+
+        synchronized void falhar(String motivo) {
+            if (mensagem == null && concluidoEm == null) {
+                mensagem = motivo;
+            }
+        }
+
+        synchronized void concluir() {
+            duracaoNanos = System.nanoTime() - inicioNanos;
+            concluidoEm = Instant.now();
+            status = mensagem == null ? ImportacaoDTO.Status.CONCLUIDA : ImportacaoDTO.Status.FALHOU;
+        }
+
+        ImportacaoDTO toDTO() {
+            ImportacaoDTO.Status atual = status;
+            long decorrido = atual == ImportacaoDTO.Status.EM_ANDAMENTO ? System.nanoTime() - inicioNanos : duracaoNanos;
+            long linhas = linhasLidas.sum();
+            long processados = bytesProcessados.sum();
+            List<ErroImportacaoDTO> primeirosErros;
+            synchronized (erros) {
+                primeirosErros = erros.entrySet().stream()
+                        .map(erro -> new ErroImportacaoDTO(erro.getKey(), erro.getValue()))
+                        .toList();
+            }
+            return new ImportacaoDTO(
+                    id,
+                    atual,
+                    bytesTotal,
+                    processados,
+                    (int) (processados * 100 / bytesTotal),
+                    linhas,
+                    criados.sum(),
+                    linhasComErro.sum(),
+                    decorrido == 0 ? 0 : (long) (linhas * 1_000_000_000.0 / decorrido),
+                    iniciadoEm,
+                    concluidoEm,
+                    mensagem,
+                    primeirosErros
+            );
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.bagaggio.gerenciar_produtos.service;
+
+import com.bagaggio.gerenciar_produtos.dto.ItemLoteDTO;
+import com.bagaggio.gerenciar_produtos.dto.ProdutoDTO;
+import com.bagaggio.gerenciar_produtos.dto.ResultadoLoteDTO;
+import com.bagaggio.gerenciar_produtos.model.Produto;
+import com.bagaggio.gerenciar_produtos.repository.ProdutoLoteRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Serviço responsável pelas operações em lote sobre produtos.
+ */
+@Service
+public class ProdutoLoteService {
+
+    private final ProdutoLoteRepository produtoLoteRepository;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int tamanhoBloco;
+
+    @Autowired
+    public ProdutoLoteService(ProdutoLoteRepository produtoLoteRepository,
+                              Validator validator,
+                              ApplicationEventPublisher eventPublisher,
+                              PlatformTransactionManager transactionManager,
+                              @Value(ProdutoService.TIMEOUT_ESCRITA) int timeoutEscrita,
+                              @Value("${produtos.lote.tamanho-bloco:500}") int tamanhoBloco) {
+        this.produtoLoteRepository = produtoLoteRepository;
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setTimeout(timeoutEscrita);
+        this.tamanhoBloco = tamanhoBloco;
+    }
+
+    /**
+     * Cria produtos em lote a partir de uma sequência lida sob demanda.
+     * Cada item é validado com as regras do {@link ProdutoDTO}; os válidos são inseridos
+     * em blocos de tamanho configurável, cada bloco em sua própria transação.
+     * Um erro de leitura interrompe o processamento, mantendo os blocos já inseridos.
+     * @return relatório com o resultado de cada item, na ordem da requisição
+     */
+    public ResultadoLoteDTO criarEmLote(Iterator<ProdutoDTO> produtos) {
+        List<ItemLoteDTO> resultados = new ArrayList<>();
+        List<Integer> indicesBloco = new ArrayList<>(tamanhoBloco);
+        List<Produto> bloco = new ArrayList<>(tamanhoBloco);
+
+        while (true) {
+            int indice = resultados.size();
+            ProdutoDTO produtoDTO;
+            try {
+                if (!produtos.hasNext()) {
+                    break;
+                }
+                produtoDTO = produtos.next();
+            } catch (RuntimeException e) {
+                resultados.add(ItemLoteDTO.erro(indice, "Item mal formado: " + e.getMessage()));
+                break;
+            }
+
+            Map<String, String> erros = validar(produtoDTO);
+            if (!erros.isEmpty()) {
+                resultados.add(ItemLoteDTO.invalido(indice, erros));
+                continue;
+            }
+
+            // Reserva a posição do item até o bloco ser inserido
+            resultados.add(null);
+            indicesBloco.add(indice);
+            bloco.add(ProdutoService.toEntity(produtoDTO));
+            if (bloco.size() == tamanhoBloco) {
+                inserirBloco(bloco, indicesBloco, resultados);
+            }
+        }
+        inserirBloco(bloco, indicesBloco, resultados);
+        return ResultadoLoteDTO.de(resultados);
+    }
+
+    /**
+     * Insere um bloco de produtos já validados em um único batch JDBC, na sua própria transação,
+     * publicando a criação de cada um
+     * @return os IDs gerados, na ordem dos produtos
+     */
+    List<Long> inserir(List<Produto> bloco) {
+        return transactionTemplate.execute(status -> {
+            List<Long> gerados = produtoLoteRepository.inserir(bloco);
+            for (int i = 0; i < gerados.size(); i++) {
+                bloco.get(i).setId(gerados.get(i));
+                eventPublisher.publishEvent(ProdutoAlteradoEvent.criado(ProdutoService.toDTO(bloco.get(i))));
+            }
+            return gerados;
+        });
+    }
+
+    /**
+     * Valida um produto com as regras do {@link ProdutoDTO}
+     * @return a primeira mensagem de erro de cada campo inválido, vazio se o produto for válido
+     */
+    Map<String, String> validar(ProdutoDTO produtoDTO) {
+        if (produtoDTO == null) {
+            return Map.of("item", "O item não pode ser nulo");
+        }
+        Set<ConstraintViolation<ProdutoDTO>> violacoes = validator.validate(produtoDTO);
+        Map<String, String> erros = new LinkedHashMap<>();
+        violacoes.forEach(violacao -> erros.putIfAbsent(violacao.getPropertyPath().toString(), violacao.getMessage()));
+        return erros;
+    }
+
+    // Métodos auxiliares
+    private void inserirBloco(List<Produto> bloco, List<Integer> indicesBloco, List<ItemLoteDTO> resultados) {
+        if (bloco.isEmpty()) {
+            return;
+        }
+        try {
+            List<Long> ids = inserir(bloco);
+            for (int i = 0; i < ids.size(); i++) {
+                resultados.set(indicesBloco.get(i), ItemLoteDTO.criado(indicesBloco.get(i), ids.get(i)));
+            }
+        } catch (DataAccessException e) {
+            String mensagem = "Falha ao inserir o bloco: " + e.getMostSpecificCause().getMessage();
+            indicesBloco.forEach(indice -> resultados.set(indice, ItemLoteDTO.erro(indice, mensagem)));
+        }
+        bloco.clear();
+        indicesBloco.clear();
+    }
+}
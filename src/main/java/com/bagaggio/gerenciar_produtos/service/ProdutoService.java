@@ -1,83 +1,306 @@
 package com.bagaggio.gerenciar_produtos.service;
 
 
+import com.bagaggio.gerenciar_produtos.config.CacheConfig;
+import com.bagaggio.gerenciar_produtos.dto.PaginaDTO;
 import com.bagaggio.gerenciar_produtos.dto.ProdutoDTO;
+import com.bagaggio.gerenciar_produtos.exeption.EstoqueInsuficienteException;
+import com.bagaggio.gerenciar_produtos.exeption.PrecondicaoFalhouException;
+import com.bagaggio.gerenciar_produtos.exeption.ProdutoNaoEncontradoException;
 import com.bagaggio.gerenciar_produtos.model.Produto;
+import com.bagaggio.gerenciar_produtos.repository.ProdutoRemovidoRepository;
 import com.bagaggio.gerenciar_produtos.repository.ProdutoRepository;
+import com.bagaggio.gerenciar_produtos.repository.ProdutoSpecifications;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Serviço responsável pela lógica de negócios relacionada a produtos.
+ * As leituras rodam em transações somente leitura (sem flush nem snapshots de dirty-checking
+ * do Hibernate, e direcionadas à réplica quando configurada); as escritas declaram @Transactional
+ * com o timeout de escrita ({@link #TIMEOUT_ESCRITA}).
  */
 @Service
+@Transactional(readOnly = true)
 public class ProdutoService {
 
+    /**
+     * Timeout, em segundos, de toda transação que altera produtos.
+     * Limita o intervalo entre o instante gravado em atualizadoEm e o commit, do qual depende a
+     * janela da sincronização incremental (ver {@link ProdutoSincronizacaoService}).
+     */
+    public static final String TIMEOUT_ESCRITA = "${produtos.escrita.timeout-s:60}";
+
     private final ProdutoRepository produtoRepository;
+    private final ProdutoRemovidoRepository produtoRemovidoRepository;
+    private final IndiceIdsProdutoService indiceIdsProdutoService;
+    private final CoalescedorCarregamentos coalescedorCarregamentos;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Autowired
-    public ProdutoService(ProdutoRepository produtoRepository) {
+    public ProdutoService(ProdutoRepository produtoRepository,
+                          ProdutoRemovidoRepository produtoRemovidoRepository,
+                          IndiceIdsProdutoService indiceIdsProdutoService,
+                          CoalescedorCarregamentos coalescedorCarregamentos,
+                          ApplicationEventPublisher eventPublisher) {
         this.produtoRepository = produtoRepository;
+        this.produtoRemovidoRepository = produtoRemovidoRepository;
+        this.indiceIdsProdutoService = indiceIdsProdutoService;
+        this.coalescedorCarregamentos = coalescedorCarregamentos;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Lista uma página de produtos filtrados, usando paginação por cursor (keyset)
+     * sobre a ordenação escolhida, sempre desempatada pelo ID.
+     * Listagens idênticas e simultâneas compartilham uma única consulta; a transação só é aberta
+     * pela consulta, para que as requisições que aguardam não ocupem conexões.
+     * @param filtro categoria, faixa de preço e ordenação da listagem
+     * @param cursor cursor devolvido pela página anterior, ou null para a primeira página
+     * @param limite quantidade máxima de produtos na página
+     * @throws IllegalArgumentException se o cursor não for válido para a ordenação
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public PaginaDTO<ProdutoDTO> listarPagina(FiltroProduto filtro, String cursor, int limite) {
+        return coalescedorCarregamentos.carregar("listarPagina", ChaveListagem.de(filtro, cursor, limite),
+                () -> carregarPagina(filtro, cursor, limite));
+    }
+
+    private PaginaDTO<ProdutoDTO> carregarPagina(FiltroProduto filtro, String cursor, int limite) {
+        OrdenacaoProduto ordenacao = filtro.ordenacao();
+
+        // Busca um registro a mais para saber se existe uma próxima página
+        List<Produto> produtos = produtoRepository.findBy(especificacao(filtro, cursor),
+                consulta -> consulta.sortBy(ordenacao.toSort()).limit(limite + 1).all());
+
+        boolean temProximaPagina = produtos.size() > limite;
+        List<ProdutoDTO> itens = produtos.stream().limit(limite).map(ProdutoService::toDTO).collect(Collectors.toList());
+        String proximoCursor = temProximaPagina
+                ? cursorDe(itens.getLast().getId(), itens.getLast().getPreco(), ordenacao)
+                : null;
+        return new PaginaDTO<>(itens, proximoCursor);
     }
 
     /**
-     * Lista todos os produtos cadastrados
+     * Lista uma página de produtos com somente os campos pedidos (sparse fieldset).
+     * Apenas as colunas necessárias são lidas do banco, sem carregar entidades;
+     * a paginação e os filtros são os mesmos de {@link #listarPagina}.
+     * @throws IllegalArgumentException se o cursor não for válido para a ordenação
      */
-    public List<ProdutoDTO> listarTodos() {
-        return produtoRepository.findAll().stream().map(this::toDTO).collect(Collectors.toList());
+    public PaginaDTO<Map<String, Object>> listarPaginaCampos(FiltroProduto filtro, CamposProduto campos, String cursor, int limite) {
+        OrdenacaoProduto ordenacao = filtro.ordenacao();
+        List<Map<String, Object>> linhas = produtoRepository.buscarCampos(especificacao(filtro, cursor),
+                ordenacao.toSort(), limite + 1, campos.colunas(ordenacao));
+
+        boolean temProximaPagina = linhas.size() > limite;
+        List<Map<String, Object>> itens = linhas.stream().limit(limite).toList();
+        String proximoCursor = null;
+        if (temProximaPagina) {
+            Map<String, Object> ultimo = itens.getLast();
+            proximoCursor = cursorDe((Long) ultimo.get("id"), (BigDecimal) ultimo.get("preco"), ordenacao);
+        }
+        // O preço pode ter sido lido só para a ordenação e o cursor
+        if (!campos.contem("preco")) {
+            itens.forEach(item -> item.remove("preco"));
+        }
+        return new PaginaDTO<>(itens, proximoCursor);
+    }
+
+    /**
+     * Percorre todo o catálogo em ordem de ID, entregando cada produto ao consumidor assim que é lido.
+     * Cada entidade é desanexada do contexto de persistência após a conversão,
+     * mantendo o uso de memória constante independentemente do tamanho da tabela.
+     */
+    public void exportarTodos(Consumer<ProdutoDTO> consumidor) {
+        try (Stream<Produto> produtos = produtoRepository.streamTodosOrdenadosPorId()) {
+            produtos.forEach(produto -> {
+                consumidor.accept(toDTO(produto));
+                entityManager.detach(produto);
+            });
+        }
     }
 
     /**
      * Busca um produto por ID
-     * @throws RuntimeException se o produto não for encontrado
+     * O resultado fica no cache de produtos até expirar ou até o produto ser alterado;
+     * o cache guarda uma cópia imutável e cada leitura recebe o seu próprio DTO.
+     * IDs que o índice de IDs sabe não existirem são recusados sem consultar o banco; por isso a
+     * transação só é aberta pelo findById, e não na entrada do método.
+     * Em uma falta no cache, buscas simultâneas pelo mesmo ID compartilham um único findById.
+     * Como o resultado vai para o cache, a leitura não é somente leitura e usa o primário (ver
+     * {@link ProdutoRepository#findById}): uma versão atrasada da réplica, lida logo após uma alteração
+     * que limpou o cache, ficaria em cache até expirar.
+     * @throws ProdutoNaoEncontradoException se o produto não for encontrado
      */
+    @Cacheable(cacheNames = CacheConfig.CACHE_PRODUTOS, key = "#id")
+    @Transactional(propagation = Propagation.SUPPORTS)
     public ProdutoDTO buscarPorId(Long id) {
-        Produto produto = produtoRepository.findById(id).orElseThrow(() -> new RuntimeException("Produto não encontrado!"));
-        return toDTO(produto);
+        if (indiceIdsProdutoService.certamenteAusente(id)) {
+            throw new ProdutoNaoEncontradoException(id);
+        }
+        return coalescedorCarregamentos.carregar("buscarPorId", id, () -> toDTO(
+                produtoRepository.findById(id).orElseThrow(() -> new ProdutoNaoEncontradoException(id))));
     }
 
     /**
      * Cria um novo produto
+     * O produto criado já entra no cache de produtos.
      */
+    @Transactional(timeoutString = TIMEOUT_ESCRITA)
+    @CachePut(cacheNames = CacheConfig.CACHE_PRODUTOS, key = "#result.id")
     public ProdutoDTO criarProduto(ProdutoDTO produtoDTO) {
         Produto produto = toEntity(produtoDTO);
         produto = produtoRepository.save(produto);
-        return toDTO(produto);
+        ProdutoDTO criado = toDTO(produto);
+        eventPublisher.publishEvent(ProdutoAlteradoEvent.criado(criado));
+        return criado;
     }
 
     /**
      * Atualiza um produto existente
-     * @throws RuntimeException se o produto não for encontrado
+     * A versão em cache é substituída pelo produto atualizado.
+     * @param versaoEsperada versão informada no If-Match, ou null para atualizar incondicionalmente
+     * @throws ProdutoNaoEncontradoException se o produto não for encontrado
+     * @throws PrecondicaoFalhouException se o produto não estiver na versão esperada
      */
-    public ProdutoDTO atualizarProduto(Long id, ProdutoDTO produtoDTO) {
-        Produto produtoExistente = produtoRepository.findById(id).orElseThrow(() -> new RuntimeException("Produto não encontrado!"));
+    @Transactional(timeoutString = TIMEOUT_ESCRITA)
+    @CachePut(cacheNames = CacheConfig.CACHE_PRODUTOS, key = "#id")
+    public ProdutoDTO atualizarProduto(Long id, ProdutoDTO produtoDTO, Long versaoEsperada) {
+        Produto produtoExistente = produtoRepository.findById(id).orElseThrow(() -> new ProdutoNaoEncontradoException(id));
+        if (versaoEsperada != null && !versaoEsperada.equals(produtoExistente.getVersao())) {
+            throw new PrecondicaoFalhouException(id);
+        }
         produtoExistente.setNome(produtoDTO.getNome());
         produtoExistente.setDescricao(produtoDTO.getDescricao());
         produtoExistente.setPreco(produtoDTO.getPreco());
         produtoExistente.setQuantidade(produtoDTO.getQuantidade());
+        produtoExistente.setCategoria(produtoDTO.getCategoria());
 
-        produtoExistente = produtoRepository.save(produtoExistente);
-        return toDTO(produtoExistente);
+        try {
+            // O produto já está gerenciado: o flush emite só o UPDATE (sem um novo SELECT do merge)
+            // e o @Version faz o UPDATE falhar se outra requisição alterou o produto depois da leitura
+            produtoExistente = produtoRepository.save(produtoExistente);
+            produtoRepository.flush();
+        } catch (OptimisticLockingFailureException e) {
+            if (versaoEsperada != null) {
+                throw new PrecondicaoFalhouException(id);
+            }
+            throw e;
+        }
+        ProdutoDTO atualizado = toDTO(produtoExistente);
+        eventPublisher.publishEvent(ProdutoAlteradoEvent.atualizado(atualizado));
+        return atualizado;
     }
 
     /**
      * Remove um produto
+     * O produto é removido do cache de produtos.
+     * @param versaoEsperada versão informada no If-Match, ou null para remover incondicionalmente
      * @return true se o produto foi removido, false se não existir
+     * @throws PrecondicaoFalhouException se o produto não estiver na versão esperada
      */
-    public boolean deletarProduto(Long id) {
-        if(!produtoRepository.existsById(id)) {
-            return false;
+    @Transactional(timeoutString = TIMEOUT_ESCRITA)
+    @CacheEvict(cacheNames = CacheConfig.CACHE_PRODUTOS, key = "#id")
+    public boolean deletarProduto(Long id, Long versaoEsperada) {
+        // Um único DELETE (condicional à versão, se informada): as linhas removidas indicam se o produto existia
+        int removidos = versaoEsperada == null
+                ? produtoRepository.deletarPorId(id)
+                : produtoRepository.deletarNaVersao(id, versaoEsperada);
+        if (removidos == 0) {
+            // Só consulta o produto para diferenciar o motivo da falha do DELETE condicional
+            if (versaoEsperada == null || !produtoRepository.existsById(id)) {
+                return false;
+            }
+            throw new PrecondicaoFalhouException(id);
         }
-        produtoRepository.deleteById(id);
+        // O tombstone informa a remoção na sincronização incremental
+        produtoRemovidoRepository.registrar(id, Produto.agora());
+        eventPublisher.publishEvent(ProdutoAlteradoEvent.removido(id));
         return true;
     }
 
-    // Métodos auxiliares de conversão
-    private Produto toEntity(ProdutoDTO produtoDTO) {
+    /**
+     * Reserva unidades do estoque com um UPDATE condicional atômico
+     * @throws ProdutoNaoEncontradoException se o produto não for encontrado
+     * @throws EstoqueInsuficienteException se o estoque for menor que a quantidade pedida
+     */
+    @Transactional(timeoutString = TIMEOUT_ESCRITA)
+    @CacheEvict(cacheNames = CacheConfig.CACHE_PRODUTOS, key = "#id")
+    public void reservarEstoque(Long id, int quantidade) {
+        if (produtoRepository.reservarEstoque(id, quantidade) == 0) {
+            // Só consulta o produto para diferenciar o motivo da falha
+            if (!produtoRepository.existsById(id)) {
+                throw new ProdutoNaoEncontradoException(id);
+            }
+            throw new EstoqueInsuficienteException(id, quantidade);
+        }
+        eventPublisher.publishEvent(new EstoqueAjustadoEvent(id, -quantidade));
+    }
+
+    /**
+     * Devolve unidades ao estoque com um único UPDATE
+     * @throws ProdutoNaoEncontradoException se o produto não for encontrado
+     */
+    @Transactional(timeoutString = TIMEOUT_ESCRITA)
+    @CacheEvict(cacheNames = CacheConfig.CACHE_PRODUTOS, key = "#id")
+    public void liberarEstoque(Long id, int quantidade) {
+        if (produtoRepository.liberarEstoque(id, quantidade) == 0) {
+            throw new ProdutoNaoEncontradoException(id);
+        }
+        eventPublisher.publishEvent(new EstoqueAjustadoEvent(id, quantidade));
+    }
+
+    // Métodos auxiliares de paginação
+    private static Specification<Produto> especificacao(FiltroProduto filtro, String cursor) {
+        Specification<Produto> especificacao = ProdutoSpecifications.comCategoria(filtro.categoria())
+                .and(ProdutoSpecifications.comPrecoMinimo(filtro.precoMin()))
+                .and(ProdutoSpecifications.comPrecoMaximo(filtro.precoMax()));
+        return cursor == null ? especificacao : especificacao.and(aposCursor(cursor, filtro.ordenacao()));
+    }
+
+    // O cursor é o ID do último item ou, na ordenação por preço, "preco_id"
+    private static String cursorDe(Long id, BigDecimal preco, OrdenacaoProduto ordenacao) {
+        return ordenacao.porPreco()
+                ? preco.toPlainString() + "_" + id
+                : String.valueOf(id);
+    }
+
+    private static Specification<Produto> aposCursor(String cursor, OrdenacaoProduto ordenacao) {
+        try {
+            if (ordenacao.porPreco()) {
+                int separador = cursor.lastIndexOf('_');
+                return ProdutoSpecifications.aposPreco(new BigDecimal(cursor.substring(0, separador)),
+                        Long.valueOf(cursor.substring(separador + 1)), ordenacao.decrescente());
+            }
+            return ProdutoSpecifications.aposId(Long.valueOf(cursor), ordenacao.decrescente());
+        } catch (NumberFormatException | StringIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Cursor inválido para a ordenação informada: " + cursor);
+        }
+    }
+
+    // Métodos auxiliares de conversão, compartilhados com os demais serviços de produto
+    static Produto toEntity(ProdutoDTO produtoDTO) {
         return Produto.builder()
                 .nome(produtoDTO.getNome())
                 .descricao((produtoDTO.getDescricao()))
@@ -87,14 +310,34 @@ public class ProdutoService {
                 .build();
     }
 
-    private ProdutoDTO toDTO(Produto produto) {
+    static ProdutoDTO toDTO(Produto produto) {
         return new ProdutoDTO(
                 produto.getId(),
                 produto.getNome(),
                 produto.getDescricao(),
                 produto.getPreco(),
                 produto.getQuantidade(),
-                produto.getCategoria()
+                produto.getCategoria(),
+                produto.getVersao(),
+                produto.getCriadoEm(),
+                produto.getAtualizadoEm()
         );
     }
+
+    /**
+     * Parâmetros normalizados de uma listagem, usados para agrupar listagens idênticas.
+     * Preços equivalentes com escalas diferentes (ex.: "10" e "10.00") geram a mesma chave.
+     */
+    private record ChaveListagem(String categoria, BigDecimal precoMin, BigDecimal precoMax,
+                                 OrdenacaoProduto ordenacao, String cursor, int limite) {
+
+        static ChaveListagem de(FiltroProduto filtro, String cursor, int limite) {
+            return new ChaveListagem(filtro.categoria(), normalizar(filtro.precoMin()), normalizar(filtro.precoMax()),
+                    filtro.ordenacao(), cursor, limite);
+        }
+
+        private static BigDecimal normalizar(BigDecimal preco) {
+            return preco == null ? null : preco.stripTrailingZeros();
+        }
+    }
 }
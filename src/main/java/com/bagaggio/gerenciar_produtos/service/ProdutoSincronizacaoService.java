@@ -0,0 +1,113 @@
+package com.bagaggio.gerenciar_produtos.service;
+
+import com.bagaggio.gerenciar_produtos.dto.ProdutoDTO;
+import com.bagaggio.gerenciar_produtos.dto.SincronizacaoDTO;
+import com.bagaggio.gerenciar_produtos.model.Produto;
+import com.bagaggio.gerenciar_produtos.model.ProdutoRemovido;
+import com.bagaggio.gerenciar_produtos.repository.ProdutoRemovidoRepository;
+import com.bagaggio.gerenciar_produtos.repository.ProdutoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serviço da sincronização incremental de produtos ("o que mudou desde T").
+ * As alterações são lidas pelo índice de (atualizadoEm, id) e as remoções pelos tombstones,
+ * intercaladas em uma única ordem para que um cursor só retome de onde a página parou.
+ *
+ * <p>O instante de uma mudança é gravado durante a transação, não no commit: uma transação longa
+ * pode ficar visível depois de outras com instante maior, que um cursor já ultrapassou. Por isso a
+ * sincronização só devolve mudanças mais antigas que a duração máxima de uma transação de escrita
+ * ({@link ProdutoService#TIMEOUT_ESCRITA}) mais uma margem para o commit. Sem timeout de escrita,
+ * só a margem é aplicada e uma transação mais longa que ela pode ser pulada.</p>
+ */
+@Service
+public class ProdutoSincronizacaoService {
+
+    private final ProdutoRepository produtoRepository;
+    private final ProdutoRemovidoRepository produtoRemovidoRepository;
+    private final Duration janela;
+
+    @Autowired
+    public ProdutoSincronizacaoService(ProdutoRepository produtoRepository,
+                                       ProdutoRemovidoRepository produtoRemovidoRepository,
+                                       @Value(ProdutoService.TIMEOUT_ESCRITA) int timeoutEscrita,
+                                       @Value("${produtos.sincronizacao.atraso-ms:1000}") long atrasoMs) {
+        this.produtoRepository = produtoRepository;
+        this.produtoRemovidoRepository = produtoRemovidoRepository;
+        this.janela = Duration.ofSeconds(Math.max(timeoutEscrita, 0)).plusMillis(atrasoMs);
+    }
+
+    /**
+     * Lista as mudanças a partir de um instante ou de um cursor devolvido por uma chamada anterior.
+     * Mudanças mais recentes que a janela (timeout de escrita mais o atraso configurado) ficam para a
+     * próxima chamada, para que uma transação concorrente com instante menor não seja pulada por ainda
+     * não ter terminado o commit.
+     * @param desde instante inicial (inclusive), usado quando não há cursor
+     * @param cursor posição "instante_id" da última mudança recebida, ou null
+     * @param limite quantidade máxima de mudanças (alterações e remoções somadas) na página
+     * @throws IllegalArgumentException se o cursor for inválido
+     */
+    @Transactional(readOnly = true)
+    public SincronizacaoDTO sincronizar(Instant desde, String cursor, int limite) {
+        Posicao inicio = cursor == null ? new Posicao(desde, 0L) : Posicao.de(cursor);
+        Instant ate = Instant.now().minus(janela);
+
+        List<Produto> alterados = produtoRepository.buscarAlteradosApos(inicio.instante(), inicio.id(), ate, Limit.of(limite + 1));
+        List<ProdutoRemovido> removidos = produtoRemovidoRepository.buscarApos(inicio.instante(), inicio.id(), ate, Limit.of(limite + 1));
+
+        // Intercala as duas listas, já ordenadas por (instante, id), até completar a página
+        List<ProdutoDTO> paginaAlterados = new ArrayList<>();
+        List<Long> paginaRemovidos = new ArrayList<>();
+        Posicao ultima = inicio;
+        int a = 0;
+        int r = 0;
+        while (paginaAlterados.size() + paginaRemovidos.size() < limite && (a < alterados.size() || r < removidos.size())) {
+            Posicao alterado = a < alterados.size() ? new Posicao(alterados.get(a).getAtualizadoEm(), alterados.get(a).getId()) : null;
+            Posicao removido = r < removidos.size() ? new Posicao(removidos.get(r).getRemovidoEm(), removidos.get(r).getId()) : null;
+            if (removido == null || (alterado != null && alterado.compareTo(removido) < 0)) {
+                paginaAlterados.add(ProdutoService.toDTO(alterados.get(a++)));
+                ultima = alterado;
+            } else {
+                paginaRemovidos.add(removidos.get(r++).getId());
+                ultima = removido;
+            }
+        }
+        boolean temMais = a < alterados.size() || r < removidos.size();
+        return new SincronizacaoDTO(paginaAlterados, paginaRemovidos, ultima.toCursor(), temMais);
+    }
+
+    /**
+     * Posição de uma mudança na ordem da sincronização
+     */
+    private record Posicao(Instant instante, Long id) implements Comparable<Posicao> {
+
+        // O cursor é "instante_id" (ex.: "2025-01-10T12:00:00.123456Z_42")
+        static Posicao de(String cursor) {
+            try {
+                int separador = cursor.lastIndexOf('_');
+                return new Posicao(Instant.parse(cursor.substring(0, separador)), Long.valueOf(cursor.substring(separador + 1)));
+            } catch (DateTimeParseException | NumberFormatException | StringIndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Cursor de sincronização inválido: " + cursor);
+            }
+        }
+
+        String toCursor() {
+            return instante + "_" + id;
+        }
+
+        @Override
+        public int compareTo(Posicao outra) {
+            int comparacao = instante.compareTo(outra.instante);
+            return comparacao != 0 ? comparacao : id.compareTo(outra.id);
+        }
+    }
+}
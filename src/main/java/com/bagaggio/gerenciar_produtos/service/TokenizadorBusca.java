@@ -0,0 +1,77 @@
+package com.bagaggio.gerenciar_produtos.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Tokenizador de textos em português para o índice de busca de produtos.
+ * Remove acentos, converte para minúsculas, descarta stopwords e reduz plurais simples,
+ * de forma que "Mochilas Escolares" e "mochila escolar" gerem os mesmos termos.
+ */
+final class TokenizadorBusca {
+
+    private static final Set<String> STOPWORDS = Set.of(
+            "a", "o", "as", "os", "um", "uma", "uns", "umas", "de", "da", "do", "das", "dos",
+            "e", "ou", "em", "na", "no", "nas", "nos", "para", "pra", "por", "com", "sem",
+            "ao", "aos", "que", "se", "sua", "seu", "suas", "seus");
+
+    private TokenizadorBusca() {
+    }
+
+    /**
+     * Quebra o texto em termos normalizados, na ordem em que aparecem
+     */
+    static List<String> tokenizar(String texto) {
+        List<String> termos = new ArrayList<>();
+        if (texto == null || texto.isEmpty()) {
+            return termos;
+        }
+        String decomposto = Normalizer.normalize(texto, Normalizer.Form.NFD);
+        StringBuilder atual = new StringBuilder();
+        for (int i = 0; i < decomposto.length(); i++) {
+            char c = decomposto.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                atual.append(Character.toLowerCase(c));
+            } else {
+                adicionarTermo(atual, termos);
+            }
+        }
+        adicionarTermo(atual, termos);
+        return termos;
+    }
+
+    private static void adicionarTermo(StringBuilder atual, List<String> termos) {
+        if (atual.isEmpty()) {
+            return;
+        }
+        String termo = atual.toString();
+        atual.setLength(0);
+        if (!STOPWORDS.contains(termo)) {
+            termos.add(reduzirPlural(termo));
+        }
+    }
+
+    /**
+     * Redução leve de plurais do português (ex.: "bolsões" -> "bolsao", "viagens" -> "viagem")
+     */
+    private static String reduzirPlural(String termo) {
+        if (termo.length() <= 3 || !termo.endsWith("s")) {
+            return termo;
+        }
+        if (termo.endsWith("oes") || termo.endsWith("aes")) {
+            return termo.substring(0, termo.length() - 3) + "ao";
+        }
+        if (termo.endsWith("ais")) {
+            return termo.substring(0, termo.length() - 3) + "al";
+        }
+        if (termo.endsWith("ns")) {
+            return termo.substring(0, termo.length() - 2) + "m";
+        }
+        return termo.substring(0, termo.length() - 1);
+    }
+}
@@ -4,5 +4,29 @@ CREATE TABLE IF NOT EXISTS tb_produtos (
     descricao TEXT NOT NULL,
     preco DECIMAL(19,2) NOT NULL,
     quantidade INT NOT NULL,
-    categoria VARCHAR(50) NOT NULL
-);
\ No newline at end of file
+    categoria VARCHAR(50) NOT NULL,
+    versao BIGINT NOT NULL DEFAULT 0,
+    criado_em DATETIME(6) NOT NULL,
+    atualizado_em DATETIME(6) NOT NULL,
+    INDEX idx_produtos_categoria_preco (categoria, preco),
+    INDEX idx_produtos_preco (preco),
+    INDEX idx_produtos_criado_em (criado_em),
+    INDEX idx_produtos_atualizado_em_id (atualizado_em, id)
+);
+
+CREATE TABLE IF NOT EXISTS tb_produtos_removidos (
+    id BIGINT PRIMARY KEY,
+    removido_em DATETIME(6) NOT NULL,
+    INDEX idx_produtos_removidos_removido_em_id (removido_em, id)
+);
+
+CREATE TABLE IF NOT EXISTS tb_produtos_eventos (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    produto_id BIGINT NOT NULL,
+    tipo VARCHAR(20) NOT NULL,
+    produto MEDIUMTEXT,
+    delta BIGINT,
+    registrado_em DATETIME(3) NOT NULL
+);
+
+CREATE INDEX idx_produtos_eventos_registrado_em ON tb_produtos_eventos (registrado_em);
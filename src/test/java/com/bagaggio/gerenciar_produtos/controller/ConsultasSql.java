@@ -0,0 +1,29 @@
+package com.bagaggio.gerenciar_produtos.controller;
+
+import com.bagaggio.gerenciar_produtos.config.ConsultasSqlFilter;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Asserções sobre a quantidade de comandos SQL emitidos por uma requisição no MockMvc,
+ * contados pelo {@link ConsultasSqlFilter}.
+ * Uso: {@code mockMvc.perform(get("/produtos/1")).andExpect(ConsultasSql.total(1))}
+ */
+public final class ConsultasSql {
+
+    private ConsultasSql() {
+    }
+
+    /**
+     * Verifica se a requisição emitiu exatamente a quantidade informada de comandos SQL
+     */
+    public static ResultMatcher total(int esperado) {
+        return resultado -> {
+            Object consultas = resultado.getRequest().getAttribute(ConsultasSqlFilter.ATRIBUTO_CONSULTAS);
+            assertNotNull(consultas, "A requisição não passou pelo ConsultasSqlFilter");
+            assertEquals(esperado, consultas, "Quantidade de comandos SQL emitidos pela requisição");
+        };
+    }
+}
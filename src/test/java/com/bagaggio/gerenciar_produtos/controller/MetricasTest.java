@@ -0,0 +1,58 @@
+package com.bagaggio.gerenciar_produtos.controller;
+
+import com.bagaggio.gerenciar_produtos.model.Produto;
+import com.bagaggio.gerenciar_produtos.repository.ProdutoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Testes de integração do endpoint de métricas do Prometheus.
+ * Verifica se as métricas de endpoints, repositório, Hibernate, pool de conexões e cache são publicadas.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+class MetricasTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProdutoRepository produtoRepository;
+
+    /**
+     * Faz uma busca por ID e verifica as séries publicadas em /actuator/prometheus.
+     * A latência dos endpoints e do repositório deve ser exposta em histogramas.
+     */
+    @Test
+    void prometheus_DevePublicarMetricasDaApiEDoBanco() throws Exception {
+        Produto produto = produtoRepository.save(
+                new Produto(null, "Produto", "Descrição", BigDecimal.TEN, 1, "Categoria"));
+        mockMvc.perform(get("/produtos/{id}", produto.getId())).andExpect(status().isOk());
+        mockMvc.perform(get("/produtos/{id}", produto.getId())).andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket{")))
+                .andExpect(content().string(containsString("uri=\"/produtos/{id}\"")))
+                .andExpect(content().string(containsString("spring_data_repository_invocations_seconds_bucket{")))
+                .andExpect(content().string(containsString("repository=\"ProdutoRepository\"")))
+                .andExpect(content().string(containsString("hibernate_query_executions_total")))
+                .andExpect(content().string(containsString("hibernate_entities_loads_total")))
+                .andExpect(content().string(containsString("hikaricp_connections_pending")))
+                .andExpect(content().string(containsString("cache_gets_total{")));
+    }
+}
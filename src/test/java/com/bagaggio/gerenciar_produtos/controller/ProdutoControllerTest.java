@@ -1,24 +1,39 @@
 package com.bagaggio.gerenciar_produtos.controller;
 
 
+import com.bagaggio.gerenciar_produtos.dto.AtualizacaoEmMassaDTO;
+import com.bagaggio.gerenciar_produtos.dto.MovimentoEstoqueDTO;
 import com.bagaggio.gerenciar_produtos.dto.ProdutoDTO;
 import com.bagaggio.gerenciar_produtos.model.Produto;
+import com.bagaggio.gerenciar_produtos.repository.ProdutoEventoRepository;
 import com.bagaggio.gerenciar_produtos.repository.ProdutoRepository;
+import com.bagaggio.gerenciar_produtos.service.EstatisticasCategoriaService;
+import com.bagaggio.gerenciar_produtos.service.ProdutoService;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.hamcrest.Matchers.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -41,6 +56,15 @@ class ProdutoControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private EstatisticasCategoriaService estatisticasCategoriaService;
+
+    @Autowired
+    private ProdutoEventoRepository produtoEventoRepository;
+
+    @Autowired
+    private ProdutoService produtoService;
+
     /**
      * Configuração inicial antes de cada teste.
      * Limpa o banco de dados para garantir isolamento entre os testes.
@@ -50,6 +74,37 @@ class ProdutoControllerTest {
         produtoRepository.deleteAll();
     }
 
+    /**
+     * Testa as estatísticas por categoria após criação, reserva de estoque e remoção pela API.
+     * Devem refletir cada alteração sem nenhuma consulta ao banco.
+     */
+    @Test
+    void estatisticasPorCategoria_DevemAcompanharAsAlteracoes() throws Exception {
+        // A limpeza do setUp não passa pelo serviço: recarrega os agregados a partir do banco vazio
+        estatisticasCategoriaService.reconstruir();
+        Long id1 = criarViaApi(new ProdutoDTO(null, "Mala 1", "Descrição", new BigDecimal("100.00"), 2, "Malas"));
+        criarViaApi(new ProdutoDTO(null, "Mala 2", "Descrição", new BigDecimal("50.00"), 4, "Malas"));
+        Long id3 = criarViaApi(new ProdutoDTO(null, "Bolsa", "Descrição", new BigDecimal("80.00"), 1, "Bolsas"));
+
+        mockMvc.perform(post("/produtos/{id}/estoque/reservar", id1)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new MovimentoEstoqueDTO(1))))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(delete("/produtos/{id}", id3)).andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/produtos/categorias/stats"))
+                .andExpect(status().isOk())
+                .andExpect(ConsultasSql.total(0))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].categoria", is("Malas")))
+                .andExpect(jsonPath("$[0].produtos", is(2)))
+                .andExpect(jsonPath("$[0].quantidadeTotal", is(5)))
+                .andExpect(jsonPath("$[0].valorEstoque", is(300.00)))
+                .andExpect(jsonPath("$[0].precoMinimo", is(50.00)))
+                .andExpect(jsonPath("$[0].precoMaximo", is(100.00)))
+                .andExpect(jsonPath("$[0].precoMedio", is(75.00)));
+    }
+
     /**
      * Testa o cenário onde não há produtos cadastrados.
      * Deve retornar uma lista vazia com status HTTP 200.
@@ -82,6 +137,223 @@ class ProdutoControllerTest {
                 .andExpect(jsonPath("$[1].nome", is("Produto 2")));
     }
 
+    /**
+     * Testa a listagem com sparse fieldset.
+     * Verifica se somente os campos pedidos (e o ID) são devolvidos, inclusive ao paginar
+     * por preço sem pedir o preço, e se a consulta é única.
+     */
+    @Test
+    void listarCampos_DeveRetornarSomenteOsCamposPedidos() throws Exception {
+        produtoRepository.saveAll(List.of(
+                new Produto(null, "Produto 1", "Descrição longa 1", BigDecimal.valueOf(30.00), 5, "Categoria"),
+                new Produto(null, "Produto 2", "Descrição longa 2", BigDecimal.valueOf(10.00), 5, "Categoria"),
+                new Produto(null, "Produto 3", "Descrição longa 3", BigDecimal.valueOf(20.00), 5, "Categoria")));
+
+        MvcResult primeiraPagina = mockMvc.perform(get("/produtos")
+                        .param("fields", "nome,categoria")
+                        .param("sort", "preco,asc")
+                        .param("limite", "2"))
+                .andExpect(status().isOk())
+                .andExpect(ConsultasSql.total(1))
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].nome", is("Produto 2")))
+                .andExpect(jsonPath("$[0].id").exists())
+                .andExpect(jsonPath("$[0].categoria", is("Categoria")))
+                .andExpect(jsonPath("$[0].descricao").doesNotExist())
+                .andExpect(jsonPath("$[0].preco").doesNotExist())
+                .andExpect(header().exists(ProdutoController.HEADER_PROXIMO_CURSOR))
+                .andReturn();
+
+        mockMvc.perform(get("/produtos")
+                        .param("fields", "nome")
+                        .param("sort", "preco,asc")
+                        .param("cursor", primeiraPagina.getResponse().getHeader(ProdutoController.HEADER_PROXIMO_CURSOR)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].nome", is("Produto 1")));
+    }
+
+    /**
+     * Testa a listagem com um campo inexistente em fields.
+     * Deve retornar status HTTP 400.
+     */
+    @Test
+    void listarCampos_DeveRetornarBadRequestQuandoCampoNaoExistir() throws Exception {
+        mockMvc.perform(get("/produtos").param("fields", "nome,senha"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", containsString("senha")));
+    }
+
+    /**
+     * Testa a negociação de conteúdo em CBOR.
+     * Com Accept application/cbor a listagem deve vir em CBOR, e um produto enviado em CBOR deve ser aceito.
+     * As datas devem seguir a mesma configuração do JSON (texto ISO-8601).
+     */
+    @Test
+    void listarTodos_DeveRetornarCborQuandoSolicitado() throws Exception {
+        CBORMapper cborMapper = new CBORMapper();
+        ProdutoDTO produtoDTO = new ProdutoDTO(null, "Produto CBOR", "Descrição", BigDecimal.valueOf(10.99), 5, "Categoria");
+
+        mockMvc.perform(post("/produtos")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .content(cborMapper.writeValueAsBytes(produtoDTO)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.nome", is("Produto CBOR")));
+
+        byte[] corpo = mockMvc.perform(get("/produtos").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode produtos = cborMapper.readTree(corpo);
+        assertEquals(1, produtos.size());
+        assertEquals("Produto CBOR", produtos.get(0).get("nome").asText());
+        assertTrue(produtos.get(0).get("criadoEm").isTextual(), "criadoEm deveria vir como texto ISO-8601");
+        Instant.parse(produtos.get(0).get("criadoEm").asText());
+    }
+
+    /**
+     * Testa a paginação por cursor da listagem.
+     * Verifica se a primeira página respeita o limite e informa o cursor da próxima,
+     * e se a última página não devolve cursor.
+     */
+    @Test
+    void listarTodos_DevePaginarPorCursor() throws Exception {
+        // Cria e salva três produtos no banco de dados
+        List<Produto> produtos = produtoRepository.saveAll(List.of(
+                new Produto(null, "Produto 1", "Descrição 1", BigDecimal.valueOf(10.99), 5, "Categoria 1"),
+                new Produto(null, "Produto 2", "Descrição 2", BigDecimal.valueOf(20.50), 10, "Categoria 2"),
+                new Produto(null, "Produto 3", "Descrição 3", BigDecimal.valueOf(30.00), 15, "Categoria 3")));
+        String cursor = String.valueOf(produtos.get(1).getId());
+
+        // Primeira página com dois produtos e cursor para a próxima
+        mockMvc.perform(get("/produtos").param("limite", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].nome", is("Produto 1")))
+                .andExpect(jsonPath("$[1].nome", is("Produto 2")))
+                .andExpect(header().string(ProdutoController.HEADER_PROXIMO_CURSOR, cursor))
+                .andExpect(header().string("Link", containsString("cursor=" + cursor)));
+
+        // Última página sem cursor
+        mockMvc.perform(get("/produtos").param("limite", "2").param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].nome", is("Produto 3")))
+                .andExpect(header().doesNotExist(ProdutoController.HEADER_PROXIMO_CURSOR));
+    }
+
+    /**
+     * Testa os filtros por categoria e faixa de preço com ordenação por preço decrescente.
+     * Verifica se apenas os produtos filtrados são retornados, na ordem pedida,
+     * e se o cursor por preço leva à página seguinte.
+     */
+    @Test
+    void listarTodos_DeveFiltrarPorCategoriaEPrecoEOrdenarPorPreco() throws Exception {
+        produtoRepository.saveAll(List.of(
+                new Produto(null, "Mala P", "Descrição", BigDecimal.valueOf(100.00), 5, "Malas"),
+                new Produto(null, "Mala M", "Descrição", BigDecimal.valueOf(200.00), 5, "Malas"),
+                new Produto(null, "Mala G", "Descrição", BigDecimal.valueOf(300.00), 5, "Malas"),
+                new Produto(null, "Mala XG", "Descrição", BigDecimal.valueOf(900.00), 5, "Malas"),
+                new Produto(null, "Mochila", "Descrição", BigDecimal.valueOf(150.00), 5, "Mochilas")));
+
+        // Primeira página: malas entre 100 e 300, da mais cara para a mais barata
+        String cursor = mockMvc.perform(get("/produtos")
+                        .param("categoria", "Malas")
+                        .param("precoMin", "100")
+                        .param("precoMax", "300")
+                        .param("sort", "preco,desc")
+                        .param("limite", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].nome", is("Mala G")))
+                .andExpect(jsonPath("$[1].nome", is("Mala M")))
+                .andReturn().getResponse().getHeader(ProdutoController.HEADER_PROXIMO_CURSOR);
+
+        // Segunda página a partir do cursor
+        mockMvc.perform(get("/produtos")
+                        .param("categoria", "Malas")
+                        .param("precoMin", "100")
+                        .param("precoMax", "300")
+                        .param("sort", "preco,desc")
+                        .param("limite", "2")
+                        .param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].nome", is("Mala P")))
+                .andExpect(header().doesNotExist(ProdutoController.HEADER_PROXIMO_CURSOR));
+    }
+
+    /**
+     * Testa a listagem com ordenação não suportada.
+     * Deve retornar status HTTP 400.
+     */
+    @Test
+    void listarTodos_DeveRetornarBadRequestQuandoOrdenacaoForInvalida() throws Exception {
+        mockMvc.perform(get("/produtos").param("sort", "descricao"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Testa a listagem com limite inválido.
+     * Deve retornar status HTTP 400.
+     */
+    @Test
+    void listarTodos_DeveRetornarBadRequestQuandoLimiteForInvalido() throws Exception {
+        mockMvc.perform(get("/produtos").param("limite", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Testa a busca textual de produtos criados pela API.
+     * Verifica se a busca ignora acentos e retorna os produtos mais relevantes primeiro.
+     */
+    @Test
+    void pesquisar_DeveRetornarProdutosPorRelevancia() throws Exception {
+        // Cria os produtos pela API para que sejam indexados
+        for (ProdutoDTO produtoDTO : List.of(
+                new ProdutoDTO(null, "Pochete Térmica", "Pochete com isolamento", BigDecimal.valueOf(49.90), 3, "Acessórios"),
+                new ProdutoDTO(null, "Bolsa Esportiva", "Acompanha pochete térmica removível", BigDecimal.valueOf(89.90), 2, "Bolsas"))) {
+            mockMvc.perform(post("/produtos")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(produtoDTO)))
+                    .andExpect(status().isCreated());
+        }
+
+        mockMvc.perform(get("/produtos/search").param("q", "pochete termica"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", is(2)))
+                .andExpect(jsonPath("$.itens[0].nome", is("Pochete Térmica")))
+                .andExpect(jsonPath("$.itens[1].nome", is("Bolsa Esportiva")));
+    }
+
+    /**
+     * Testa a exportação do catálogo em NDJSON.
+     * Verifica se cada produto é escrito em uma linha JSON, em ordem de ID.
+     */
+    @Test
+    void exportar_DeveEscreverUmProdutoPorLinha() throws Exception {
+        // Cria e salva dois produtos no banco de dados
+        produtoRepository.saveAll(List.of(
+                new Produto(null, "Produto 1", "Descrição 1", BigDecimal.valueOf(10.99), 5, "Categoria 1"),
+                new Produto(null, "Produto 2", "Descrição 2", BigDecimal.valueOf(20.50), 10, "Categoria 2")));
+
+        // A resposta é escrita de forma assíncrona
+        MvcResult resultado = mockMvc.perform(get("/produtos/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON));
+
+        // Verifica as linhas exportadas
+        String[] linhas = resultado.getResponse().getContentAsString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, linhas.length);
+        assertEquals("Produto 1", objectMapper.readValue(linhas[0], ProdutoDTO.class).getNome());
+        assertEquals("Produto 2", objectMapper.readValue(linhas[1], ProdutoDTO.class).getNome());
+    }
+
     /**
      * Testa a busca de um produto por ID existente.
      * Deve retornar o produto com status HTTP 200.
@@ -99,6 +371,83 @@ class ProdutoControllerTest {
                 .andExpect(jsonPath("$.nome", is("Produto Teste")));
     }
 
+    /**
+     * Testa o cache da busca por ID.
+     * Verifica se leituras repetidas são servidas do cache, sem refletir alterações
+     * feitas direto no banco, e se a atualização pela API substitui a versão em cache.
+     */
+    @Test
+    void buscarPorId_DeveServirDoCacheAteOProdutoSerAtualizado() throws Exception {
+        // Salva um produto e faz a primeira leitura, que preenche o cache
+        Produto produto = produtoRepository.save(
+                new Produto(null, "Produto Original", "Descrição", BigDecimal.valueOf(15.99), 8, "Categoria"));
+        mockMvc.perform(get("/produtos/{id}", produto.getId()))
+                .andExpect(jsonPath("$.nome", is("Produto Original")));
+
+        // Altera o produto direto no banco: a leitura continua vindo do cache
+        produto.setNome("Alterado no Banco");
+        produtoRepository.save(produto);
+        mockMvc.perform(get("/produtos/{id}", produto.getId()))
+                .andExpect(jsonPath("$.nome", is("Produto Original")));
+
+        // A atualização pela API substitui a versão em cache
+        ProdutoDTO produtoDTO = new ProdutoDTO(null, "Atualizado pela API", "Descrição",
+                BigDecimal.valueOf(15.99), 8, "Categoria");
+        mockMvc.perform(put("/produtos/{id}", produto.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(produtoDTO)))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/produtos/{id}", produto.getId()))
+                .andExpect(jsonPath("$.nome", is("Atualizado pela API")));
+
+        // A remoção pela API invalida o cache
+        mockMvc.perform(delete("/produtos/{id}", produto.getId()))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/produtos/{id}", produto.getId()))
+                .andExpect(status().isNotFound());
+    }
+
+    /**
+     * Testa o isolamento das leituras em cache.
+     * Alterar o DTO devolvido por uma leitura não deve mudar o que o cache entrega às seguintes.
+     */
+    @Test
+    void buscarPorId_NaoDeveCompartilharOProdutoEmCacheEntreLeituras() throws Exception {
+        Produto produto = produtoRepository.save(
+                new Produto(null, "Produto Original", "Descrição", BigDecimal.valueOf(15.99), 8, "Categoria"));
+
+        ProdutoDTO primeira = produtoService.buscarPorId(produto.getId());
+        primeira.setNome("Alterado pelo Chamador");
+        ProdutoDTO segunda = produtoService.buscarPorId(produto.getId());
+
+        assertNotSame(primeira, segunda);
+        assertEquals("Produto Original", segunda.getNome());
+        mockMvc.perform(get("/produtos/{id}", produto.getId()))
+                .andExpect(ConsultasSql.total(0))
+                .andExpect(jsonPath("$.nome", is("Produto Original")));
+    }
+
+    /**
+     * Testa a busca condicional por ID.
+     * Verifica se o ETag corresponde à versão do produto e se um If-None-Match
+     * com o ETag atual retorna 304 sem corpo.
+     */
+    @Test
+    void buscarPorId_DeveRetornarNotModifiedQuandoEtagForAtual() throws Exception {
+        Produto produto = produtoRepository.save(
+                new Produto(null, "Produto", "Descrição", BigDecimal.valueOf(15.99), 8, "Categoria"));
+
+        String etag = mockMvc.perform(get("/produtos/{id}", produto.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+                .andExpect(jsonPath("$.versao", is(0)))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/produtos/{id}", produto.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
     /**
      * Testa a busca por um ID que não existe.
      * Deve retornar status HTTP 404 com mensagem de erro.
@@ -110,6 +459,45 @@ class ProdutoControllerTest {
                 .andExpect(jsonPath("$.message", containsString("Produto não encontrado")));
     }
 
+    /**
+     * Testa a busca por uma lista de IDs na URL e no corpo.
+     * Verifica se os produtos vêm na ordem pedida e se os IDs inexistentes são informados.
+     */
+    @Test
+    void buscarPorIds_DeveRetornarNaOrdemPedidaEInformarOsNaoEncontrados() throws Exception {
+        List<Produto> produtos = produtoRepository.saveAll(List.of(
+                new Produto(null, "Produto 1", "Descrição 1", BigDecimal.valueOf(10.99), 5, "Categoria"),
+                new Produto(null, "Produto 2", "Descrição 2", BigDecimal.valueOf(20.50), 10, "Categoria")));
+        Long id1 = produtos.get(0).getId();
+        Long id2 = produtos.get(1).getId();
+
+        mockMvc.perform(get("/produtos").param("ids", id2 + "," + 999L + "," + id1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.produtos[*].nome", contains("Produto 2", "Produto 1")))
+                .andExpect(jsonPath("$.naoEncontrados[*]", contains(999)));
+
+        mockMvc.perform(post("/produtos/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(id1, id2))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.produtos[*].nome", contains("Produto 1", "Produto 2")))
+                .andExpect(jsonPath("$.naoEncontrados", hasSize(0)));
+    }
+
+    /**
+     * Testa a busca por IDs com uma lista vazia ou com um ID inválido.
+     * Deve retornar status HTTP 400.
+     */
+    @Test
+    void buscarPorIds_DeveRetornarBadRequestQuandoListaForInvalida() throws Exception {
+        mockMvc.perform(post("/produtos/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/produtos").param("ids", "1,abc"))
+                .andExpect(status().isBadRequest());
+    }
+
     /**
      * Testa a criação de um novo produto com dados válidos.
      * Deve retornar o produto criado com status HTTP 201.
@@ -133,6 +521,155 @@ class ProdutoControllerTest {
         assertEquals("Novo Produto", produtos.getFirst().getNome());
     }
 
+    /**
+     * Testa a criação em lote a partir de um array JSON.
+     * Verifica se os itens válidos são criados e os inválidos reportados individualmente.
+     */
+    @Test
+    void criarEmLote_DeveCriarItensValidosEReportarInvalidos() throws Exception {
+        List<ProdutoDTO> produtos = List.of(
+                new ProdutoDTO(null, "Produto 1", "Descrição 1", BigDecimal.valueOf(10.99), 5, "Categoria 1"),
+                new ProdutoDTO(null, "", "Descrição 2", BigDecimal.valueOf(20.50), 10, "Categoria 2"),
+                new ProdutoDTO(null, "Produto 3", "Descrição 3", BigDecimal.valueOf(30.00), 15, "Categoria 3"));
+
+        mockMvc.perform(post("/produtos/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(produtos)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", is(3)))
+                .andExpect(jsonPath("$.criados", is(2)))
+                .andExpect(jsonPath("$.falhas", is(1)))
+                .andExpect(jsonPath("$.itens[0].status", is("CRIADO")))
+                .andExpect(jsonPath("$.itens[0].id", notNullValue()))
+                .andExpect(jsonPath("$.itens[1].status", is("INVALIDO")))
+                .andExpect(jsonPath("$.itens[1].erros.nome", notNullValue()))
+                .andExpect(jsonPath("$.itens[2].status", is("CRIADO")));
+
+        assertEquals(2, produtoRepository.count());
+    }
+
+    /**
+     * Testa a criação em lote com um item sem quantidade em um bloco de itens válidos.
+     * Deve reportar só esse item como inválido e criar os demais.
+     */
+    @Test
+    void criarEmLote_DeveReportarItemSemQuantidadeComoInvalido() throws Exception {
+        List<ProdutoDTO> produtos = List.of(
+                new ProdutoDTO(null, "Produto 1", "Descrição 1", BigDecimal.valueOf(10.99), 5, "Categoria 1"),
+                new ProdutoDTO(null, "Produto 2", "Descrição 2", BigDecimal.valueOf(20.50), null, "Categoria 2"),
+                new ProdutoDTO(null, "Produto 3", "Descrição 3", BigDecimal.valueOf(30.00), 15, "Categoria 3"));
+
+        mockMvc.perform(post("/produtos/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(produtos)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.criados", is(2)))
+                .andExpect(jsonPath("$.falhas", is(1)))
+                .andExpect(jsonPath("$.itens[0].status", is("CRIADO")))
+                .andExpect(jsonPath("$.itens[1].status", is("INVALIDO")))
+                .andExpect(jsonPath("$.itens[1].erros.quantidade", is("A quantidade é obrigatória")))
+                .andExpect(jsonPath("$.itens[2].status", is("CRIADO")));
+
+        assertEquals(2, produtoRepository.count());
+    }
+
+    /**
+     * Testa a criação em lote a partir de um fluxo NDJSON.
+     * Verifica se todos os itens são criados.
+     */
+    @Test
+    void criarEmLote_DeveAceitarNdjson() throws Exception {
+        String ndjson = objectMapper.writeValueAsString(
+                new ProdutoDTO(null, "Produto 1", "Descrição 1", BigDecimal.valueOf(10.99), 5, "Categoria 1"))
+                + "\n" + objectMapper.writeValueAsString(
+                new ProdutoDTO(null, "Produto 2", "Descrição 2", BigDecimal.valueOf(20.50), 10, "Categoria 2"))
+                + "\n";
+
+        mockMvc.perform(post("/produtos/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.criados", is(2)))
+                .andExpect(jsonPath("$.falhas", is(0)));
+
+        assertEquals(2, produtoRepository.count());
+    }
+
+    /**
+     * Testa a importação de um CSV enviado como arquivo (multipart).
+     * Deve aceitar a importação (202) e o andamento, consultado pelo endereço do Location,
+     * deve chegar a concluída com as linhas válidas criadas e a inválida reportada.
+     */
+    @Test
+    void importar_DeveProcessarOArquivoEmSegundoPlano() throws Exception {
+        String csv = """
+                nome;descrição;preço;quantidade;categoria
+                Mala;Mala grande;299,90;5;Malas
+                Bolsa;Bolsa de couro;149,90;-1;Bolsas
+                Mochila;Mochila de nylon;89,90;8;Mochilas
+                """;
+        MockMultipartFile arquivo = new MockMultipartFile("arquivo", "catalogo.csv", "text/csv",
+                csv.getBytes(StandardCharsets.UTF_8));
+
+        MvcResult resultado = mockMvc.perform(multipart("/produtos/import").file(arquivo))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string(HttpHeaders.LOCATION, containsString("/produtos/import/")))
+                .andExpect(jsonPath("$.id", notNullValue()))
+                .andReturn();
+        String endereco = resultado.getResponse().getHeader(HttpHeaders.LOCATION);
+
+        JsonNode importacao = aguardarImportacao(endereco);
+        assertEquals("CONCLUIDA", importacao.get("status").asText());
+        assertEquals(3, importacao.get("linhasLidas").asInt());
+        assertEquals(2, importacao.get("criados").asInt());
+        assertEquals(1, importacao.get("linhasComErro").asInt());
+        assertEquals("A quantidade não pode ser negativa", importacao.at("/erros/0/erros/quantidade").asText());
+        assertEquals(2, produtoRepository.count());
+    }
+
+    /**
+     * Testa a importação de um CSV enviado no corpo da requisição sem uma coluna obrigatória.
+     * Deve retornar status HTTP 400 sem criar nenhum produto.
+     */
+    @Test
+    void importar_DeveRetornarBadRequestQuandoFaltarColuna() throws Exception {
+        mockMvc.perform(post("/produtos/import")
+                        .contentType("text/csv")
+                        .content("nome,preco\nMala,10.00\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", containsString("descricao")));
+
+        assertEquals(0, produtoRepository.count());
+    }
+
+    /**
+     * Testa a importação de um corpo text/csv acima do tamanho máximo do arquivo (1MB nos testes).
+     * Deve retornar status HTTP 413 sem criar produtos.
+     */
+    @Test
+    void importar_DeveRetornarPayloadTooLargeQuandoPassarDoTamanhoMaximo() throws Exception {
+        StringBuilder csv = new StringBuilder("nome,descricao,preco,quantidade,categoria\n");
+        while (csv.length() <= 1024 * 1024) {
+            csv.append("Mala,Mala grande,299.90,5,Malas\n");
+        }
+        mockMvc.perform(post("/produtos/import")
+                        .contentType("text/csv")
+                        .content(csv.toString()))
+                .andExpect(status().isPayloadTooLarge());
+
+        assertEquals(0, produtoRepository.count());
+    }
+
+    /**
+     * Testa a consulta de uma importação inexistente.
+     * Deve retornar status HTTP 404.
+     */
+    @Test
+    void acompanharImportacao_DeveRetornarNotFoundQuandoNaoExistir() throws Exception {
+        mockMvc.perform(get("/produtos/import/{id}", "inexistente"))
+                .andExpect(status().isNotFound());
+    }
+
     /**
      * Testa a criação de produto com dados inválidos.
      * Deve retornar status HTTP 400 com detalhes dos erros de validação.
@@ -180,6 +717,65 @@ class ProdutoControllerTest {
                 .andExpect(jsonPath("$.categoria", is("Categoria Atualizada")));
     }
 
+    /**
+     * Testa o fluxo de mudanças em Server-Sent Events.
+     * Deve enviar, em ordem de sequência, cada mudança posterior ao "since" com o estado do produto.
+     */
+    @Test
+    void acompanharMudancas_DeveTransmitirAsMudancasAposASequencia() throws Exception {
+        long since = produtoEventoRepository.ultimaSequencia();
+        Long id = criarViaApi(new ProdutoDTO(null, "Produto", "Descrição", new BigDecimal("10.00"), 5, "Categoria"));
+        mockMvc.perform(put("/produtos/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new ProdutoDTO(null, "Produto Atualizado", "Descrição", new BigDecimal("12.00"), 5, "Categoria"))))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/produtos/{id}/estoque/reservar", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new MovimentoEstoqueDTO(2))))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(delete("/produtos/{id}", id)).andExpect(status().isNoContent());
+
+        MvcResult resultado = mockMvc.perform(get("/produtos/changes").param("since", String.valueOf(since)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        List<JsonNode> eventos = aguardarEventos(resultado, 4);
+        assertEquals(List.of("CRIADO", "ATUALIZADO", "ESTOQUE_AJUSTADO", "REMOVIDO"),
+                eventos.stream().map(evento -> evento.get("tipo").asText()).toList());
+        eventos.forEach(evento -> assertEquals(id, evento.get("produtoId").asLong()));
+        assertEquals("Produto Atualizado", eventos.get(1).get("produto").get("nome").asText());
+        assertEquals(-2, eventos.get(2).get("delta").asLong());
+        assertTrue(eventos.get(0).get("sequencia").asLong() > since);
+    }
+
+    /**
+     * Testa o fluxo de mudanças com um assinante em dia e outro que retoma de uma sequência antiga.
+     * O assinante atrasado lê os eventos anteriores do banco e os dois recebem a mudança seguinte.
+     */
+    @Test
+    void acompanharMudancas_DeveEnviarAosAssinantesEmDiaEAtrasados() throws Exception {
+        long since = produtoEventoRepository.ultimaSequencia();
+        Long anterior = criarViaApi(new ProdutoDTO(null, "Produto Anterior", "Descrição", new BigDecimal("10.00"), 5, "Categoria"));
+
+        MvcResult emDia = mockMvc.perform(get("/produtos/changes"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult atrasado = mockMvc.perform(get("/produtos/changes").param("since", String.valueOf(since)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // Aguarda o assinante em dia alcançar a cabeça do fluxo antes da próxima mudança
+        assertEquals(1, aguardarEventos(atrasado, 1).size());
+        Thread.sleep(200);
+
+        Long novo = criarViaApi(new ProdutoDTO(null, "Produto Novo", "Descrição", new BigDecimal("10.00"), 5, "Categoria"));
+
+        assertEquals(List.of(novo), aguardarEventos(emDia, 1).stream()
+                .map(evento -> evento.get("produtoId").asLong()).toList());
+        assertEquals(List.of(anterior, novo), aguardarEventos(atrasado, 2).stream()
+                .map(evento -> evento.get("produtoId").asLong()).toList());
+    }
+
     /**
      * Testa a atualização de um produto que não existe.
      * Deve retornar status HTTP 404 com mensagem de erro.
@@ -198,6 +794,35 @@ class ProdutoControllerTest {
                 .andExpect(jsonPath("$.message", containsString("Produto não encontrado")));
     }
 
+    /**
+     * Testa a atualização condicional com If-Match.
+     * Com o ETag atual a atualização é aplicada e um novo ETag é devolvido;
+     * repetir a requisição com o ETag antigo deve retornar 412 sem sobrescrever o produto.
+     */
+    @Test
+    void atualizar_DeveRetornarPreconditionFailedQuandoIfMatchEstiverDesatualizado() throws Exception {
+        Produto produto = produtoRepository.save(
+                new Produto(null, "Produto", "Descrição", BigDecimal.valueOf(10.0), 5, "Categoria"));
+        ProdutoDTO produtoDTO = new ProdutoDTO(null, "Primeira Edição", "Descrição",
+                BigDecimal.valueOf(10.0), 5, "Categoria");
+
+        mockMvc.perform(put("/produtos/{id}", produto.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(produtoDTO)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+
+        produtoDTO.setNome("Edição Concorrente");
+        mockMvc.perform(put("/produtos/{id}", produto.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(produtoDTO)))
+                .andExpect(status().isPreconditionFailed());
+
+        assertEquals("Primeira Edição", produtoRepository.findById(produto.getId()).orElseThrow().getNome());
+    }
+
     /**
      * Testa a exclusão de um produto existente.
      * Deve retornar status HTTP 204 (No Content).
@@ -215,6 +840,24 @@ class ProdutoControllerTest {
         assertEquals(0, produtoRepository.count());
     }
 
+    /**
+     * Testa a exclusão condicional com If-Match desatualizado.
+     * Deve retornar status HTTP 412 e manter o produto.
+     */
+    @Test
+    void deletar_DeveRetornarPreconditionFailedQuandoIfMatchEstiverDesatualizado() throws Exception {
+        Produto produto = produtoRepository.save(
+                new Produto(null, "Produto", "Descrição", BigDecimal.valueOf(10.0), 5, "Categoria"));
+
+        mockMvc.perform(delete("/produtos/{id}", produto.getId()).header(HttpHeaders.IF_MATCH, "\"7\""))
+                .andExpect(status().isPreconditionFailed());
+        assertEquals(1, produtoRepository.count());
+
+        mockMvc.perform(delete("/produtos/{id}", produto.getId()).header(HttpHeaders.IF_MATCH, "\"0\""))
+                .andExpect(status().isNoContent());
+        assertEquals(0, produtoRepository.count());
+    }
+
     /**
      * Testa a exclusão de um produto que não existe.
      * Deve retornar status HTTP 404 com mensagem de erro.
@@ -226,6 +869,322 @@ class ProdutoControllerTest {
                 .andExpect(jsonPath("$.message", containsString("Produto não encontrado")));
     }
 
+    /**
+     * Testa a sincronização incremental após um instante.
+     * Verifica se produtos criados, alterados e removidos aparecem uma única vez, na ordem da
+     * última mudança, paginados pelo cursor, e se o último cursor não devolve nada novo.
+     */
+    @Test
+    void sincronizar_DeveRetornarAlteradosERemovidosAposOInstante() throws Exception {
+        Instant inicio = Produto.agora();
+        Long id1 = criarViaApi(new ProdutoDTO(null, "Produto 1", "Descrição", new BigDecimal("10.00"), 5, "Categoria"));
+        Long id2 = criarViaApi(new ProdutoDTO(null, "Produto 2", "Descrição", new BigDecimal("20.00"), 5, "Categoria"));
+        Long id3 = criarViaApi(new ProdutoDTO(null, "Produto 3", "Descrição", new BigDecimal("30.00"), 5, "Categoria"));
+        mockMvc.perform(post("/produtos/{id}/estoque/reservar", id1)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new MovimentoEstoqueDTO(1))))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(delete("/produtos/{id}", id2))
+                .andExpect(status().isNoContent());
+
+        // Primeira página: o produto 3 e o produto 1, que foi alterado depois
+        MvcResult primeira = mockMvc.perform(get("/produtos")
+                        .param("modifiedSince", inicio.toString())
+                        .param("limite", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.alterados[*].id", contains(id3.intValue(), id1.intValue())))
+                .andExpect(jsonPath("$.alterados[1].quantidade", is(4)))
+                .andExpect(jsonPath("$.alterados[1].atualizadoEm").exists())
+                .andExpect(jsonPath("$.removidos", hasSize(0)))
+                .andExpect(jsonPath("$.temMais", is(true)))
+                .andReturn();
+        String cursor = objectMapper.readTree(primeira.getResponse().getContentAsString()).get("proximoCursor").asText();
+
+        // Segunda página: a remoção do produto 2
+        MvcResult segunda = mockMvc.perform(get("/produtos")
+                        .param("modifiedSince", inicio.toString())
+                        .param("cursor", cursor)
+                        .param("limite", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.alterados", hasSize(0)))
+                .andExpect(jsonPath("$.removidos[*]", contains(id2.intValue())))
+                .andExpect(jsonPath("$.temMais", is(false)))
+                .andReturn();
+        cursor = objectMapper.readTree(segunda.getResponse().getContentAsString()).get("proximoCursor").asText();
+
+        // Sem mudanças novas, o cursor se mantém
+        mockMvc.perform(get("/produtos")
+                        .param("modifiedSince", inicio.toString())
+                        .param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.alterados", hasSize(0)))
+                .andExpect(jsonPath("$.removidos", hasSize(0)))
+                .andExpect(jsonPath("$.proximoCursor", is(cursor)))
+                .andExpect(jsonPath("$.temMais", is(false)));
+    }
+
+    /**
+     * Testa a sincronização com um cursor mal formado.
+     * Deve retornar status HTTP 400.
+     */
+    @Test
+    void sincronizar_DeveRetornarBadRequestQuandoCursorForInvalido() throws Exception {
+        mockMvc.perform(get("/produtos")
+                        .param("modifiedSince", "2025-01-10T12:00:00Z")
+                        .param("cursor", "abc"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Testa a reserva e a liberação de estoque.
+     * Verifica se a quantidade é decrementada e incrementada no banco.
+     */
+    @Test
+    void reservarELiberarEstoque_DevemAtualizarQuantidade() throws Exception {
+        Produto produto = produtoRepository.save(
+                new Produto(null, "Produto", "Descrição", BigDecimal.valueOf(10.0), 5, "Categoria"));
+
+        mockMvc.perform(post("/produtos/{id}/estoque/reservar", produto.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new MovimentoEstoqueDTO(3))))
+                .andExpect(status().isNoContent());
+        assertEquals(2, produtoRepository.findById(produto.getId()).orElseThrow().getQuantidade());
+
+        mockMvc.perform(post("/produtos/{id}/estoque/liberar", produto.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new MovimentoEstoqueDTO(1))))
+                .andExpect(status().isNoContent());
+        assertEquals(3, produtoRepository.findById(produto.getId()).orElseThrow().getQuantidade());
+    }
+
+    /**
+     * Testa a reserva acima do estoque disponível.
+     * Deve retornar status HTTP 409 sem alterar a quantidade.
+     */
+    @Test
+    void reservarEstoque_DeveRetornarConflictQuandoEstoqueForInsuficiente() throws Exception {
+        Produto produto = produtoRepository.save(
+                new Produto(null, "Produto", "Descrição", BigDecimal.valueOf(10.0), 2, "Categoria"));
+
+        mockMvc.perform(post("/produtos/{id}/estoque/reservar", produto.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new MovimentoEstoqueDTO(3))))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message", containsString("Estoque insuficiente")));
+        assertEquals(2, produtoRepository.findById(produto.getId()).orElseThrow().getQuantidade());
+    }
+
+    /**
+     * Testa a reserva de estoque de um produto que não existe.
+     * Deve retornar status HTTP 404.
+     */
+    @Test
+    void reservarEstoque_DeveRetornarNotFoundQuandoProdutoNaoExistir() throws Exception {
+        mockMvc.perform(post("/produtos/{id}/estoque/reservar", 999L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new MovimentoEstoqueDTO(1))))
+                .andExpect(status().isNotFound());
+    }
+
+    /**
+     * Testa o reajuste de preço e a entrada de estoque em massa por categoria.
+     * Deve alterar só os produtos da categoria com um único UPDATE, incrementando a versão.
+     */
+    @Test
+    void atualizarEmMassa_DeveReajustarPrecoESomarQuantidadePorCategoria() throws Exception {
+        Produto produto1 = new Produto(null, "Produto 1", "Descrição", new BigDecimal("10.00"), 5, "Eletrônicos");
+        Produto produto2 = new Produto(null, "Produto 2", "Descrição", new BigDecimal("19.99"), 1, "Eletrônicos");
+        Produto produto3 = new Produto(null, "Produto 3", "Descrição", new BigDecimal("30.00"), 7, "Livros");
+        produtoRepository.saveAll(List.of(produto1, produto2, produto3));
+        AtualizacaoEmMassaDTO atualizacao = new AtualizacaoEmMassaDTO("Eletrônicos", null, null, new BigDecimal("1.10"), 2);
+
+        mockMvc.perform(patch("/produtos")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(atualizacao)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.afetados", is(2)))
+                .andExpect(jsonPath("$.naoEncontrados").doesNotExist())
+                // O UPDATE, a releitura dos produtos alterados (em um único bloco) e o INSERT em lote dos eventos
+                .andExpect(ConsultasSql.total(3));
+
+        Produto atualizado1 = produtoRepository.findById(produto1.getId()).orElseThrow();
+        Produto atualizado2 = produtoRepository.findById(produto2.getId()).orElseThrow();
+        Produto inalterado = produtoRepository.findById(produto3.getId()).orElseThrow();
+        assertEquals(0, new BigDecimal("11.00").compareTo(atualizado1.getPreco()));
+        assertEquals(7, atualizado1.getQuantidade());
+        assertEquals(produto1.getVersao() + 1, atualizado1.getVersao());
+        assertEquals(0, new BigDecimal("21.99").compareTo(atualizado2.getPreco()));
+        assertEquals(3, atualizado2.getQuantidade());
+        assertEquals(0, new BigDecimal("30.00").compareTo(inalterado.getPreco()));
+        assertEquals(produto3.getVersao(), inalterado.getVersao());
+    }
+
+    /**
+     * Testa a retirada de estoque em massa acima do disponível em algum produto.
+     * Deve retornar status HTTP 409 sem alterar nenhum produto.
+     */
+    @Test
+    void atualizarEmMassa_DeveRetornarConflictQuandoEstoqueFicariaNegativo() throws Exception {
+        Produto produto1 = new Produto(null, "Produto 1", "Descrição", new BigDecimal("10.00"), 5, "Categoria");
+        Produto produto2 = new Produto(null, "Produto 2", "Descrição", new BigDecimal("20.00"), 1, "Categoria");
+        produtoRepository.saveAll(List.of(produto1, produto2));
+        AtualizacaoEmMassaDTO atualizacao = new AtualizacaoEmMassaDTO(
+                null, List.of(produto1.getId(), produto2.getId()), null, null, -2);
+
+        mockMvc.perform(patch("/produtos")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(atualizacao)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message", containsString("Estoque insuficiente")))
+                // O UPDATE e a contagem dos produtos que ficaram negativos, desfeitos pelo rollback
+                .andExpect(ConsultasSql.total(2));
+        assertEquals(5, produtoRepository.findById(produto1.getId()).orElseThrow().getQuantidade());
+        assertEquals(1, produtoRepository.findById(produto2.getId()).orElseThrow().getQuantidade());
+    }
+
+    /**
+     * Testa os eventos de uma atualização em massa maior que um bloco de releitura.
+     * Cada produto alterado deve gerar um evento, com os produtos relidos em blocos de mil.
+     */
+    @Test
+    void atualizarEmMassa_DevePublicarUmEventoPorProdutoEmBlocos() throws Exception {
+        List<Produto> produtos = new ArrayList<>();
+        for (int i = 0; i < 1_001; i++) {
+            produtos.add(new Produto(null, "Produto " + i, "Descrição", new BigDecimal("10.00"), 5, "Em Massa"));
+        }
+        produtoRepository.saveAll(produtos);
+        long sequenciaAntes = produtoEventoRepository.ultimaSequencia();
+
+        mockMvc.perform(patch("/produtos")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new AtualizacaoEmMassaDTO("Em Massa", null, null, null, -1))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.afetados", is(1_001)));
+
+        assertEquals(sequenciaAntes + 1_001, produtoEventoRepository.ultimaSequencia());
+        assertEquals(4, produtoRepository.findById(produtos.getLast().getId()).orElseThrow().getQuantidade());
+    }
+
+    /**
+     * Testa a atualização em massa sem critério de seleção ou com operações conflitantes.
+     * Deve retornar status HTTP 400.
+     */
+    @Test
+    void atualizarEmMassa_DeveRetornarBadRequestQuandoFaltarCriterioOuOperacoesConflitarem() throws Exception {
+        mockMvc.perform(patch("/produtos")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new AtualizacaoEmMassaDTO(null, null, new BigDecimal("5.00"), null, null))))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(patch("/produtos")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new AtualizacaoEmMassaDTO("Categoria", null, new BigDecimal("5.00"), new BigDecimal("1.10"), null))))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Testa o JSON Merge Patch por ID.
+     * Deve alterar só os campos informados e reportar os IDs inexistentes.
+     */
+    @Test
+    void aplicarMergePatch_DeveAlterarSomenteOsCamposInformados() throws Exception {
+        Produto produto1 = new Produto(null, "Produto 1", "Descrição 1", new BigDecimal("10.00"), 5, "Categoria");
+        Produto produto2 = new Produto(null, "Produto 2", "Descrição 2", new BigDecimal("20.00"), 8, "Categoria");
+        produtoRepository.saveAll(List.of(produto1, produto2));
+        String patches = "{\"" + produto1.getId() + "\": {\"preco\": 12.50},"
+                + " \"" + produto2.getId() + "\": {\"nome\": \"Produto Renomeado\", \"quantidade\": 0},"
+                + " \"999999\": {\"preco\": 1.00}}";
+
+        mockMvc.perform(patch("/produtos")
+                        .contentType(ProdutoController.APPLICATION_MERGE_PATCH_JSON_VALUE)
+                        .content(patches))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.afetados", is(2)))
+                .andExpect(jsonPath("$.naoEncontrados", contains(999999)));
+
+        Produto atualizado1 = produtoRepository.findById(produto1.getId()).orElseThrow();
+        Produto atualizado2 = produtoRepository.findById(produto2.getId()).orElseThrow();
+        assertEquals(0, new BigDecimal("12.50").compareTo(atualizado1.getPreco()));
+        assertEquals("Produto 1", atualizado1.getNome());
+        assertEquals("Produto Renomeado", atualizado2.getNome());
+        assertEquals("Descrição 2", atualizado2.getDescricao());
+        assertEquals(0, atualizado2.getQuantidade());
+    }
+
+    /**
+     * Testa um JSON Merge Patch que remove um campo obrigatório.
+     * Deve retornar status HTTP 400 sem alterar nenhum produto.
+     */
+    @Test
+    void aplicarMergePatch_DeveRetornarBadRequestQuandoPatchDeixarProdutoInvalido() throws Exception {
+        Produto produto1 = new Produto(null, "Produto 1", "Descrição 1", new BigDecimal("10.00"), 5, "Categoria");
+        Produto produto2 = new Produto(null, "Produto 2", "Descrição 2", new BigDecimal("20.00"), 8, "Categoria");
+        produtoRepository.saveAll(List.of(produto1, produto2));
+        String patches = "{\"" + produto1.getId() + "\": {\"preco\": 12.50},"
+                + " \"" + produto2.getId() + "\": {\"descricao\": null}}";
+
+        mockMvc.perform(patch("/produtos")
+                        .contentType(ProdutoController.APPLICATION_MERGE_PATCH_JSON_VALUE)
+                        .content(patches))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", containsString("descricao")));
+        assertEquals(0, new BigDecimal("10.00").compareTo(produtoRepository.findById(produto1.getId()).orElseThrow().getPreco()));
+        assertEquals("Descrição 2", produtoRepository.findById(produto2.getId()).orElseThrow().getDescricao());
+    }
+
+    /**
+     * Fixa a quantidade de comandos SQL emitidos por endpoint, para detectar idas ao banco redundantes.
+     */
+    @Test
+    void consultasSql_DevemSerOMinimoPorEndpoint() throws Exception {
+        Produto produto = produtoRepository.save(
+                new Produto(null, "Produto", "Descrição", BigDecimal.valueOf(10.0), 5, "Categoria"));
+        ProdutoDTO produtoDTO = new ProdutoDTO(null, "Produto Novo", "Descrição",
+                BigDecimal.valueOf(12.0), 3, "Categoria");
+
+        // INSERT do produto e do evento
+        mockMvc.perform(post("/produtos")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(produtoDTO)))
+                .andExpect(status().isCreated())
+                .andExpect(ConsultasSql.total(2));
+
+        // SELECT na primeira leitura; a segunda vem do cache
+        mockMvc.perform(get("/produtos/{id}", produto.getId())).andExpect(ConsultasSql.total(1));
+        mockMvc.perform(get("/produtos/{id}", produto.getId())).andExpect(ConsultasSql.total(0));
+
+        // Busca por IDs: um SELECT ... IN só para os IDs fora do cache
+        mockMvc.perform(get("/produtos").param("ids", produto.getId() + ",999999")).andExpect(ConsultasSql.total(1));
+        mockMvc.perform(get("/produtos").param("ids", String.valueOf(produto.getId()))).andExpect(ConsultasSql.total(0));
+
+        // SELECT da página (com um registro a mais para saber se há próxima página)
+        mockMvc.perform(get("/produtos").param("limite", "10")).andExpect(ConsultasSql.total(1));
+
+        // SELECT + UPDATE + INSERT do evento
+        mockMvc.perform(put("/produtos/{id}", produto.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(produtoDTO)))
+                .andExpect(status().isOk())
+                .andExpect(ConsultasSql.total(3));
+
+        // UPDATE condicional + INSERT do evento
+        mockMvc.perform(post("/produtos/{id}/estoque/reservar", produto.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new MovimentoEstoqueDTO(1))))
+                .andExpect(status().isNoContent())
+                .andExpect(ConsultasSql.total(2));
+
+        // DELETE e INSERT do registro de remoção e do evento; só o DELETE quando o produto não existe
+        mockMvc.perform(delete("/produtos/{id}", produto.getId()))
+                .andExpect(status().isNoContent())
+                .andExpect(ConsultasSql.total(3));
+        mockMvc.perform(delete("/produtos/{id}", produto.getId()))
+                .andExpect(status().isNotFound())
+                .andExpect(ConsultasSql.total(1));
+    }
+
     /**
      * Testa o tratamento de JSON mal formado na criação.
      * Deve retornar status HTTP 400.
@@ -266,5 +1225,45 @@ class ProdutoControllerTest {
         mockMvc.perform(get("/produtos/{id}", "abc"))
                 .andExpect(status().isBadRequest());
     }
-}
 
+    private Long criarViaApi(ProdutoDTO produtoDTO) throws Exception {
+        MvcResult resultado = mockMvc.perform(post("/produtos")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(produtoDTO)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        return objectMapper.readValue(resultado.getResponse().getContentAsString(), ProdutoDTO.class).getId();
+    }
+
+    // Consulta o andamento da importação até ela terminar
+    private JsonNode aguardarImportacao(String endereco) throws Exception {
+        long limite = System.currentTimeMillis() + 5_000;
+        while (true) {
+            String corpo = mockMvc.perform(get(endereco))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+            JsonNode importacao = objectMapper.readTree(corpo);
+            if (!importacao.get("status").asText().equals("EM_ANDAMENTO") || System.currentTimeMillis() > limite) {
+                return importacao;
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    // Lê os eventos SSE recebidos até o momento, esperando até chegarem os esperados
+    private List<JsonNode> aguardarEventos(MvcResult resultado, int esperados) throws Exception {
+        long limite = System.currentTimeMillis() + 5_000;
+        while (true) {
+            List<JsonNode> eventos = new ArrayList<>();
+            for (String linha : resultado.getResponse().getContentAsString(StandardCharsets.UTF_8).split("\n")) {
+                if (linha.startsWith("data:")) {
+                    eventos.add(objectMapper.readTree(linha.substring("data:".length())));
+                }
+            }
+            if (eventos.size() >= esperados || System.currentTimeMillis() > limite) {
+                return eventos;
+            }
+            Thread.sleep(50);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.bagaggio.gerenciar_produtos.controller;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Teste de carga da exportação NDJSON ({@code GET /produtos/export}).
+ * Exporta um milhão de produtos com heap reduzido para comprovar que o uso de memória
+ * não cresce com o tamanho da tabela. Usa um H2 em arquivo para que os dados não ocupem o heap.
+ * Executar com: mvn test -Pperformance
+ */
+@Slf4j
+@Tag("performance")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:file:./target/h2/exportacao;MODE=MYSQL;CACHE_SIZE=8192",
+        "spring.jpa.show-sql=false"
+})
+@ActiveProfiles("test")
+class ProdutoExportacaoCargaTest {
+
+    private static final int TOTAL_PRODUTOS = 1_000_000;
+    private static final int TAMANHO_LOTE = 100_000;
+    private static final long HEAP_MAXIMO = 256L * 1024 * 1024;
+    /** Vazão mínima aceitável; abaixo disso a exportação passou a materializar ou bloquear. */
+    private static final double VAZAO_MINIMA = 10_000;
+
+    @LocalServerPort
+    private int porta;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Popula a tabela em lotes diretamente no H2, sem passar pela aplicação.
+     */
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM tb_produtos");
+        for (int inicio = 1; inicio <= TOTAL_PRODUTOS; inicio += TAMANHO_LOTE) {
+            jdbcTemplate.update("""
+                    INSERT INTO tb_produtos (nome, descricao, preco, quantidade, categoria, versao, criado_em, atualizado_em)
+                    SELECT CONCAT('Produto ', X), CONCAT('Descrição do produto ', X), 10.00 + MOD(X, 100), MOD(X, 50), CONCAT('Categoria ', MOD(X, 20)), 0,
+                           CURRENT_TIMESTAMP, CURRENT_TIMESTAMP
+                    FROM SYSTEM_RANGE(?, ?)
+                    """, inicio, inicio + TAMANHO_LOTE - 1);
+        }
+    }
+
+    /**
+     * Exporta todos os produtos e conta as linhas recebidas.
+     * Com heap de 256 MB, materializar a tabela inteira resultaria em OutOfMemoryError.
+     */
+    @Test
+    void exportar_DeveExportarUmMilhaoDeProdutosComHeapReduzido() throws Exception {
+        assumeTrue(Runtime.getRuntime().maxMemory() <= HEAP_MAXIMO, "Execute com o perfil performance (-Xmx256m)");
+
+        HttpClient cliente = HttpClient.newHttpClient();
+        HttpRequest requisicao = HttpRequest.newBuilder(URI.create("http://localhost:" + porta + "/produtos/export")).build();
+
+        long inicio = System.nanoTime();
+        HttpResponse<InputStream> resposta = cliente.send(requisicao, HttpResponse.BodyHandlers.ofInputStream());
+        assertEquals(200, resposta.statusCode());
+
+        long linhas = 0;
+        try (BufferedReader leitor = new BufferedReader(new InputStreamReader(resposta.body(), StandardCharsets.UTF_8))) {
+            String linha;
+            while ((linha = leitor.readLine()) != null) {
+                assertTrue(linha.startsWith("{"), "Cada linha deveria conter um objeto JSON");
+                linhas++;
+            }
+        }
+        long duracaoMs = (System.nanoTime() - inicio) / 1_000_000;
+
+        double vazao = linhas * 1000.0 / Math.max(duracaoMs, 1);
+        log.info("Exportação NDJSON: {} produtos em {} ms ({} produtos/s)", linhas, duracaoMs, Math.round(vazao));
+
+        assertEquals(TOTAL_PRODUTOS, linhas);
+        assertTrue(vazao >= VAZAO_MINIMA,
+                "Vazão da exportação abaixo do mínimo: " + Math.round(vazao) + " produtos/s (mínimo " + Math.round(VAZAO_MINIMA) + ")");
+    }
+}
@@ -0,0 +1,135 @@
+package com.bagaggio.gerenciar_produtos.controller;
+
+import com.bagaggio.gerenciar_produtos.GerenciarProdutosApplication;
+import com.bagaggio.gerenciar_produtos.model.Produto;
+import com.bagaggio.gerenciar_produtos.repository.ProdutoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Teste de carga comparando a vazão da API com o pool de threads padrão do Tomcat
+ * e com o perfil "virtual-threads", com mais de mil clientes simultâneos contra o H2.
+ * Cada modo sobe sua própria instância da aplicação, com um banco H2 em memória separado.
+ * Executar com: mvn test -Pperformance
+ */
+@Slf4j
+@Tag("performance")
+class ProdutoVirtualThreadsCargaTest {
+
+    private static final int CLIENTES = 1_200;
+    private static final int REQUISICOES_POR_CLIENTE = 20;
+    private static final int TOTAL_PRODUTOS = 2_000;
+    /** Fração da vazão da plataforma que as virtual threads precisam atingir (margem para o ruído da medição). */
+    private static final double VAZAO_MINIMA_RELATIVA = 0.9;
+
+    /**
+     * Mede a vazão nos dois modos e registra a comparação no log.
+     * Todas as requisições devem ser atendidas com sucesso em ambos, e as virtual threads
+     * não podem ter vazão pior que a do pool de threads da plataforma.
+     */
+    @Test
+    void virtualThreads_DeveAtenderMilClientesSimultaneosComparandoComPlataforma() throws Exception {
+        double vazaoPlataforma = medirVazao("plataforma");
+        double vazaoVirtual = medirVazao("virtual-threads");
+
+        log.info("Vazão com {} clientes: plataforma {} req/s, virtual threads {} req/s ({}x)", CLIENTES,
+                Math.round(vazaoPlataforma), Math.round(vazaoVirtual), String.format("%.2f", vazaoVirtual / vazaoPlataforma));
+
+        assertTrue(vazaoVirtual >= vazaoPlataforma * VAZAO_MINIMA_RELATIVA,
+                "Vazão com virtual threads (" + Math.round(vazaoVirtual) + " req/s) abaixo da plataforma ("
+                        + Math.round(vazaoPlataforma) + " req/s)");
+    }
+
+    private double medirVazao(String modo) throws Exception {
+        SpringApplicationBuilder aplicacao = new SpringApplicationBuilder(GerenciarProdutosApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:carga-" + modo + ";DB_CLOSE_DELAY=-1;MODE=MYSQL",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN",
+                        "logging.level." + ProdutoVirtualThreadsCargaTest.class.getName() + "=INFO");
+        aplicacao = modo.equals("virtual-threads")
+                ? aplicacao.profiles("test", "virtual-threads")
+                : aplicacao.profiles("test");
+
+        try (ConfigurableApplicationContext contexto = aplicacao.run()) {
+            contexto.getBean(ProdutoRepository.class).saveAll(IntStream.rangeClosed(1, TOTAL_PRODUTOS)
+                    .mapToObj(i -> new Produto(null, "Produto " + i, "Descrição do produto " + i,
+                            BigDecimal.valueOf(10 + i % 100), i % 50, "Categoria " + i % 20))
+                    .toList());
+            String base = "http://localhost:" + contexto.getEnvironment().getProperty("local.server.port") + "/produtos";
+
+            // Aquecimento: carrega classes, JIT e conexões antes da medição
+            executarClientes(base, 100, 5);
+
+            long inicio = System.nanoTime();
+            int sucessos = executarClientes(base, CLIENTES, REQUISICOES_POR_CLIENTE);
+            double segundos = (System.nanoTime() - inicio) / 1e9;
+
+            assertEquals(CLIENTES * REQUISICOES_POR_CLIENTE, sucessos, "Todas as requisições deveriam ser atendidas no modo " + modo);
+            return sucessos / segundos;
+        }
+    }
+
+    /**
+     * Dispara os clientes ao mesmo tempo, cada um em sua virtual thread para que o lado do cliente
+     * não limite a concorrência, alternando listagens paginadas (que vão ao banco) e buscas por ID.
+     * @return quantidade de respostas 200 recebidas
+     */
+    private int executarClientes(String base, int clientes, int requisicoesPorCliente) throws Exception {
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        AtomicInteger sucessos = new AtomicInteger();
+        CountDownLatch largada = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (int c = 0; c < clientes; c++) {
+                int cliente = c;
+                tarefas.add(executor.submit(() -> {
+                    largada.await();
+                    for (int i = 0; i < requisicoesPorCliente; i++) {
+                        String uri = i % 2 == 0
+                                ? base + "?categoria=Categoria%20" + (cliente + i) % 20 + "&limite=20"
+                                : base + "/" + (1 + (cliente * requisicoesPorCliente + i) % TOTAL_PRODUTOS);
+                        HttpResponse<Void> resposta = http.send(HttpRequest.newBuilder(URI.create(uri))
+                                .timeout(Duration.ofMinutes(1)).build(), HttpResponse.BodyHandlers.discarding());
+                        if (resposta.statusCode() == 200) {
+                            sucessos.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            largada.countDown();
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get(5, TimeUnit.MINUTES);
+            }
+        }
+        return sucessos.get();
+    }
+}
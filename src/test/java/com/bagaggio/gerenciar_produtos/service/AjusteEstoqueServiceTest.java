@@ -0,0 +1,207 @@
+package com.bagaggio.gerenciar_produtos.service;
+
+import com.bagaggio.gerenciar_produtos.repository.ProdutoLoteRepository;
+import com.bagaggio.gerenciar_produtos.repository.ProdutoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionSystemException;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para {@link AjusteEstoqueService} no modo write-behind.
+ * Documentam o que acontece com os ajustes pendentes em falhas do banco e no desligamento.
+ */
+@ExtendWith(MockitoExtension.class)
+class AjusteEstoqueServiceTest {
+
+    @Mock
+    private ProdutoRepository produtoRepository;
+
+    @Mock
+    private ProdutoLoteRepository produtoLoteRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private AjusteEstoqueService ajusteEstoqueService;
+
+    @BeforeEach
+    void setUp() {
+        ajusteEstoqueService = new AjusteEstoqueService(produtoRepository, produtoLoteRepository,
+                new ConcurrentMapCacheManager(), eventPublisher, transactionManager, 60, true);
+    }
+
+    /**
+     * Testa a coalescência dos ajustes.
+     * Vários deltas do mesmo produto devem virar um único UPDATE com a soma,
+     * e nada é gravado no banco antes da descarga.
+     */
+    @Test
+    void descarregar_DeveCoalescerDeltasPorProduto() {
+        ajusteEstoqueService.ajustar(1L, 5);
+        ajusteEstoqueService.ajustar(1L, -2);
+        ajusteEstoqueService.ajustar(2L, 1);
+
+        // Até a descarga, os ajustes existem somente em memória
+        verifyNoInteractions(produtoLoteRepository, produtoRepository);
+        assertEquals(3, ajusteEstoqueService.pendente(1L));
+
+        when(produtoLoteRepository.ajustarEstoque(anyMap())).thenReturn(new int[]{1, 1});
+        assertEquals(2, ajusteEstoqueService.descarregar());
+
+        verify(produtoLoteRepository).ajustarEstoque(Map.of(1L, 3L, 2L, 1L));
+        verify(eventPublisher).publishEvent(new EstoqueAjustadoEvent(1L, 3L));
+        verify(eventPublisher).publishEvent(new EstoqueAjustadoEvent(2L, 1L));
+        assertEquals(0, ajusteEstoqueService.pendente(1L));
+        assertEquals(0, ajusteEstoqueService.descarregar(), "Não deveria haver nada a descarregar");
+    }
+
+    /**
+     * Testa uma descarga que falha no banco.
+     * O batch é atômico, então os deltas devem voltar aos contadores
+     * e ser gravados uma única vez na próxima descarga.
+     */
+    @Test
+    void descarregar_DeveReenfileirarDeltasQuandoBancoFalhar() {
+        ajusteEstoqueService.ajustar(1L, 4);
+        when(produtoLoteRepository.ajustarEstoque(anyMap()))
+                .thenThrow(new QueryTimeoutException("Banco indisponível"))
+                .thenReturn(new int[]{1});
+
+        assertEquals(0, ajusteEstoqueService.descarregar());
+        assertEquals(4, ajusteEstoqueService.pendente(1L), "Os deltas deveriam voltar para a fila");
+
+        // Ajustes recebidos durante a falha se somam aos reenfileirados
+        ajusteEstoqueService.ajustar(1L, 1);
+        assertEquals(1, ajusteEstoqueService.descarregar());
+        verify(produtoLoteRepository, times(2)).ajustarEstoque(anyMap());
+        verify(produtoLoteRepository).ajustarEstoque(Map.of(1L, 5L));
+        assertEquals(0, ajusteEstoqueService.pendente(1L));
+    }
+
+    /**
+     * Testa descargas que falham ao abrir e ao confirmar a transação.
+     * Essas falhas não são DataAccessException, mas os deltas também devem voltar aos contadores
+     * e ser gravados na próxima descarga.
+     */
+    @Test
+    void descarregar_DeveReenfileirarDeltasQuandoTransacaoFalhar() {
+        ajusteEstoqueService.ajustar(1L, 4);
+        when(transactionManager.getTransaction(any()))
+                .thenThrow(new CannotCreateTransactionException("Sem conexão"))
+                .thenReturn(null);
+        doThrow(new TransactionSystemException("Falha no commit"))
+                .doNothing()
+                .when(transactionManager).commit(any());
+        when(produtoLoteRepository.ajustarEstoque(anyMap())).thenReturn(new int[]{1});
+
+        assertEquals(0, ajusteEstoqueService.descarregar());
+        assertEquals(4, ajusteEstoqueService.pendente(1L), "Os deltas deveriam voltar após a falha ao abrir a transação");
+        assertEquals(0, ajusteEstoqueService.descarregar());
+        assertEquals(4, ajusteEstoqueService.pendente(1L), "Os deltas deveriam voltar após a falha no commit");
+
+        assertEquals(1, ajusteEstoqueService.descarregar());
+        verify(produtoLoteRepository, times(2)).ajustarEstoque(Map.of(1L, 4L));
+        assertEquals(0, ajusteEstoqueService.pendente(1L));
+    }
+
+    /**
+     * Testa o desligamento da aplicação.
+     * Os ajustes pendentes devem ser descarregados antes de o contexto ser encerrado.
+     */
+    @Test
+    void drenar_DeveDescarregarAjustesPendentesNoDesligamento() {
+        ajusteEstoqueService.ajustar(7L, -3);
+        when(produtoLoteRepository.ajustarEstoque(anyMap())).thenReturn(new int[]{1});
+
+        ajusteEstoqueService.drenar();
+
+        verify(produtoLoteRepository).ajustarEstoque(Map.of(7L, -3L));
+        assertEquals(0, ajusteEstoqueService.pendente(7L));
+    }
+
+    /**
+     * Testa o descarte de ajustes de produtos inexistentes.
+     * Um UPDATE sem linhas afetadas remove o contador do produto.
+     */
+    @Test
+    void descarregar_DeveDescartarAjustesDeProdutoInexistente() {
+        ajusteEstoqueService.ajustar(99L, 2);
+        when(produtoLoteRepository.ajustarEstoque(anyMap())).thenReturn(new int[]{0});
+
+        assertEquals(0, ajusteEstoqueService.descarregar());
+        assertEquals(0, ajusteEstoqueService.pendente(99L));
+    }
+
+    /**
+     * Testa o modo desabilitado.
+     * Cada ajuste deve ser gravado imediatamente com um único UPDATE.
+     */
+    @Test
+    void ajustar_DeveGravarImediatamenteQuandoWriteBehindEstiverDesabilitado() {
+        AjusteEstoqueService direto = new AjusteEstoqueService(produtoRepository, produtoLoteRepository,
+                new ConcurrentMapCacheManager(), eventPublisher, transactionManager, 60, false);
+        when(produtoRepository.ajustarEstoque(1L, -1)).thenReturn(1);
+
+        direto.ajustar(1L, -1);
+
+        verify(produtoRepository).ajustarEstoque(1L, -1);
+        assertEquals(0, direto.pendente(1L));
+        verifyNoInteractions(produtoLoteRepository);
+    }
+
+    /**
+     * Testa a atomicidade do ajuste imediato.
+     * O UPDATE e a publicação do evento, gravado no outbox no commit, devem ocorrer na mesma transação,
+     * aberta com o timeout de escrita.
+     */
+    @Test
+    void ajustar_DevePublicarOEventoNaTransacaoDoUpdate() {
+        AjusteEstoqueService direto = new AjusteEstoqueService(produtoRepository, produtoLoteRepository,
+                new ConcurrentMapCacheManager(), eventPublisher, transactionManager, 60, false);
+        when(produtoRepository.ajustarEstoque(1L, 3)).thenReturn(1);
+
+        direto.ajustar(1L, 3);
+
+        InOrder ordem = inOrder(transactionManager, produtoRepository, eventPublisher);
+        ordem.verify(transactionManager).getTransaction(argThat(definicao -> definicao.getTimeout() == 60));
+        ordem.verify(produtoRepository).ajustarEstoque(1L, 3);
+        ordem.verify(eventPublisher).publishEvent(new EstoqueAjustadoEvent(1L, 3));
+        ordem.verify(transactionManager).commit(any());
+    }
+
+    /**
+     * Testa a atomicidade da descarga.
+     * O batch de UPDATEs e a publicação dos eventos devem ocorrer na mesma transação.
+     */
+    @Test
+    void descarregar_DevePublicarOsEventosNaTransacaoDoBatch() {
+        ajusteEstoqueService.ajustar(1L, -4);
+        when(produtoLoteRepository.ajustarEstoque(anyMap())).thenReturn(new int[]{1});
+
+        assertEquals(1, ajusteEstoqueService.descarregar());
+
+        InOrder ordem = inOrder(transactionManager, produtoLoteRepository, eventPublisher);
+        ordem.verify(transactionManager).getTransaction(any());
+        ordem.verify(produtoLoteRepository).ajustarEstoque(Map.of(1L, -4L));
+        ordem.verify(eventPublisher).publishEvent(new EstoqueAjustadoEvent(1L, -4));
+        ordem.verify(transactionManager).commit(any());
+    }
+}
@@ -0,0 +1,89 @@
+package com.bagaggio.gerenciar_produtos.service;
+
+import com.bagaggio.gerenciar_produtos.model.Produto;
+import com.bagaggio.gerenciar_produtos.repository.ProdutoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Teste de integração do modo write-behind dos ajustes de estoque.
+ * O intervalo de descarga é longo para que as descargas sejam disparadas pelo próprio teste.
+ */
+@SpringBootTest(properties = {
+        "produtos.estoque.write-behind.habilitado=true",
+        "produtos.estoque.write-behind.intervalo-ms=3600000",
+        "spring.jpa.show-sql=false"
+})
+@ActiveProfiles("test")
+class AjusteEstoqueWriteBehindTest {
+
+    private static final int THREADS = 32;
+    private static final int AJUSTES_POR_THREAD = 1_000;
+
+    @Autowired
+    private AjusteEstoqueService ajusteEstoqueService;
+
+    @Autowired
+    private ProdutoRepository produtoRepository;
+
+    /**
+     * Ajustes concorrentes sobre os mesmos produtos devem ser gravados com a soma exata
+     * em uma única descarga, incrementando a versão de cada produto uma única vez.
+     */
+    @Test
+    void descarregar_DeveGravarSomaExataDeAjustesConcorrentes() throws Exception {
+        Produto entrada = produtoRepository.save(
+                new Produto(null, "Mochila", "Descrição", BigDecimal.TEN, 100, "Mochilas"));
+        Produto saida = produtoRepository.save(
+                new Produto(null, "Mala", "Descrição", BigDecimal.TEN, 50_000, "Malas"));
+
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                tarefas.add(executor.submit(() -> {
+                    largada.await();
+                    for (int i = 0; i < AJUSTES_POR_THREAD; i++) {
+                        ajusteEstoqueService.ajustar(entrada.getId(), 1);
+                        ajusteEstoqueService.ajustar(saida.getId(), -1);
+                    }
+                    return null;
+                }));
+            }
+            largada.countDown();
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        int total = THREADS * AJUSTES_POR_THREAD;
+        // Antes da descarga o banco ainda não tem nenhum ajuste
+        assertEquals(100, produtoRepository.findById(entrada.getId()).orElseThrow().getQuantidade());
+        assertEquals(total, ajusteEstoqueService.pendente(entrada.getId()));
+
+        assertEquals(2, ajusteEstoqueService.descarregar());
+
+        Produto entradaGravada = produtoRepository.findById(entrada.getId()).orElseThrow();
+        Produto saidaGravada = produtoRepository.findById(saida.getId()).orElseThrow();
+        assertEquals(100 + total, entradaGravada.getQuantidade());
+        assertEquals(50_000 - total, saidaGravada.getQuantidade());
+        assertEquals(1L, entradaGravada.getVersao(), "Deveria haver um único UPDATE por produto");
+        assertEquals(0, ajusteEstoqueService.pendente(entrada.getId()));
+    }
+}
@@ -0,0 +1,135 @@
+package com.bagaggio.gerenciar_produtos.service;
+
+import com.bagaggio.gerenciar_produtos.exeption.ProdutoNaoEncontradoException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para {@link CoalescedorCarregamentos}.
+ * Verifica que leituras idênticas e simultâneas compartilham um único carregamento,
+ * inclusive quando ele falha, e que a chave é liberada ao final.
+ */
+class CoalescedorCarregamentosTest {
+
+    private static final int LEITURAS = 8;
+
+    private MeterRegistry meterRegistry;
+    private CoalescedorCarregamentos coalescedor;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        coalescedor = new CoalescedorCarregamentos(meterRegistry);
+        executor = Executors.newFixedThreadPool(LEITURAS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Testa leituras simultâneas da mesma chave.
+     * O carregamento deve ser executado uma única vez, todas as leituras devem receber o mesmo
+     * resultado e as métricas devem contar as leituras compartilhadas.
+     */
+    @Test
+    void carregar_DeveCompartilharUmUnicoCarregamentoEntreLeiturasSimultaneas() throws Exception {
+        AtomicInteger execucoes = new AtomicInteger();
+        CountDownLatch liberar = new CountDownLatch(1);
+
+        List<Future<String>> resultados = new ArrayList<>();
+        for (int i = 0; i < LEITURAS; i++) {
+            resultados.add(executor.submit(() -> coalescedor.carregar("buscarPorId", 1L, () -> {
+                execucoes.incrementAndGet();
+                aguardar(liberar);
+                return "produto 1";
+            })));
+        }
+        // Só conclui o carregamento depois que as demais leituras passaram a aguardá-lo
+        aguardarCompartilhados(LEITURAS - 1);
+        liberar.countDown();
+
+        for (Future<String> resultado : resultados) {
+            assertEquals("produto 1", resultado.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, execucoes.get());
+        assertEquals(1.0, contagem("executado"));
+
+        // Terminado o carregamento, uma nova leitura volta a carregar
+        assertEquals("produto 1 de novo", coalescedor.carregar("buscarPorId", 1L, () -> "produto 1 de novo"));
+        assertEquals(2.0, contagem("executado"));
+    }
+
+    /**
+     * Testa um carregamento que falha.
+     * A mesma exceção deve chegar a todas as leituras que o aguardavam.
+     */
+    @Test
+    void carregar_DeveRepassarAExcecaoATodasAsLeituras() throws Exception {
+        CountDownLatch liberar = new CountDownLatch(1);
+
+        List<Future<Object>> resultados = new ArrayList<>();
+        for (int i = 0; i < LEITURAS; i++) {
+            resultados.add(executor.submit(() -> coalescedor.carregar("buscarPorId", 99L, () -> {
+                aguardar(liberar);
+                throw new ProdutoNaoEncontradoException(99L);
+            })));
+        }
+        aguardarCompartilhados(LEITURAS - 1);
+        liberar.countDown();
+
+        for (Future<Object> resultado : resultados) {
+            Exception excecao = assertThrows(Exception.class, () -> resultado.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(ProdutoNaoEncontradoException.class, excecao.getCause());
+        }
+    }
+
+    /**
+     * Testa leituras de chaves diferentes.
+     * Cada chave deve ter o seu próprio carregamento.
+     */
+    @Test
+    void carregar_NaoDeveCompartilharChavesDiferentes() {
+        assertEquals("1", coalescedor.carregar("buscarPorId", 1L, () -> "1"));
+        assertEquals("2", coalescedor.carregar("buscarPorId", 2L, () -> "2"));
+        assertEquals(2.0, contagem("executado"));
+        assertEquals(0.0, contagem("compartilhado"));
+    }
+
+    private void aguardarCompartilhados(int esperados) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 5_000;
+        while (contagem("compartilhado") < esperados && System.currentTimeMillis() < limite) {
+            Thread.sleep(5);
+        }
+        assertEquals(esperados, contagem("compartilhado"));
+    }
+
+    private double contagem(String resultado) {
+        var contador = meterRegistry.find("produtos.carregamentos").tag("resultado", resultado).counter();
+        return contador == null ? 0 : contador.count();
+    }
+
+    private static void aguardar(CountDownLatch liberar) {
+        try {
+            liberar.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
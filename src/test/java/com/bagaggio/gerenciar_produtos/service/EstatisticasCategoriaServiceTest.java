@@ -0,0 +1,146 @@
+package com.bagaggio.gerenciar_produtos.service;
+
+import com.bagaggio.gerenciar_produtos.dto.EstatisticaCategoriaDTO;
+import com.bagaggio.gerenciar_produtos.dto.ProdutoDTO;
+import com.bagaggio.gerenciar_produtos.model.Produto;
+import com.bagaggio.gerenciar_produtos.repository.ProdutoRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testes unitários para {@link EstatisticasCategoriaService}.
+ * Verifica a carga inicial e a manutenção incremental dos agregados a partir dos eventos.
+ */
+@ExtendWith(MockitoExtension.class)
+class EstatisticasCategoriaServiceTest {
+
+    @Mock
+    private ProdutoService produtoService;
+
+    @Mock
+    private ProdutoRepository produtoRepository;
+
+    @InjectMocks
+    private EstatisticasCategoriaService estatisticasCategoriaService;
+
+    /**
+     * Testa a carga inicial a partir do catálogo.
+     * Deve somar produtos, unidades e valor do estoque e calcular a faixa de preço de cada categoria.
+     */
+    @Test
+    void reconstruir_DeveAgregarOCatalogoPorCategoria() {
+        doAnswer(invocation -> {
+            Consumer<ProdutoDTO> consumidor = invocation.getArgument(0);
+            consumidor.accept(produto(1L, "10.00", 2, "Malas"));
+            consumidor.accept(produto(2L, "30.00", 1, "Malas"));
+            consumidor.accept(produto(3L, "5.50", 4, "Bolsas"));
+            return null;
+        }).when(produtoService).exportarTodos(any());
+
+        estatisticasCategoriaService.reconstruir();
+
+        List<EstatisticaCategoriaDTO> estatisticas = estatisticasCategoriaService.listar();
+        assertEquals(List.of("Bolsas", "Malas"), estatisticas.stream().map(EstatisticaCategoriaDTO::getCategoria).toList());
+        EstatisticaCategoriaDTO malas = estatisticas.get(1);
+        assertEquals(2, malas.getProdutos());
+        assertEquals(3, malas.getQuantidadeTotal());
+        assertEquals(new BigDecimal("50.00"), malas.getValorEstoque());
+        assertEquals(new BigDecimal("10.00"), malas.getPrecoMinimo());
+        assertEquals(new BigDecimal("30.00"), malas.getPrecoMaximo());
+        assertEquals(new BigDecimal("20.00"), malas.getPrecoMedio());
+    }
+
+    /**
+     * Testa a atualização incremental.
+     * Mudança de categoria, remoção e ajustes de estoque devem desfazer a contribuição anterior,
+     * inclusive do preço mínimo.
+     */
+    @Test
+    void eventos_DevemAtualizarOsAgregadosIncrementalmente() {
+        estatisticasCategoriaService.aoAlterarProduto(ProdutoAlteradoEvent.criado(produto(1L, "10.00", 2, "Malas")));
+        estatisticasCategoriaService.aoAlterarProduto(ProdutoAlteradoEvent.criado(produto(2L, "30.00", 1, "Malas")));
+        estatisticasCategoriaService.aoAlterarProduto(ProdutoAlteradoEvent.criado(produto(3L, "8.00", 5, "Malas")));
+
+        // O produto mais barato muda de categoria e outro é removido
+        estatisticasCategoriaService.aoAlterarProduto(ProdutoAlteradoEvent.atualizado(produto(3L, "8.00", 5, "Bolsas")));
+        estatisticasCategoriaService.aoAlterarProduto(ProdutoAlteradoEvent.removido(2L));
+        estatisticasCategoriaService.aoAjustarEstoque(new EstoqueAjustadoEvent(1L, -1));
+
+        List<EstatisticaCategoriaDTO> estatisticas = estatisticasCategoriaService.listar();
+        assertEquals(2, estatisticas.size());
+        EstatisticaCategoriaDTO bolsas = estatisticas.get(0);
+        assertEquals(1, bolsas.getProdutos());
+        assertEquals(new BigDecimal("40.00"), bolsas.getValorEstoque());
+        EstatisticaCategoriaDTO malas = estatisticas.get(1);
+        assertEquals(1, malas.getProdutos());
+        assertEquals(1, malas.getQuantidadeTotal());
+        assertEquals(new BigDecimal("10.00"), malas.getValorEstoque());
+        assertEquals(new BigDecimal("10.00"), malas.getPrecoMinimo());
+        assertEquals(new BigDecimal("10.00"), malas.getPrecoMaximo());
+
+        // Categorias sem produtos deixam de ser listadas
+        estatisticasCategoriaService.aoAlterarProduto(ProdutoAlteradoEvent.removido(1L));
+        assertEquals(List.of("Bolsas"), estatisticasCategoriaService.listar().stream().map(EstatisticaCategoriaDTO::getCategoria).toList());
+    }
+
+    /**
+     * Testa um ajuste de estoque durante a reconstrução, em um produto ainda não lido.
+     * A leitura do catálogo é um snapshot sem o ajuste; o produto deve ser relido do banco ao fim.
+     */
+    @Test
+    void reconstruir_DeveRelerProdutosAjustadosDuranteALeitura() {
+        doAnswer(invocation -> {
+            Consumer<ProdutoDTO> consumidor = invocation.getArgument(0);
+            consumidor.accept(produto(1L, "10.00", 2, "Malas"));
+            // Ajuste confirmado depois do início do snapshot, antes de o produto 2 ser lido
+            estatisticasCategoriaService.aoAjustarEstoque(new EstoqueAjustadoEvent(2L, -1));
+            consumidor.accept(produto(2L, "30.00", 3, "Malas"));
+            return null;
+        }).when(produtoService).exportarTodos(any());
+        Produto atual = new Produto(2L, "Produto 2", "Descrição", new BigDecimal("30.00"), 2, "Malas");
+        atual.setVersao(1L);
+        when(produtoRepository.findAllById(Set.of(2L))).thenReturn(List.of(atual));
+
+        estatisticasCategoriaService.reconstruir();
+
+        EstatisticaCategoriaDTO malas = estatisticasCategoriaService.listar().get(0);
+        assertEquals(2, malas.getProdutos());
+        assertEquals(4, malas.getQuantidadeTotal());
+        assertEquals(new BigDecimal("80.00"), malas.getValorEstoque());
+    }
+
+    /**
+     * Testa eventos de alteração do mesmo produto entregues fora de ordem.
+     * O estado de uma versão anterior não deve substituir o mais recente.
+     */
+    @Test
+    void aoAlterarProduto_DeveIgnorarVersaoAnterior() {
+        estatisticasCategoriaService.aoAlterarProduto(ProdutoAlteradoEvent.atualizado(produto(1L, "20.00", 5, "Malas", 2L)));
+        estatisticasCategoriaService.aoAlterarProduto(ProdutoAlteradoEvent.atualizado(produto(1L, "10.00", 5, "Bolsas", 1L)));
+
+        List<EstatisticaCategoriaDTO> estatisticas = estatisticasCategoriaService.listar();
+        assertEquals(List.of("Malas"), estatisticas.stream().map(EstatisticaCategoriaDTO::getCategoria).toList());
+        assertEquals(new BigDecimal("100.00"), estatisticas.get(0).getValorEstoque());
+    }
+
+    private static ProdutoDTO produto(Long id, String preco, int quantidade, String categoria, Long versao) {
+        return new ProdutoDTO(id, "Produto " + id, "Descrição", new BigDecimal(preco), quantidade, categoria, versao, null, null);
+    }
+
+    private static ProdutoDTO produto(Long id, String preco, int quantidade, String categoria) {
+        return new ProdutoDTO(id, "Produto " + id, "Descrição", new BigDecimal(preco), quantidade, categoria);
+    }
+}
@@ -0,0 +1,91 @@
+package com.bagaggio.gerenciar_produtos.service;
+
+import com.bagaggio.gerenciar_produtos.exeption.EstoqueInsuficienteException;
+import com.bagaggio.gerenciar_produtos.model.Produto;
+import com.bagaggio.gerenciar_produtos.repository.ProdutoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Teste de concorrência da reserva de estoque.
+ * Dispara milhares de reservas simultâneas sobre o mesmo produto e verifica
+ * que nenhuma unidade é vendida além do estoque disponível.
+ * Todas as reservas disputam a mesma linha: o tempo de espera pelo bloqueio é maior que o
+ * padrão do H2 (1 s) para o teste não falhar por lentidão da máquina.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:testdb;DB_CLOSE_DELAY=-1;MODE=MYSQL;LOCK_TIMEOUT=30000",
+        "spring.jpa.show-sql=false"
+})
+@ActiveProfiles("test")
+class EstoqueConcorrenciaTest {
+
+    private static final int ESTOQUE_INICIAL = 2_500;
+    private static final int RESERVAS = 4_000;
+    private static final int THREADS = 64;
+
+    @Autowired
+    private ProdutoService produtoService;
+
+    @Autowired
+    private ProdutoRepository produtoRepository;
+
+    /**
+     * Cada reserva pede uma unidade: exatamente ESTOQUE_INICIAL reservas devem ser aceitas
+     * e as demais recusadas por estoque insuficiente, terminando com estoque zero.
+     */
+    @Test
+    void reservarEstoque_NaoDeveVenderAlemDoEstoqueComReservasConcorrentes() throws Exception {
+        Produto produto = produtoRepository.save(
+                new Produto(null, "Produto em Promoção", "Descrição", BigDecimal.valueOf(99.90), ESTOQUE_INICIAL, "Ofertas"));
+        Long id = produto.getId();
+
+        AtomicInteger aceitas = new AtomicInteger();
+        AtomicInteger recusadas = new AtomicInteger();
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (int i = 0; i < RESERVAS; i++) {
+                tarefas.add(executor.submit(() -> {
+                    largada.await();
+                    try {
+                        produtoService.reservarEstoque(id, 1);
+                        aceitas.incrementAndGet();
+                    } catch (EstoqueInsuficienteException e) {
+                        recusadas.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+
+            largada.countDown();
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(ESTOQUE_INICIAL, aceitas.get(), "Todas as unidades em estoque deveriam ser reservadas");
+        assertEquals(RESERVAS - ESTOQUE_INICIAL, recusadas.get(), "As reservas excedentes deveriam ser recusadas");
+        int estoqueFinal = produtoRepository.findById(id).orElseThrow().getQuantidade();
+        assertEquals(0, estoqueFinal);
+        assertTrue(estoqueFinal >= 0, "O estoque nunca deveria ficar negativo");
+    }
+}
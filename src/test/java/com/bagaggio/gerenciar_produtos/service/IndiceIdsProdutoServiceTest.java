@@ -0,0 +1,66 @@
+package com.bagaggio.gerenciar_produtos.service;
+
+import com.bagaggio.gerenciar_produtos.dto.ProdutoDTO;
+import com.bagaggio.gerenciar_produtos.repository.ProdutoRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para {@link IndiceIdsProdutoService}.
+ * Verifica a carga inicial, a manutenção pelos eventos e que o índice nunca recusa
+ * um ID que possa existir.
+ */
+@ExtendWith(MockitoExtension.class)
+class IndiceIdsProdutoServiceTest {
+
+    @Mock
+    private ProdutoRepository produtoRepository;
+
+    /**
+     * Testa o índice habilitado.
+     * Antes da carga nenhum ID é recusado; depois, só os IDs não carregados nem criados,
+     * e um produto removido volta a ser recusado.
+     */
+    @Test
+    void certamenteAusente_DeveAcompanharCargaCriacoesERemocoes() {
+        IndiceIdsProdutoService indice = new IndiceIdsProdutoService(produtoRepository, true);
+        assertFalse(indice.certamenteAusente(7L), "Antes da carga, todo ID deveria ir ao banco");
+
+        when(produtoRepository.streamIds()).thenReturn(Stream.of(1L, 2L, 5L));
+        indice.reconstruir();
+        assertFalse(indice.certamenteAusente(2L));
+        assertTrue(indice.certamenteAusente(3L));
+        assertTrue(indice.certamenteAusente(1_000_000L));
+
+        indice.aoCriarProduto(ProdutoAlteradoEvent.criado(
+                new ProdutoDTO(3L, "Produto", "Descrição", new BigDecimal("10.00"), 1, "Categoria")));
+        indice.aoRemoverProduto(ProdutoAlteradoEvent.removido(5L));
+        assertFalse(indice.certamenteAusente(3L));
+        assertTrue(indice.certamenteAusente(5L));
+
+        // IDs fora da faixa do bitmap não são recusados
+        assertFalse(indice.certamenteAusente(Long.MAX_VALUE));
+    }
+
+    /**
+     * Testa o índice desabilitado (padrão).
+     * Nenhum ID deve ser recusado e o banco não deve ser lido na carga.
+     */
+    @Test
+    void certamenteAusente_DeveSerSempreFalsoQuandoDesabilitado() {
+        IndiceIdsProdutoService indice = new IndiceIdsProdutoService(produtoRepository, false);
+
+        indice.reconstruir();
+
+        assertFalse(indice.certamenteAusente(3L));
+        verifyNoInteractions(produtoRepository);
+    }
+}
@@ -0,0 +1,141 @@
+package com.bagaggio.gerenciar_produtos.service;
+
+import com.bagaggio.gerenciar_produtos.dto.ProdutoDTO;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para {@link LeitorCsvProdutos}.
+ * Verifica o cabeçalho, a conversão dos campos e a divisão do arquivo em fatias.
+ */
+class LeitorCsvProdutosTest {
+
+    /**
+     * Linha lida: posição no arquivo, produto e erros de leitura
+     */
+    private record Linha(long posicao, ProdutoDTO produto, Map<String, String> erros) {
+    }
+
+    /**
+     * Testa o cabeçalho com separador ";", acentos, maiúsculas, BOM e colunas extras.
+     * As colunas devem ser associadas pelo nome, em qualquer ordem.
+     */
+    @Test
+    void lerCabecalho_DeveReconhecerColunasPeloNome() {
+        byte[] csv = ("\uFEFFCategoria;Preço;SKU;Nome;Descrição;Quantidade\r\n"
+                + "Malas;1234,50;ABC-1;Mala;Mala grande;3\r\n").getBytes(StandardCharsets.UTF_8);
+
+        LeitorCsvProdutos.Cabecalho cabecalho = LeitorCsvProdutos.lerCabecalho(ByteBuffer.wrap(csv), true);
+        List<Linha> linhas = ler(csv, cabecalho, cabecalho.tamanho(), csv.length);
+
+        assertEquals((byte) ';', cabecalho.separador());
+        assertEquals(1, linhas.size());
+        ProdutoDTO produto = linhas.getFirst().produto();
+        assertEquals("Mala", produto.getNome());
+        assertEquals("Mala grande", produto.getDescricao());
+        assertEquals(new BigDecimal("1234.50"), produto.getPreco());
+        assertEquals(3, produto.getQuantidade());
+        assertEquals("Malas", produto.getCategoria());
+        assertEquals(cabecalho.tamanho(), linhas.getFirst().posicao());
+    }
+
+    /**
+     * Testa um cabeçalho sem uma das colunas obrigatórias.
+     * Deve lançar IllegalArgumentException citando a coluna.
+     */
+    @Test
+    void lerCabecalho_DeveRejeitarColunaAusente() {
+        byte[] csv = "nome,descricao,preco,categoria\n".getBytes(StandardCharsets.UTF_8);
+
+        IllegalArgumentException erro = assertThrows(IllegalArgumentException.class,
+                () -> LeitorCsvProdutos.lerCabecalho(ByteBuffer.wrap(csv), true));
+        assertTrue(erro.getMessage().contains("quantidade"));
+    }
+
+    /**
+     * Testa campos entre aspas, linhas em branco, última linha sem quebra e linhas com erro.
+     * Cada erro deve ser reportado na linha em que ocorreu, sem interromper a leitura.
+     */
+    @Test
+    void ler_DeveConverterCamposEReportarErrosPorLinha() {
+        String csv = """
+                nome,descricao,preco,quantidade,categoria
+                "Mala ""Executiva\""","Rodinhas, cadeado e alça",399.90,10,Malas
+
+                Bolsa,Couro,abc,2,Bolsas
+                Mochila,Nylon,89.90,-1
+                "Nécessaire,Sem fechar,10.00,1,Bolsas
+                Carteira , Couro ,59.90, 7 ,Acessórios""";
+        byte[] bytes = csv.getBytes(StandardCharsets.UTF_8);
+        LeitorCsvProdutos.Cabecalho cabecalho = LeitorCsvProdutos.lerCabecalho(ByteBuffer.wrap(bytes), true);
+
+        List<Linha> linhas = ler(bytes, cabecalho, cabecalho.tamanho(), bytes.length);
+
+        assertEquals(5, linhas.size());
+        assertEquals("Mala \"Executiva\"", linhas.get(0).produto().getNome());
+        assertEquals("Rodinhas, cadeado e alça", linhas.get(0).produto().getDescricao());
+        assertTrue(linhas.get(0).erros().isEmpty());
+
+        assertEquals("Preço inválido", linhas.get(1).erros().get("preco"));
+        assertNull(linhas.get(1).produto().getPreco());
+        assertEquals(csv.substring(0, csv.indexOf("Bolsa,")).getBytes(StandardCharsets.UTF_8).length, linhas.get(1).posicao());
+
+        assertNull(linhas.get(2).produto());
+        assertTrue(linhas.get(2).erros().get("linha").contains("colunas"));
+        assertNull(linhas.get(3).produto());
+        assertTrue(linhas.get(3).erros().get("linha").contains("Aspas"));
+
+        ProdutoDTO carteira = linhas.get(4).produto();
+        assertEquals("Carteira", carteira.getNome());
+        assertEquals("Couro", carteira.getDescricao());
+        assertEquals(7, carteira.getQuantidade());
+        assertEquals("Acessórios", carteira.getCategoria());
+    }
+
+    /**
+     * Testa a leitura do arquivo dividido em duas fatias, em cada posição possível da divisão.
+     * Cada linha deve ser lida por exatamente uma das fatias, inteira, como na leitura sem divisão.
+     */
+    @Test
+    void ler_FatiasDevemCobrirCadaLinhaUmaUnicaVez() {
+        StringBuilder csv = new StringBuilder("nome,descricao,preco,quantidade,categoria\r\n");
+        for (int i = 0; i < 6; i++) {
+            csv.append("Produto ").append(i).append(",\"Descrição, ").append(i).append("\",").append(10 + i)
+                    .append(".50,").append(i).append(",Categoria\r\n");
+        }
+        byte[] bytes = csv.toString().getBytes(StandardCharsets.UTF_8);
+        LeitorCsvProdutos.Cabecalho cabecalho = LeitorCsvProdutos.lerCabecalho(ByteBuffer.wrap(bytes), true);
+        List<String> esperadas = nomes(ler(bytes, cabecalho, cabecalho.tamanho(), bytes.length));
+        assertEquals(6, esperadas.size());
+
+        for (int divisao = cabecalho.tamanho() + 1; divisao < bytes.length; divisao++) {
+            List<Linha> linhas = new ArrayList<>(ler(bytes, cabecalho, cabecalho.tamanho(), divisao));
+            linhas.addAll(ler(bytes, cabecalho, divisao, bytes.length));
+            assertEquals(esperadas, nomes(linhas), "Divisão na posição " + divisao);
+            assertTrue(linhas.stream().allMatch(linha -> linha.erros().isEmpty()), "Divisão na posição " + divisao);
+        }
+    }
+
+    // Lê a fatia [inicio, fim) como o serviço de importação: a partir do último byte da fatia anterior
+    private static List<Linha> ler(byte[] csv, LeitorCsvProdutos.Cabecalho cabecalho, int inicio, int fim) {
+        boolean primeira = inicio == cabecalho.tamanho();
+        int inicioMapeado = primeira ? inicio : inicio - 1;
+        ByteBuffer trecho = ByteBuffer.wrap(csv, inicioMapeado, csv.length - inicioMapeado).slice();
+        List<Linha> linhas = new ArrayList<>();
+        new LeitorCsvProdutos(cabecalho).ler(trecho, inicioMapeado, !primeira, fim - inicioMapeado, true,
+                (posicao, produto, erros) -> linhas.add(new Linha(posicao, produto, erros)));
+        return linhas;
+    }
+
+    private static List<String> nomes(List<Linha> linhas) {
+        return linhas.stream().map(linha -> linha.produto().getNome() + "|" + linha.produto().getDescricao()).toList();
+    }
+}
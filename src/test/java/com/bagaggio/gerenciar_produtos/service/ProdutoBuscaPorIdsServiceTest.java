@@ -0,0 +1,80 @@
+package com.bagaggio.gerenciar_produtos.service;
+
+import com.bagaggio.gerenciar_produtos.config.CacheConfig;
+import com.bagaggio.gerenciar_produtos.dto.ProdutoDTO;
+import com.bagaggio.gerenciar_produtos.dto.ResultadoBuscaIdsDTO;
+import com.bagaggio.gerenciar_produtos.model.Produto;
+import com.bagaggio.gerenciar_produtos.repository.ProdutoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para {@link ProdutoBuscaPorIdsService}.
+ * Verifica a ordem do resultado, o uso do cache e a divisão dos IDs ausentes em blocos.
+ */
+@ExtendWith(MockitoExtension.class)
+class ProdutoBuscaPorIdsServiceTest {
+
+    @Mock
+    private ProdutoRepository produtoRepository;
+
+    private CacheManager cacheManager;
+    private ProdutoBuscaPorIdsService produtoBuscaPorIdsService;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new ConcurrentMapCacheManager(CacheConfig.CACHE_PRODUTOS);
+        produtoBuscaPorIdsService = new ProdutoBuscaPorIdsService(produtoRepository, cacheManager,
+                new IndiceIdsProdutoService(produtoRepository, false), 5, 2);
+    }
+
+    /**
+     * Testa uma busca com IDs em cache, ausentes do cache e inexistentes.
+     * Só os IDs fora do cache devem ir ao banco, em blocos do tamanho configurado,
+     * e o resultado deve seguir a ordem pedida, sem repetições.
+     */
+    @Test
+    void buscarPorIds_DeveConsultarSomenteOsAusentesDoCacheEmBlocos() {
+        cacheManager.getCache(CacheConfig.CACHE_PRODUTOS).put(2L, ProdutoService.toDTO(produto(2L)));
+        when(produtoRepository.findAllById(List.of(4L, 1L))).thenReturn(List.of(produto(1L), produto(4L)));
+        when(produtoRepository.findAllById(List.of(9L))).thenReturn(List.of());
+
+        ResultadoBuscaIdsDTO resultado = produtoBuscaPorIdsService.buscarPorIds(List.of(4L, 2L, 1L, 9L, 2L));
+
+        assertEquals(List.of(4L, 2L, 1L), resultado.getProdutos().stream().map(ProdutoDTO::getId).toList());
+        assertEquals(List.of(9L), resultado.getNaoEncontrados());
+        verify(produtoRepository, times(2)).findAllById(any());
+
+        // Os produtos lidos do banco passam a ser servidos pelo cache
+        assertNotNull(cacheManager.getCache(CacheConfig.CACHE_PRODUTOS).get(4L));
+        produtoBuscaPorIdsService.buscarPorIds(List.of(1L, 4L));
+        verifyNoMoreInteractions(produtoRepository);
+    }
+
+    /**
+     * Testa os limites da lista de IDs.
+     * Uma lista vazia ou acima do máximo deve lançar IllegalArgumentException sem consultar o banco.
+     */
+    @Test
+    void buscarPorIds_DeveLancarExcecaoQuandoListaForVaziaOuGrandeDemais() {
+        assertThrows(IllegalArgumentException.class, () -> produtoBuscaPorIdsService.buscarPorIds(List.of()));
+        assertThrows(IllegalArgumentException.class,
+                () -> produtoBuscaPorIdsService.buscarPorIds(List.of(1L, 2L, 3L, 4L, 5L, 6L)));
+        verifyNoInteractions(produtoRepository);
+    }
+
+    private static Produto produto(Long id) {
+        return new Produto(id, "Produto " + id, "Descrição", new BigDecimal("10.00"), 1, "Categoria");
+    }
+}
@@ -0,0 +1,159 @@
+package com.bagaggio.gerenciar_produtos.service;
+
+import com.bagaggio.gerenciar_produtos.dto.PaginaBuscaDTO;
+import com.bagaggio.gerenciar_produtos.dto.ProdutoDTO;
+import com.bagaggio.gerenciar_produtos.model.Produto;
+import com.bagaggio.gerenciar_produtos.repository.ProdutoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.lenient;
+
+/**
+ * Testes unitários para {@link ProdutoBuscaService}.
+ * Verifica a normalização dos termos, a ordenação por relevância e a manutenção do índice
+ * a partir dos eventos de alteração de produto.
+ */
+@ExtendWith(MockitoExtension.class)
+class ProdutoBuscaServiceTest {
+
+    @Mock
+    private ProdutoService produtoService;
+
+    @Mock
+    private ProdutoRepository produtoRepository;
+
+    @InjectMocks
+    private ProdutoBuscaService produtoBuscaService;
+
+    private final Map<Long, Produto> banco = new HashMap<>();
+
+    /**
+     * Simula o banco: o repositório devolve os produtos indexados pelo teste
+     */
+    @BeforeEach
+    void setUp() {
+        lenient().when(produtoRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            Iterable<Long> ids = invocation.getArgument(0);
+            List<Produto> encontrados = new ArrayList<>();
+            ids.forEach(id -> {
+                if (banco.containsKey(id)) {
+                    encontrados.add(banco.get(id));
+                }
+            });
+            return encontrados;
+        });
+    }
+
+    /**
+     * Testa a busca sem acentos e no singular por produtos com acentos e no plural.
+     */
+    @Test
+    void buscar_DeveIgnorarAcentosMaiusculasEPlurais() {
+        indexar(1L, "Café Especial", "Grãos torrados");
+        indexar(2L, "Mochilas Escolares", "Várias cores");
+
+        assertEquals(List.of(1L), ids(produtoBuscaService.buscar("cafe", 0, 10)));
+        assertEquals(List.of(2L), ids(produtoBuscaService.buscar("MOCHILA escolar", 0, 10)));
+    }
+
+    /**
+     * Testa a ordenação por relevância.
+     * Um termo no nome deve pesar mais que o mesmo termo apenas na descrição.
+     */
+    @Test
+    void buscar_DeveOrdenarPorRelevancia() {
+        indexar(1L, "Bolsa de Couro", "Bolsa feminina com alça de mala");
+        indexar(2L, "Mala de Viagem", "Mala grande com rodinhas");
+        indexar(3L, "Carteira", "Compacta");
+
+        PaginaBuscaDTO resultado = produtoBuscaService.buscar("mala", 0, 10);
+
+        assertEquals(2, resultado.getTotal());
+        assertEquals(List.of(2L, 1L), ids(resultado));
+    }
+
+    /**
+     * Testa a paginação dos resultados.
+     */
+    @Test
+    void buscar_DevePaginarResultados() {
+        for (long id = 1; id <= 5; id++) {
+            indexar(id, "Mala " + id, "Descrição");
+        }
+
+        PaginaBuscaDTO primeira = produtoBuscaService.buscar("mala", 0, 2);
+        PaginaBuscaDTO terceira = produtoBuscaService.buscar("mala", 2, 2);
+
+        assertEquals(5, primeira.getTotal());
+        assertEquals(2, primeira.getItens().size());
+        assertEquals(1, terceira.getItens().size());
+    }
+
+    /**
+     * Testa a atualização e a remoção de produtos no índice.
+     */
+    @Test
+    void aoAlterarProduto_DeveReindexarERemover() {
+        indexar(1L, "Mala Pequena", "Descrição");
+
+        // Após a atualização, o nome antigo não deve mais ser encontrado
+        indexar(1L, "Bolsa Pequena", "Descrição");
+        assertTrue(ids(produtoBuscaService.buscar("mala", 0, 10)).isEmpty());
+        assertEquals(List.of(1L), ids(produtoBuscaService.buscar("bolsa", 0, 10)));
+
+        // Após a remoção, o produto não deve ser encontrado
+        produtoBuscaService.aoAlterarProduto(ProdutoAlteradoEvent.removido(1L));
+        assertEquals(0, produtoBuscaService.buscar("bolsa", 0, 10).getTotal());
+    }
+
+    /**
+     * Testa a compactação do índice após muitas remoções.
+     * Os produtos restantes devem continuar sendo encontrados.
+     */
+    @Test
+    void aoAlterarProduto_DeveManterResultadosAposCompactacao() {
+        for (long id = 1; id <= 3000; id++) {
+            indexar(id, "Produto " + id, "Mala");
+        }
+        for (long id = 1; id <= 2000; id++) {
+            produtoBuscaService.aoAlterarProduto(ProdutoAlteradoEvent.removido(id));
+        }
+
+        assertEquals(1000, produtoBuscaService.buscar("mala", 0, 10).getTotal());
+        assertEquals(List.of(2500L), ids(produtoBuscaService.buscar("2500", 0, 10)));
+    }
+
+    /**
+     * Testa o limite de profundidade da paginação.
+     */
+    @Test
+    void buscar_DeveLancarExcecaoQuandoPaginaForProfundaDemais() {
+        assertThrows(IllegalArgumentException.class,
+                () -> produtoBuscaService.buscar("mala", ProdutoBuscaService.PROFUNDIDADE_MAXIMA, 10));
+    }
+
+    // Métodos auxiliares
+    private void indexar(Long id, String nome, String descricao) {
+        Produto produto = new Produto(id, nome, descricao, BigDecimal.TEN, 1, "Categoria");
+        banco.put(id, produto);
+        ProdutoDTO dto = new ProdutoDTO(id, nome, descricao, BigDecimal.TEN, 1, "Categoria");
+        produtoBuscaService.aoAlterarProduto(ProdutoAlteradoEvent.criado(dto));
+    }
+
+    private static List<Long> ids(PaginaBuscaDTO pagina) {
+        return pagina.getItens().stream().map(ProdutoDTO::getId).toList();
+    }
+}
@@ -0,0 +1,125 @@
+package com.bagaggio.gerenciar_produtos.service;
+
+import com.bagaggio.gerenciar_produtos.dto.ProdutoDTO;
+import com.bagaggio.gerenciar_produtos.repository.ProdutoLoteRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionTimedOutException;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para {@link ProdutoCriacaoAgrupadaService} com a gravação agrupada habilitada.
+ * Documentam o que acontece com os pedidos quando a thread gravadora falha ou demora.
+ */
+@ExtendWith(MockitoExtension.class)
+class ProdutoCriacaoAgrupadaServiceTest {
+
+    @Mock
+    private ProdutoService produtoService;
+
+    @Mock
+    private ProdutoLoteRepository produtoLoteRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ProdutoCriacaoAgrupadaService produtoCriacaoAgrupadaService;
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        executor.shutdownNow();
+        produtoCriacaoAgrupadaService.encerrar();
+    }
+
+    /**
+     * Testa um Error na thread gravadora.
+     * O pedido do grupo deve receber o erro e, com a thread parada,
+     * as criações seguintes devem ser gravadas na hora em vez de esperar na fila.
+     */
+    @Test
+    void criar_DeveGravarNaHoraQuandoAThreadGravadoraParar() throws Exception {
+        produtoCriacaoAgrupadaService = iniciarServico(-1);
+        when(produtoLoteRepository.inserir(anyList())).thenThrow(new StackOverflowError("simulado"));
+        ProdutoDTO produtoDTO = produto("Produto");
+        when(produtoService.criarProduto(produtoDTO)).thenReturn(produtoDTO);
+
+        assertThrows(StackOverflowError.class, () -> produtoCriacaoAgrupadaService.criar(produto("Produto")));
+        long prazo = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (produtoCriacaoAgrupadaService.agrupando() && System.nanoTime() < prazo) {
+            Thread.sleep(10);
+        }
+        assertFalse(produtoCriacaoAgrupadaService.agrupando());
+
+        assertSame(produtoDTO, produtoCriacaoAgrupadaService.criar(produtoDTO));
+        verify(produtoLoteRepository, times(1)).inserir(anyList());
+    }
+
+    /**
+     * Testa a espera limitada pelo timeout de escrita.
+     * Com a thread gravadora presa em um grupo, os dois pedidos devem falhar no prazo:
+     * o que está em gravação ainda pode ser criado, o que ficou na fila é descartado sem ser gravado.
+     */
+    @Test
+    void criar_DeveDesistirDoPedidoNaFilaAoFimDoPrazo() throws Exception {
+        produtoCriacaoAgrupadaService = iniciarServico(1);
+        CountDownLatch gravando = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        when(produtoLoteRepository.inserir(anyList())).thenAnswer(invocacao -> {
+            gravando.countDown();
+            liberar.await();
+            return List.of(1L);
+        });
+
+        Future<ProdutoDTO> primeiro = executor.submit(() -> produtoCriacaoAgrupadaService.criar(produto("Primeiro")));
+        assertTrue(gravando.await(5, TimeUnit.SECONDS));
+
+        TransactionTimedOutException erro = assertThrows(TransactionTimedOutException.class,
+                () -> produtoCriacaoAgrupadaService.criar(produto("Segundo")));
+        assertTrue(erro.getMessage().contains("não foi gravado"));
+
+        ExecutionException erroPrimeiro = assertThrows(ExecutionException.class,
+                () -> primeiro.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(TransactionTimedOutException.class, erroPrimeiro.getCause());
+        assertFalse(erroPrimeiro.getCause().getMessage().contains("não foi gravado"));
+
+        liberar.countDown();
+        verify(produtoLoteRepository, times(1)).inserir(anyList());
+        verify(produtoService, never()).criarProduto(any());
+    }
+
+    // Métodos auxiliares
+    private ProdutoCriacaoAgrupadaService iniciarServico(int timeoutEscrita) {
+        ProdutoCriacaoAgrupadaService servico = new ProdutoCriacaoAgrupadaService(produtoService,
+                produtoLoteRepository, new ConcurrentMapCacheManager(), eventPublisher, transactionManager,
+                timeoutEscrita, true, 2, 100, 100);
+        servico.iniciar();
+        return servico;
+    }
+
+    private static ProdutoDTO produto(String nome) {
+        return new ProdutoDTO(null, nome, "Descrição", new BigDecimal("10.00"), 1, "Categoria");
+    }
+}
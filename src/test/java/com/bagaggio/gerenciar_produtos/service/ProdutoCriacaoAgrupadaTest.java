@@ -0,0 +1,87 @@
+package com.bagaggio.gerenciar_produtos.service;
+
+import com.bagaggio.gerenciar_produtos.dto.ProdutoDTO;
+import com.bagaggio.gerenciar_produtos.model.Produto;
+import com.bagaggio.gerenciar_produtos.repository.ProdutoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Teste de integração da gravação agrupada (group commit) das criações de produtos.
+ * A janela é longa para que as criações simultâneas do teste caiam no mesmo grupo.
+ */
+@SpringBootTest(properties = {
+        "produtos.criacao.agrupada.habilitado=true",
+        "produtos.criacao.agrupada.janela-ms=200",
+        "spring.jpa.show-sql=false"
+})
+@ActiveProfiles("test")
+class ProdutoCriacaoAgrupadaTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private ProdutoCriacaoAgrupadaService produtoCriacaoAgrupadaService;
+
+    @Autowired
+    private ProdutoRepository produtoRepository;
+
+    /**
+     * Criações simultâneas devem ser gravadas em poucos grupos, cada uma recebendo o seu próprio ID,
+     * e um item com erro não deve afetar os demais do mesmo grupo (que é regravado em metades).
+     */
+    @Test
+    void criar_DeveAgruparCriacoesSimultaneasEIsolarErros() throws Exception {
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<ProdutoDTO>> tarefas = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                // O último produto não tem nome e viola a restrição NOT NULL da tabela
+                String nome = t == THREADS - 1 ? null : "Produto " + t;
+                tarefas.add(executor.submit(() -> {
+                    largada.await();
+                    return produtoCriacaoAgrupadaService.criar(
+                            new ProdutoDTO(null, nome, "Descrição", new BigDecimal("10.00"), 1, "Categoria"));
+                }));
+            }
+            largada.countDown();
+
+            Set<Long> ids = new HashSet<>();
+            for (int t = 0; t < THREADS - 1; t++) {
+                ProdutoDTO criado = tarefas.get(t).get(1, TimeUnit.MINUTES);
+                assertEquals("Produto " + t, criado.getNome());
+                assertTrue(produtoRepository.existsById(criado.getId()));
+                ids.add(criado.getId());
+            }
+            assertEquals(THREADS - 1, ids.size(), "Cada criação deveria receber um ID diferente");
+
+            ExecutionException erro = assertThrows(ExecutionException.class,
+                    () -> tarefas.get(THREADS - 1).get(1, TimeUnit.MINUTES));
+            assertInstanceOf(DataAccessException.class, erro.getCause());
+
+            // Produtos do mesmo grupo são gravados na mesma transação, com o mesmo instante de criação
+            long grupos = produtoRepository.findAllById(ids).stream().map(Produto::getCriadoEm).distinct().count();
+            assertTrue(grupos < THREADS - 1, "As criações deveriam ser gravadas em grupos, mas foram " + grupos);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
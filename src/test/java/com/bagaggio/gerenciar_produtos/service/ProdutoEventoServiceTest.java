@@ -0,0 +1,98 @@
+package com.bagaggio.gerenciar_produtos.service;
+
+import com.bagaggio.gerenciar_produtos.dto.EventoProdutoDTO;
+import com.bagaggio.gerenciar_produtos.dto.ProdutoDTO;
+import com.bagaggio.gerenciar_produtos.repository.ProdutoEventoRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Testes da gravação dos eventos de produto na tabela de eventos (outbox).
+ * Verifica que os eventos seguem o destino da transação que os publicou e a janela de leitura do fluxo.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ProdutoEventoServiceTest {
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ProdutoEventoRepository produtoEventoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Os eventos de uma transação só são gravados no commit, todos juntos e em ordem de publicação.
+     */
+    @Test
+    void eventos_DevemSerGravadosNoCommitDaTransacao() {
+        long antes = produtoEventoRepository.ultimaSequencia();
+        ProdutoDTO produto = new ProdutoDTO(101L, "Produto", "Descrição", new BigDecimal("10.00"), 3, "Categoria");
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            eventPublisher.publishEvent(ProdutoAlteradoEvent.criado(produto));
+            eventPublisher.publishEvent(new EstoqueAjustadoEvent(101L, -1));
+            assertEquals(antes, produtoEventoRepository.ultimaSequencia(), "Nada deveria ser gravado antes do commit");
+        });
+
+        List<EventoProdutoDTO> eventos = produtoEventoRepository.buscarApos(antes, Instant.now(), 10);
+        assertEquals(List.of("CRIADO", "ESTOQUE_AJUSTADO"), eventos.stream().map(EventoProdutoDTO::getTipo).toList());
+        assertEquals(-1L, eventos.get(1).getDelta());
+    }
+
+    /**
+     * Os eventos de uma transação desfeita não devem ser gravados.
+     */
+    @Test
+    void eventos_NaoDevemSerGravadosQuandoATransacaoForDesfeita() {
+        long antes = produtoEventoRepository.ultimaSequencia();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            eventPublisher.publishEvent(ProdutoAlteradoEvent.removido(102L));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(antes, produtoEventoRepository.ultimaSequencia());
+    }
+
+    /**
+     * O fluxo só lê eventos mais antigos que o timeout de escrita mais o atraso, para que um evento
+     * com sequência menor e commit demorado não fique para trás da cabeça.
+     */
+    @Test
+    void assinar_DeveLerSoEventosMaisAntigosQueOTimeoutDeEscrita() {
+        ProdutoEventoRepository repositorio = mock(ProdutoEventoRepository.class);
+        ProdutoEventoService servico = new ProdutoEventoService(repositorio, new ObjectMapper(), 60, 1000, 500, 2000, 60_000, 168);
+        try {
+            Instant inicio = Instant.now();
+            servico.assinar(0L);
+
+            ArgumentCaptor<Instant> registradoAte = ArgumentCaptor.forClass(Instant.class);
+            verify(repositorio, timeout(5_000)).buscarApos(eq(0L), registradoAte.capture(), eq(500));
+            assertTrue(registradoAte.getValue().isBefore(inicio.minusSeconds(60)),
+                    "A leitura deveria ignorar os eventos dos últimos 61 segundos");
+        } finally {
+            servico.encerrar();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.bagaggio.gerenciar_produtos.service;
+
+import com.bagaggio.gerenciar_produtos.dto.ImportacaoDTO;
+import com.bagaggio.gerenciar_produtos.model.Produto;
+import com.bagaggio.gerenciar_produtos.repository.ProdutoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Teste de integração da importação de catálogos em CSV.
+ * As fatias são pequenas para que o arquivo do teste seja dividido em várias, lidas em paralelo,
+ * e os blocos também, para que cada fatia faça mais de uma inserção.
+ */
+@SpringBootTest(properties = {
+        "produtos.importacao.diretorio=${java.io.tmpdir}/produtos-importacao-teste",
+        "produtos.importacao.tamanho-fatia=128B",
+        "produtos.importacao.paralelismo=3",
+        "produtos.importacao.maximo-erros=2",
+        "produtos.lote.tamanho-bloco=2",
+        "spring.jpa.show-sql=false"
+})
+@ActiveProfiles("test")
+class ProdutoImportacaoServiceTest {
+
+    private static final int LINHAS = 100;
+
+    @Autowired
+    private ProdutoImportacaoService produtoImportacaoService;
+
+    @Autowired
+    private ProdutoRepository produtoRepository;
+
+    @Value("${produtos.importacao.diretorio}")
+    private Path diretorio;
+
+    @BeforeEach
+    void setUp() {
+        produtoRepository.deleteAll();
+    }
+
+    /**
+     * Testa a importação de um arquivo dividido em várias fatias.
+     * Cada linha válida deve gerar exatamente um produto, e as inválidas devem ser contadas
+     * e listadas (até o limite) pela posição no arquivo. O arquivo gravado deve ser apagado no fim.
+     */
+    @Test
+    void importar_DeveCriarCadaLinhaValidaUmaUnicaVez() throws Exception {
+        StringBuilder csv = new StringBuilder("nome,descricao,preco,quantidade,categoria\n");
+        long primeiroErro = -1;
+        for (int i = 0; i < LINHAS; i++) {
+            if (i % 10 == 3) {
+                // Linha sem nome
+                primeiroErro = primeiroErro < 0 ? csv.toString().getBytes(StandardCharsets.UTF_8).length : primeiroErro;
+                csv.append(",Descrição ").append(i).append(",10.00,1,Categoria\n");
+            } else {
+                csv.append("Produto ").append(i).append(",Descrição ").append(i).append(",").append(10 + i).append(".90,")
+                        .append(i).append(",Categoria ").append(i % 5).append("\n");
+            }
+        }
+
+        ImportacaoDTO iniciada = produtoImportacaoService.importar(destino -> Files.writeString(destino, csv));
+        ImportacaoDTO importacao = aguardarFim(iniciada.getId());
+
+        assertEquals(ImportacaoDTO.Status.CONCLUIDA, importacao.getStatus());
+        assertEquals(LINHAS, importacao.getLinhasLidas());
+        assertEquals(90, importacao.getCriados());
+        assertEquals(10, importacao.getLinhasComErro());
+        assertEquals(100, importacao.getPercentual());
+        assertEquals(2, importacao.getErros().size());
+        assertEquals(primeiroErro, importacao.getErros().getFirst().getPosicao());
+        assertNotNull(importacao.getErros().getFirst().getErros().get("nome"));
+
+        assertEquals(90, produtoRepository.count());
+        assertEquals(90, produtoRepository.findAll().stream().map(Produto::getNome).distinct().count());
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            assertEquals(0, arquivos.count(), "O arquivo da importação deveria ter sido apagado");
+        }
+    }
+
+    /**
+     * Testa um arquivo com cabeçalho inválido.
+     * Deve ser rejeitado na hora, sem registrar a importação nem manter o arquivo.
+     */
+    @Test
+    void importar_DeveRejeitarCabecalhoInvalido() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> produtoImportacaoService.importar(
+                destino -> Files.writeString(destino, "nome;preco\nMala;10.00\n")));
+
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            assertEquals(0, arquivos.count());
+        }
+    }
+
+    private ImportacaoDTO aguardarFim(String id) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 10_000;
+        while (true) {
+            ImportacaoDTO importacao = produtoImportacaoService.buscar(id).orElseThrow();
+            if (importacao.getStatus() != ImportacaoDTO.Status.EM_ANDAMENTO || System.currentTimeMillis() > limite) {
+                return importacao;
+            }
+            Thread.sleep(20);
+        }
+    }
+}
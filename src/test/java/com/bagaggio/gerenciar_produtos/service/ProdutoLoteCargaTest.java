@@ -0,0 +1,82 @@
+package com.bagaggio.gerenciar_produtos.service;
+
+import com.bagaggio.gerenciar_produtos.dto.ProdutoDTO;
+import com.bagaggio.gerenciar_produtos.dto.ResultadoLoteDTO;
+import com.bagaggio.gerenciar_produtos.repository.ProdutoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Benchmark da criação de produtos: inserção item a item ({@link ProdutoService#criarProduto})
+ * comparada à inserção em lote com batch JDBC ({@link ProdutoLoteService#criarEmLote}).
+ * Executar com: mvn test -Pperformance
+ */
+@Slf4j
+@Tag("performance")
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@ActiveProfiles("test")
+class ProdutoLoteCargaTest {
+
+    private static final int TOTAL_PRODUTOS = 20_000;
+
+    @Autowired
+    private ProdutoService produtoService;
+
+    @Autowired
+    private ProdutoLoteService produtoLoteService;
+
+    @Autowired
+    private ProdutoRepository produtoRepository;
+
+    private List<ProdutoDTO> produtos;
+
+    @BeforeEach
+    void setUp() {
+        produtoRepository.deleteAllInBatch();
+        produtos = IntStream.range(0, TOTAL_PRODUTOS)
+                .mapToObj(i -> new ProdutoDTO(null, "Produto " + i, "Descrição do produto " + i,
+                        BigDecimal.valueOf(10 + i % 100), i % 50, "Categoria " + i % 20))
+                .toList();
+    }
+
+    /**
+     * Mede produtos/s de cada caminho de criação sobre o mesmo conjunto de dados.
+     */
+    @Test
+    void compararCriacaoItemAItemComCriacaoEmLote() {
+        long inicio = System.nanoTime();
+        produtos.forEach(produtoService::criarProduto);
+        double itemAItem = produtosPorSegundo(inicio);
+        assertEquals(TOTAL_PRODUTOS, produtoRepository.count());
+
+        produtoRepository.deleteAllInBatch();
+
+        inicio = System.nanoTime();
+        ResultadoLoteDTO resultado = produtoLoteService.criarEmLote(produtos.iterator());
+        double emLote = produtosPorSegundo(inicio);
+        assertEquals(TOTAL_PRODUTOS, resultado.getCriados());
+        assertEquals(TOTAL_PRODUTOS, produtoRepository.count());
+
+        log.info("Criação item a item: {} produtos/s", Math.round(itemAItem));
+        log.info("Criação em lote:     {} produtos/s ({}x)", Math.round(emLote), String.format("%.1f", emLote / itemAItem));
+
+        assertTrue(emLote > itemAItem,
+                "Criação em lote deveria ser mais rápida que item a item: " + Math.round(emLote) + " <= " + Math.round(itemAItem) + " produtos/s");
+    }
+
+    private double produtosPorSegundo(long inicio) {
+        return TOTAL_PRODUTOS / ((System.nanoTime() - inicio) / 1_000_000_000.0);
+    }
+}
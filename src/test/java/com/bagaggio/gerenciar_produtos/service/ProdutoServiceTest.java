@@ -1,14 +1,22 @@
 package com.bagaggio.gerenciar_produtos.service;
 
+import com.bagaggio.gerenciar_produtos.dto.PaginaDTO;
 import com.bagaggio.gerenciar_produtos.dto.ProdutoDTO;
+import com.bagaggio.gerenciar_produtos.exeption.PrecondicaoFalhouException;
+import com.bagaggio.gerenciar_produtos.exeption.ProdutoNaoEncontradoException;
 import com.bagaggio.gerenciar_produtos.model.Produto;
+import com.bagaggio.gerenciar_produtos.repository.ProdutoRemovidoRepository;
 import com.bagaggio.gerenciar_produtos.repository.ProdutoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.domain.Specification;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -29,6 +37,18 @@ public class ProdutoServiceTest {
     @Mock
     private ProdutoRepository produtoRepository;
 
+    @Mock
+    private ProdutoRemovidoRepository produtoRemovidoRepository;
+
+    @Mock
+    private IndiceIdsProdutoService indiceIdsProdutoService;
+
+    @Spy
+    private CoalescedorCarregamentos coalescedorCarregamentos = new CoalescedorCarregamentos(new SimpleMeterRegistry());
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private ProdutoService produtoService;
 
@@ -48,24 +68,70 @@ public class ProdutoServiceTest {
     }
 
     /**
-     * Testa a listagem de todos os produtos.
+     * Testa a listagem paginada por cursor.
      * Verifica se:
-     *  A lista retornada contém o número correto de itens
-     *  Os dados do produto são convertidos corretamente para DTO
-     *  O repositório foi chamado uma vez
+     *  A página contém no máximo o limite de itens
+     *  O próximo cursor é o ID do último item da página
+     */
+    @Test
+    void listarPagina_DeveRetornarPaginaComProximoCursor() {
+        // Configura o mock com um registro além do limite
+        Produto produto2 = new Produto(2L, "Produto 2", "Descrição 2", BigDecimal.TEN, 1, "Categoria Teste");
+        when(produtoRepository.findBy(any(Specification.class), any())).thenReturn(List.of(produto, produto2));
+
+        // Executa o metodo
+        PaginaDTO<ProdutoDTO> result = produtoService.listarPagina(FiltroProduto.TODOS, null, 1);
+
+        // Verificações
+        assertEquals(1, result.getItens().size(), "A página deveria respeitar o limite");
+        assertEquals("1", result.getProximoCursor(), "O cursor deveria ser o ID do último item");
+    }
+
+    /**
+     * Testa o cursor da listagem ordenada por preço.
+     * Verifica se o cursor combina o preço e o ID do último item.
      */
     @Test
-    void listarTodos_DeveRetornarListaDeProdutosDTO() {
+    void listarPagina_DeveGerarCursorComPrecoNaOrdenacaoPorPreco() {
+        // Configura o mock com um registro além do limite
+        Produto produto2 = new Produto(2L, "Produto 2", "Descrição 2", BigDecimal.TEN, 1, "Categoria Teste");
+        when(produtoRepository.findBy(any(Specification.class), any())).thenReturn(List.of(produto, produto2));
+        FiltroProduto filtro = new FiltroProduto("Categoria Teste", null, null, OrdenacaoProduto.PRECO_DESC);
+
+        // Executa o metodo
+        PaginaDTO<ProdutoDTO> result = produtoService.listarPagina(filtro, null, 1);
+
+        // Verificações
+        assertEquals("25.99_1", result.getProximoCursor());
+    }
+
+    /**
+     * Testa a última página da listagem paginada.
+     * Verifica se o próximo cursor é nulo quando não há mais registros.
+     */
+    @Test
+    void listarPagina_DeveRetornarCursorNuloNaUltimaPagina() {
         // Configura o mock
-        when(produtoRepository.findAll()).thenReturn(List.of(produto));
+        when(produtoRepository.findBy(any(Specification.class), any())).thenReturn(List.of());
 
         // Executa o metodo
-        List<ProdutoDTO> result = produtoService.listarTodos();
+        PaginaDTO<ProdutoDTO> result = produtoService.listarPagina(FiltroProduto.TODOS, "1", 10);
 
         // Verificações
-        assertEquals(1, result.size(), "Deveria retornar uma lista com 1 produto");
-        assertEquals(produtoDTO.getId(), result.get(0).getId(), "O ID do produto deveria corresponder");
-        verify(produtoRepository, times(1)).findAll();
+        assertTrue(result.getItens().isEmpty());
+        assertNull(result.getProximoCursor());
+    }
+
+    /**
+     * Testa a listagem com um cursor incompatível com a ordenação.
+     * Verifica se uma IllegalArgumentException é lançada sem consultar o repositório.
+     */
+    @Test
+    void listarPagina_DeveLancarExcecaoQuandoCursorForInvalido() {
+        FiltroProduto filtro = new FiltroProduto(null, null, null, OrdenacaoProduto.PRECO_ASC);
+
+        assertThrows(IllegalArgumentException.class, () -> produtoService.listarPagina(filtro, "abc", 10));
+        verifyNoInteractions(produtoRepository);
     }
 
     /**
@@ -101,10 +167,26 @@ public class ProdutoServiceTest {
         when(produtoRepository.findById(1L)).thenReturn(Optional.empty());
 
         // Verifica se a exceção é lançada
-        assertThrows(RuntimeException.class, () -> produtoService.buscarPorId(1L), "Deveria lança exceção quando o produto não existe");
+        assertThrows(ProdutoNaoEncontradoException.class, () -> produtoService.buscarPorId(1L), "Deveria lança exceção quando o produto não existe");
         verify(produtoRepository, times(1)).findById(1L);
     }
 
+    /**
+     * Testa a busca por um ID que o índice de IDs sabe não existir.
+     * Verifica se:
+     *  ProdutoNaoEncontradoException é lançada sem consultar o banco
+     *  A exceção não captura o stack trace
+     */
+    @Test
+    void buscarPorId_DeveRecusarSemConsultarOBancoQuandoIdCertamenteNaoExistir() {
+        when(indiceIdsProdutoService.certamenteAusente(99L)).thenReturn(true);
+
+        ProdutoNaoEncontradoException excecao = assertThrows(ProdutoNaoEncontradoException.class,
+                () -> produtoService.buscarPorId(99L));
+        assertEquals(0, excecao.getStackTrace().length);
+        verifyNoInteractions(produtoRepository);
+    }
+
     /**
      * Testa a criação de um novo produto.
      * Verifica se:
@@ -140,13 +222,15 @@ public class ProdutoServiceTest {
         when(produtoRepository.save(any(Produto.class))).thenReturn(produto);
 
         // Executa o metodo
-        ProdutoDTO result = produtoService.atualizarProduto(1L, produtoDTO);
+        ProdutoDTO result = produtoService.atualizarProduto(1L, produtoDTO, null);
 
         // Verificações
         assertNotNull(result);
         assertEquals(produtoDTO.getId(), result.getId());
         verify(produtoRepository, times(1)).findById(1L);
         verify(produtoRepository, times(1)).save(any(Produto.class));
+        verify(produtoRepository, times(1)).flush();
+        assertEquals(produtoDTO.getCategoria(), produto.getCategoria());
     }
 
     /**
@@ -161,49 +245,95 @@ public class ProdutoServiceTest {
         when(produtoRepository.findById(1L)).thenReturn(Optional.empty());
 
         // Verifica se a exceção é lançada
-        assertThrows(RuntimeException.class, () -> produtoService.atualizarProduto(1L, produtoDTO), "Deveria lançar exceção quando o produto não existe");
+        assertThrows(RuntimeException.class, () -> produtoService.atualizarProduto(1L, produtoDTO, null), "Deveria lançar exceção quando o produto não existe");
         verify(produtoRepository, times(1)).findById(1L);
         verify(produtoRepository, never()).save(any(Produto.class));
     }
 
+    /**
+     * Testa a atualização condicional com uma versão desatualizada.
+     * Verifica se:
+     *  PrecondicaoFalhouException é lançada
+     *  O metodo save não é chamado
+     */
+    @Test
+    void atualizarProduto_DeveLancarPrecondicaoFalhouQuandoVersaoForDiferente() {
+        produto.setVersao(3L);
+        when(produtoRepository.findById(1L)).thenReturn(Optional.of(produto));
+
+        assertThrows(PrecondicaoFalhouException.class, () -> produtoService.atualizarProduto(1L, produtoDTO, 2L));
+        verify(produtoRepository, never()).save(any(Produto.class));
+    }
+
     /**
      * Testa a exclusão de um produto existente.
      * Verifica se:
      *  Retorna true quando o produto existe
-     *  O metodo delete é chamado
+     *  O produto é removido com um único DELETE
      */
     @Test
     void deletarProduto_DeveRetornarTrueQuandoExistir() {
         // Configura o mock
-        when(produtoRepository.existsById(1L)).thenReturn(true);
+        when(produtoRepository.deletarPorId(1L)).thenReturn(1);
 
         // Executa o metodo
-        boolean result = produtoService.deletarProduto(1L);
+        boolean result = produtoService.deletarProduto(1L, null);
 
-        // Verificações
+        // Verificações: um único DELETE, sem consultar o produto antes, e o registro da remoção
         assertTrue(result);
-        verify(produtoRepository, times(1)).existsById(1L);
-        verify(produtoRepository, times(1)).deleteById(1L);
+        verify(produtoRepository, times(1)).deletarPorId(1L);
+        verify(produtoRepository, never()).existsById(1L);
+        verify(produtoRemovidoRepository, times(1)).registrar(eq(1L), any());
+        verify(eventPublisher, times(1)).publishEvent(ProdutoAlteradoEvent.removido(1L));
     }
 
     /**
      * Testa a exclusão de um produto que não existe.
      * Verifica se:
      *  Retorna false quando o produto não existe
-     *  O metodo delete não é chamado
+     *  Nenhum evento de remoção é publicado
      */
     @Test
     void deletarProduto_DeveRetornarFalseQuandoNaoExistir() {
         // Configura o mock
-        when(produtoRepository.existsById(1L)).thenReturn(false);
+        when(produtoRepository.deletarPorId(1L)).thenReturn(0);
 
         // Executa o método
-        boolean result = produtoService.deletarProduto(1L);
+        boolean result = produtoService.deletarProduto(1L, null);
 
         // Verificações
         assertFalse(result);
-        verify(produtoRepository, times(1)).existsById(1L);
-        verify(produtoRepository, never()).deleteById(1L);
+        verify(produtoRepository, times(1)).deletarPorId(1L);
+        verify(produtoRemovidoRepository, never()).registrar(any(), any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    /**
+     * Testa a exclusão condicional com uma versão desatualizada.
+     * Verifica se:
+     *  PrecondicaoFalhouException é lançada quando o produto existe em outra versão
+     *  Nenhum evento de remoção é publicado
+     */
+    @Test
+    void deletarProduto_DeveLancarPrecondicaoFalhouQuandoVersaoForDiferente() {
+        when(produtoRepository.deletarNaVersao(1L, 2L)).thenReturn(0);
+        when(produtoRepository.existsById(1L)).thenReturn(true);
+
+        assertThrows(PrecondicaoFalhouException.class, () -> produtoService.deletarProduto(1L, 2L));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    /**
+     * Testa a exclusão condicional na versão atual.
+     * Verifica se o produto é removido com um único DELETE condicional.
+     */
+    @Test
+    void deletarProduto_DeveRemoverQuandoVersaoForAtual() {
+        when(produtoRepository.deletarNaVersao(1L, 2L)).thenReturn(1);
+
+        assertTrue(produtoService.deletarProduto(1L, 2L));
+        verify(produtoRepository, never()).existsById(1L);
+        verify(eventPublisher, times(1)).publishEvent(ProdutoAlteradoEvent.removido(1L));
     }
 
     /**
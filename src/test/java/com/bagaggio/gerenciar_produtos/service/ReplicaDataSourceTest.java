@@ -0,0 +1,101 @@
+package com.bagaggio.gerenciar_produtos.service;
+
+import com.bagaggio.gerenciar_produtos.dto.ProdutoDTO;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Teste de integração do roteamento entre primário e réplica, com dois bancos H2 independentes
+ * (sem replicação entre eles), o que permite saber de qual banco cada operação leu ou escreveu.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:primario;DB_CLOSE_DELAY=-1;MODE=MYSQL",
+        "produtos.datasource.replica.url=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1;MODE=MYSQL",
+        "produtos.datasource.replica.username=sa",
+        "spring.cache.type=none"
+})
+@ActiveProfiles("test")
+class ReplicaDataSourceTest {
+
+    @Autowired
+    private ProdutoService produtoService;
+
+    @Autowired
+    @Qualifier("primarioDataSource")
+    private HikariDataSource primarioDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private HikariDataSource replicaDataSource;
+
+    private JdbcTemplate primario;
+    private JdbcTemplate replica;
+
+    /**
+     * O Hibernate cria o schema apenas no primário; na réplica a tabela é criada pelo teste.
+     */
+    @BeforeEach
+    void setUp() {
+        primario = new JdbcTemplate(primarioDataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+        replica.execute("""
+                CREATE TABLE IF NOT EXISTS tb_produtos (
+                    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+                    nome VARCHAR(100) NOT NULL,
+                    descricao TEXT NOT NULL,
+                    preco DECIMAL(19,2) NOT NULL,
+                    quantidade INT NOT NULL,
+                    categoria VARCHAR(50) NOT NULL,
+                    versao BIGINT NOT NULL DEFAULT 0,
+                    criado_em TIMESTAMP(6) NOT NULL,
+                    atualizado_em TIMESTAMP(6) NOT NULL
+                )""");
+        replica.update("DELETE FROM tb_produtos");
+        primario.update("DELETE FROM tb_produtos");
+    }
+
+    /**
+     * Escritas devem ir para o primário e leituras somente leitura para a réplica.
+     */
+    @Test
+    void deveEscreverNoPrimarioELerDaReplica() {
+        ProdutoDTO criado = produtoService.criarProduto(
+                new ProdutoDTO(null, "Produto", "Descrição", BigDecimal.TEN, 1, "Categoria"));
+
+        assertEquals(1, primario.queryForObject("SELECT COUNT(*) FROM tb_produtos", Integer.class));
+        assertEquals(0, replica.queryForObject("SELECT COUNT(*) FROM tb_produtos", Integer.class));
+
+        // A réplica ainda não recebeu o produto, então a listagem não o encontra
+        assertTrue(produtoService.listarPagina(FiltroProduto.TODOS, null, 10).getItens().isEmpty());
+
+        replica.update("""
+                INSERT INTO tb_produtos (id, nome, descricao, preco, quantidade, categoria, versao, criado_em, atualizado_em)
+                VALUES (?, 'Produto na Réplica', 'Descrição', 10.00, 1, 'Categoria', 0, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)""", criado.getId());
+        assertEquals("Produto na Réplica", produtoService.listarPagina(FiltroProduto.TODOS, null, 10).getItens().getFirst().getNome());
+    }
+
+    /**
+     * A busca por ID preenche o cache, por isso deve ler do primário mesmo com a réplica atrasada.
+     */
+    @Test
+    void buscarPorId_DeveLerDoPrimario() {
+        ProdutoDTO criado = produtoService.criarProduto(
+                new ProdutoDTO(null, "Produto", "Descrição", BigDecimal.TEN, 1, "Categoria"));
+        replica.update("""
+                INSERT INTO tb_produtos (id, nome, descricao, preco, quantidade, categoria, versao, criado_em, atualizado_em)
+                VALUES (?, 'Versão Atrasada', 'Descrição', 10.00, 1, 'Categoria', 0, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)""", criado.getId());
+
+        assertEquals("Produto", produtoService.buscarPorId(criado.getId()).getNome());
+    }
+}